@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blackducksoftware.integration.hub.jenkins.exceptions.BDJenkinsHubPluginException;
+import com.blackducksoftware.integration.hub.jenkins.helper.BuildHelper;
+
+/**
+ * Replacing the build variables in the fields of a scan job, done for every field of every scan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuildHelperBenchmark {
+
+    private final Map<String, String> variables = new HashMap<>();
+
+    @Setup
+    public void setUp() {
+        // about as many variables as the environment of a build
+        for (int i = 0; i < 80; i++) {
+            variables.put("VARIABLE_" + i, "value-" + i);
+        }
+        variables.put("JOB_NAME", "blackduck-hub-plugin");
+        variables.put("BUILD_NUMBER", "1234");
+        variables.put("WORKSPACE", "/var/lib/jenkins/workspace/blackduck-hub-plugin");
+    }
+
+    @Benchmark
+    public String replaceVariables() throws BDJenkinsHubPluginException {
+        return BuildHelper.handleVariableReplacement(variables, "${JOB_NAME}-$BUILD_NUMBER ${WORKSPACE}/target");
+    }
+
+    @Benchmark
+    public String replaceNoVariable() throws BDJenkinsHubPluginException {
+        return BuildHelper.handleVariableReplacement(variables, "blackduck-hub-plugin/target");
+    }
+
+}
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.benchmark;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blackducksoftware.integration.hub.jenkins.HubJenkinsLogger;
+import com.blackducksoftware.integration.hub.jenkins.utils.TestBuildListener;
+import com.blackducksoftware.integration.log.LogLevel;
+
+/**
+ * Messages logged to the build log, the scan logs a few thousand of them for a big workspace. Runs with several threads as the scan and the Hub requests log at the same time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class HubJenkinsLoggerBenchmark {
+
+    private HubJenkinsLogger logger;
+
+    @Setup
+    public void setUp() {
+        logger = new HubJenkinsLogger(new TestBuildListener(new PrintStream(NullOutputStream.NULL_OUTPUT_STREAM)));
+        logger.setLogLevel(LogLevel.INFO);
+    }
+
+    @Benchmark
+    public void info() {
+        logger.info("Scanning /var/lib/jenkins/workspace/blackduck-hub-plugin/target/blackduck-hub.hpi");
+    }
+
+    @Benchmark
+    public void filteredDebug() {
+        logger.debug("Scanning /var/lib/jenkins/workspace/blackduck-hub-plugin/target/blackduck-hub.hpi");
+    }
+
+}
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.benchmark;
+
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blackducksoftware.integration.hub.jenkins.action.HubReportV2Action;
+import com.blackducksoftware.integration.hub.jenkins.report.HubReportDelta;
+import com.blackducksoftware.integration.hub.jenkins.report.HubReportIndex;
+import com.blackducksoftware.integration.hub.report.api.ReportData;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Storing the risk report of a build and serving the first page of its components, for reports of a small, a typical and a big project.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HubReportBenchmark {
+
+    private static final String[] POLICY_STATUSES = new String[] { "NOT_IN_VIOLATION", "IN_VIOLATION", "IN_VIOLATION_OVERRIDDEN" };
+
+    @Param({ "100", "1000", "10000" })
+    public int componentCount;
+
+    private String json;
+
+    private ReportData reportData;
+
+    private HubReportIndex index;
+
+    @Setup
+    public void setUp() {
+        final JsonObject report = new JsonObject();
+        report.addProperty("projectName", "blackduck-hub-plugin");
+        report.addProperty("projectVersion", "3.0.2-SNAPSHOT");
+        report.addProperty("projectURL", "https://hub.example.com/ui/projects/id:1");
+        report.addProperty("totalComponents", componentCount);
+        final JsonArray components = new JsonArray();
+        for (int i = 0; i < componentCount; i++) {
+            final JsonObject component = new JsonObject();
+            component.addProperty("componentName", "component-" + i);
+            component.addProperty("componentVersion", i % 10 + "." + i % 7 + ".0");
+            component.addProperty("componentURL", "https://hub.example.com/ui/components/id:" + i);
+            component.addProperty("license", i % 3 == 0 ? "GPL 2.0" : "Apache License 2.0");
+            component.addProperty("policyStatus", POLICY_STATUSES[i % POLICY_STATUSES.length]);
+            component.addProperty("securityRiskHighCount", i % 5 == 0 ? 1 : 0);
+            component.addProperty("securityRiskMediumCount", i % 4 == 0 ? 2 : 0);
+            component.addProperty("licenseRiskLowCount", i % 3 == 0 ? 1 : 0);
+            component.addProperty("operationalRiskMediumCount", i % 6 == 0 ? 1 : 0);
+            components.add(component);
+        }
+        report.add(HubReportDelta.COMPONENTS, components);
+        json = report.toString();
+        reportData = new Gson().fromJson(json, ReportData.class);
+        index = new HubReportIndex(new JsonParser().parse(json).getAsJsonObject());
+    }
+
+    @Benchmark
+    public String serializeReportData() {
+        // as the report is stored in HubReportV2Action.setReportData
+        return new GsonBuilder().create().toJson(reportData);
+    }
+
+    @Benchmark
+    public HubReportIndex indexReport() {
+        return new HubReportIndex(new JsonParser().parse(json).getAsJsonObject());
+    }
+
+    @Benchmark
+    public String renderFirstComponentPage() {
+        // the page HubReportV2Action.doComponents serves when the report is opened
+        final BitSet matches = index.search(new HubReportIndex.Query(null, null, null, null, null, null));
+        final JsonArray pageComponents = new JsonArray();
+        int position = 0;
+        for (int i = matches.nextSetBit(0); i >= 0 && position < HubReportV2Action.COMPONENT_PAGE_SIZE; i = matches.nextSetBit(i + 1)) {
+            pageComponents.add(index.getComponent(i));
+            position++;
+        }
+        final JsonObject page = new JsonObject();
+        page.addProperty("total", matches.cardinality());
+        page.addProperty("start", 0);
+        page.add(HubReportDelta.COMPONENTS, pageComponents);
+        page.add("report", index.getReportFields());
+        return page.toString();
+    }
+
+}
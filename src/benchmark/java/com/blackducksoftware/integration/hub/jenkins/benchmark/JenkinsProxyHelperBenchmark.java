@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blackducksoftware.integration.hub.jenkins.helper.JenkinsProxyHelper;
+
+/**
+ * Matching the Hub url against the no proxy hosts of Jenkins, done for every connection to the Hub.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JenkinsProxyHelperBenchmark {
+
+    private static final String NO_PROXY_HOSTS = "localhost\n127.0.0.1\n*.internal.example.com\nbuild-*.example.com\n*.corp\nartifacts.example.org\n10.*\n192.168.*";
+
+    @Benchmark
+    public boolean proxiedHost() {
+        return JenkinsProxyHelper.shouldUseProxy("https://hub.example.com/api/projects", NO_PROXY_HOSTS);
+    }
+
+    @Benchmark
+    public boolean ignoredHost() {
+        return JenkinsProxyHelper.shouldUseProxy("https://hub.internal.example.com/api/projects", NO_PROXY_HOSTS);
+    }
+
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blackducksoftware.integration.hub.builder.HubServerConfigBuilder;
+import com.blackducksoftware.integration.hub.global.HubServerConfig;
+import com.blackducksoftware.integration.hub.jenkins.remote.RemoteScan;
+import com.blackducksoftware.integration.log.IntLogger;
+import com.blackducksoftware.integration.log.LogLevel;
+
+import hudson.EnvVars;
+
+/**
+ * Serializing the scan sent to the node that runs it. The serialized size is reported as the serializedBytes counter next to the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RemoteScanBenchmark {
+
+    private RemoteScan remoteScan;
+
+    @Setup
+    public void setUp() throws Exception {
+        final HubServerConfigBuilder hubServerConfigBuilder = new HubServerConfigBuilder();
+        hubServerConfigBuilder.setHubUrl("https://hub.example.com");
+        hubServerConfigBuilder.setUsername("jenkins");
+        hubServerConfigBuilder.setPassword("password");
+        hubServerConfigBuilder.setTimeout("120");
+        final HubServerConfig hubServerConfig = hubServerConfigBuilder.build();
+
+        final List<String> scanTargetPaths = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            scanTargetPaths.add("/var/lib/jenkins/workspace/blackduck-hub-plugin/module-" + i + "/target");
+        }
+        // about as many variables as the environment of a build
+        final EnvVars envVars = new EnvVars();
+        for (int i = 0; i < 80; i++) {
+            envVars.put("VARIABLE_" + i, "/var/lib/jenkins/tools/value-" + i);
+        }
+        remoteScan = new RemoteScan(new SilentLogger(), "blackduck-hub-plugin/3.0.2-SNAPSHOT", "blackduck-hub-plugin", "3.0.2-SNAPSHOT", "DEVELOPMENT", "EXTERNAL", 4096, true,
+                "/var/lib/jenkins/workspace/blackduck-hub-plugin", scanTargetPaths, false, true, "/var/lib/jenkins/tools", "2.32.3", "3.0.2-SNAPSHOT", hubServerConfig, true,
+                new String[] { "/node_modules/", "/.git/" }, envVars, false, false, true);
+    }
+
+    @Benchmark
+    public byte[] serialize(final SerializedSize serializedSize) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(remoteScan);
+        }
+        serializedSize.serializedBytes = bytes.size();
+        return bytes.toByteArray();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SerializedSize {
+        public long serializedBytes;
+    }
+
+    /**
+     * Stands in for the build listener, which remoting sends as a reference to the stream on the master rather than serializing it.
+     */
+    private static class SilentLogger extends IntLogger implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void setLogLevel(final LogLevel level) {
+        }
+
+        @Override
+        public LogLevel getLogLevel() {
+            return LogLevel.INFO;
+        }
+
+        @Override
+        public void alwaysLog(final String txt) {
+        }
+
+        @Override
+        public void debug(final String txt) {
+        }
+
+        @Override
+        public void debug(final String txt, final Throwable e) {
+        }
+
+        @Override
+        public void error(final Throwable e) {
+        }
+
+        @Override
+        public void error(final String txt) {
+        }
+
+        @Override
+        public void error(final String txt, final Throwable e) {
+        }
+
+        @Override
+        public void info(final String txt) {
+        }
+
+        @Override
+        public void trace(final String txt) {
+        }
+
+        @Override
+        public void trace(final String txt, final Throwable e) {
+        }
+
+        @Override
+        public void warn(final String txt) {
+        }
+    }
+
+}
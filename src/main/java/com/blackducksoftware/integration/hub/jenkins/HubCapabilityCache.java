@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRetryPolicy;
+import com.blackducksoftware.integration.hub.service.HubServicesFactory;
+
+/**
+ * Remembers the version of each Hub server the plugin talks to, so that every build does not pay a round trip to rediscover it. Entries expire after {@link #TIME_TO_LIVE} and the whole
+ * cache is cleared whenever the global configuration is saved.
+ */
+public class HubCapabilityCache {
+
+    public static final long TIME_TO_LIVE = 60 * 60 * 1000L;
+
+    private final static HubCapabilityCache _instance = new HubCapabilityCache();
+
+    private final Map<String, HubCapabilities> capabilities = new ConcurrentHashMap<>();
+
+    private HubCapabilityCache() {
+    }
+
+    public static HubCapabilityCache getInstance() {
+        return _instance;
+    }
+
+    /**
+     * @return the cached capabilities of the Hub at the URL, checking the Hub again if there is no entry or it has expired
+     */
+    public HubCapabilities getCapabilities(final String serverUrl, final HubServicesFactory services, final HubRetryPolicy retryPolicy) throws IntegrationException, InterruptedException {
+        return getCapabilities(serverUrl, services, retryPolicy, System.currentTimeMillis());
+    }
+
+    HubCapabilities getCapabilities(final String serverUrl, final HubServicesFactory services, final HubRetryPolicy retryPolicy, final long time) throws IntegrationException, InterruptedException {
+        final HubCapabilities cached = getCachedCapabilities(serverUrl, time);
+        if (cached != null) {
+            return cached;
+        }
+        // one round trip per refresh, the plugin only needs the version of the Hub
+        final HubCapabilities checked = retryPolicy.execute("get Hub version", new HubRetryPolicy.HubRequest<HubCapabilities>() {
+            @Override
+            public HubCapabilities execute() throws Exception {
+                return new HubCapabilities(services.createHubVersionRequestService().getHubVersion());
+            }
+        });
+        capabilities.put(getKey(serverUrl), checked);
+        return checked;
+    }
+
+    /**
+     * @return the cached capabilities of the Hub at the URL, null if there is no entry or it has expired. The Hub is not asked.
+     */
+    public HubCapabilities getCachedCapabilities(final String serverUrl) {
+        return getCachedCapabilities(serverUrl, System.currentTimeMillis());
+    }
+
+    HubCapabilities getCachedCapabilities(final String serverUrl, final long time) {
+        final HubCapabilities cached = capabilities.get(getKey(serverUrl));
+        if (cached == null || cached.isExpired(time)) {
+            return null;
+        }
+        return cached;
+    }
+
+    public void invalidateAll() {
+        capabilities.clear();
+    }
+
+    private String getKey(final String serverUrl) {
+        return StringUtils.removeEnd(StringUtils.trimToEmpty(serverUrl), "/").toLowerCase();
+    }
+
+    public static class HubCapabilities {
+        private final String hubVersion;
+
+        private final long checkedAt;
+
+        public HubCapabilities(final String hubVersion) {
+            this.hubVersion = hubVersion;
+            checkedAt = System.currentTimeMillis();
+        }
+
+        public String getHubVersion() {
+            return hubVersion;
+        }
+
+        public long getCheckedAt() {
+            return checkedAt;
+        }
+
+        public boolean isExpired(final long time) {
+            return time - checkedAt > TIME_TO_LIVE;
+        }
+    }
+
+}
@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import java.net.MalformedURLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.blackducksoftware.integration.exception.EncryptionException;
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.jenkins.helper.BuildHelper;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRetryPolicy;
+import com.blackducksoftware.integration.hub.jenkins.helper.JenkinsProxyHelper;
+import com.blackducksoftware.integration.hub.rest.RestConnection;
+import com.blackducksoftware.integration.log.IntLogger;
+
+import hudson.ProxyConfiguration;
+import hudson.Util;
+
+/**
+ * Shares one connection per Hub server and credentials between the builds and the configuration pages of the controller, so they reuse the logged in session and the open connections of its HTTP client
+ * instead of logging in and paying a TLS handshake for every step. A connection is replaced after the reuse time of the global configuration, and every connection is dropped when the global configuration is
+ * saved.
+ */
+public class HubConnectionCache {
+
+    private static final Logger LOGGER = Logger.getLogger(HubConnectionCache.class.getName());
+
+    private final static HubConnectionCache _instance = new HubConnectionCache();
+
+    private final Map<String, SharedConnection> connections = new ConcurrentHashMap<>();
+
+    private HubConnectionCache() {
+    }
+
+    public static HubConnectionCache getInstance() {
+        return _instance;
+    }
+
+    /**
+     * @return the shared connection to the Hub, a new connection using the logger if connections are not shared
+     */
+    public RestConnection getConnection(final IntLogger logger, final String serverUrl, final String username, final String password, final int timeout, final boolean trustSSLCertificates)
+            throws EncryptionException, MalformedURLException {
+        return getConnection(logger, serverUrl, username, password, timeout, trustSSLCertificates, System.currentTimeMillis());
+    }
+
+    RestConnection getConnection(final IntLogger logger, final String serverUrl, final String username, final String password, final int timeout, final boolean trustSSLCertificates, final long time)
+            throws EncryptionException, MalformedURLException {
+        final long timeToLive = getTimeToLive();
+        if (timeToLive <= 0) {
+            return BuildHelper.getRestConnection(logger, serverUrl, username, password, Integer.toString(timeout), trustSSLCertificates);
+        }
+        final String key = getKey(serverUrl, username, password, timeout, trustSSLCertificates);
+        SharedConnection shared = connections.get(key);
+        if (shared == null || shared.isExpired(timeToLive, time)) {
+            synchronized (this) {
+                shared = connections.get(key);
+                if (shared == null || shared.isExpired(timeToLive, time)) {
+                    // the connection outlives the build that opened it, so it logs to the system log instead of the build
+                    final IntLogger sharedLogger = new HubSystemLogger(LOGGER);
+                    shared = new SharedConnection(BuildHelper.getRestConnection(sharedLogger, serverUrl, username, password, Integer.toString(timeout), trustSSLCertificates));
+                    connections.put(key, shared);
+                }
+            }
+        }
+        return shared.connection;
+    }
+
+    /**
+     * Logs in to the Hub with the connection, unless it is a shared connection that is already logged in. The retry policy logs in again once if the Hub rejects a request of the connection as unauthorized,
+     * which it does after a restart or when the session expired.
+     */
+    public void connect(final RestConnection connection, final HubRetryPolicy retryPolicy) throws IntegrationException, InterruptedException {
+        SharedConnection shared = null;
+        for (final SharedConnection candidate : connections.values()) {
+            if (candidate.connection == connection) {
+                shared = candidate;
+                break;
+            }
+        }
+        if (shared == null) {
+            login(connection, retryPolicy);
+            retryPolicy.setReauthentication(new HubRetryPolicy.Reauthentication() {
+                @Override
+                public void reauthenticate(final long since) throws IntegrationException {
+                    connection.connect();
+                }
+            });
+            return;
+        }
+        synchronized (shared) {
+            if (shared.connectedAt == 0) {
+                login(connection, retryPolicy);
+                shared.connectedAt = System.currentTimeMillis();
+            }
+        }
+        final SharedConnection reconnected = shared;
+        retryPolicy.setReauthentication(new HubRetryPolicy.Reauthentication() {
+            @Override
+            public void reauthenticate(final long since) throws IntegrationException {
+                reconnect(reconnected, since);
+            }
+        });
+    }
+
+    /**
+     * Logs in to the Hub again with the shared connection, unless another request already did so after the rejected request was sent.
+     */
+    private void reconnect(final SharedConnection shared, final long since) throws IntegrationException {
+        synchronized (shared) {
+            if (shared.connectedAt > since) {
+                return;
+            }
+            // a failed login leaves the connection logged out, the next step logs in again
+            shared.connectedAt = 0;
+            shared.connection.connect();
+            shared.connectedAt = System.currentTimeMillis();
+        }
+    }
+
+    public void invalidate(final String serverUrl) {
+        final String prefix = StringUtils.removeEnd(StringUtils.trimToEmpty(serverUrl), "/").toLowerCase() + "|";
+        for (final String key : connections.keySet()) {
+            if (key.startsWith(prefix)) {
+                connections.remove(key);
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        connections.clear();
+    }
+
+    private void login(final RestConnection connection, final HubRetryPolicy retryPolicy) throws IntegrationException, InterruptedException {
+        retryPolicy.execute("connect", new HubRetryPolicy.HubRequest<Void>() {
+            @Override
+            public Void execute() throws Exception {
+                connection.connect();
+                return null;
+            }
+        });
+    }
+
+    private long getTimeToLive() {
+        return HubServerInfoSingleton.getInstance().getServerInfo().getConnectionReuse() * 60 * 1000L;
+    }
+
+    private String getKey(final String serverUrl, final String username, final String password, final int timeout, final boolean trustSSLCertificates) {
+        final StringBuilder key = new StringBuilder();
+        key.append(StringUtils.removeEnd(StringUtils.trimToEmpty(serverUrl), "/").toLowerCase());
+        key.append('|').append(username);
+        key.append('|').append(Util.getDigestOf(StringUtils.defaultString(password)));
+        key.append('|').append(timeout);
+        key.append('|').append(trustSSLCertificates);
+        final ProxyConfiguration proxyConfig = JenkinsProxyHelper.getProxyConfiguration(serverUrl);
+        if (proxyConfig != null) {
+            key.append('|').append(proxyConfig.name).append(':').append(proxyConfig.port).append(':').append(proxyConfig.getUserName()).append(':').append(Util.getDigestOf(StringUtils.defaultString(proxyConfig.getPassword())));
+        }
+        return key.toString();
+    }
+
+    private static class SharedConnection {
+        private final RestConnection connection;
+
+        private final long createdAt;
+
+        // when the connection last logged in, 0 if it is not logged in
+        private long connectedAt;
+
+        private SharedConnection(final RestConnection connection) {
+            this.connection = connection;
+            createdAt = System.currentTimeMillis();
+        }
+
+        private boolean isExpired(final long timeToLive, final long time) {
+            return time - createdAt > timeToLive;
+        }
+    }
+
+}
@@ -21,10 +21,12 @@
  *******************************************************************************/
 package com.blackducksoftware.integration.hub.jenkins;
 
+import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.io.Serializable;
 import java.io.StringWriter;
 
+import com.blackducksoftware.integration.hub.jenkins.helper.HubLogBuffer;
 import com.blackducksoftware.integration.log.IntLogger;
 import com.blackducksoftware.integration.log.LogLevel;
 
@@ -37,6 +39,11 @@ public class HubJenkinsLogger extends IntLogger implements Serializable {
 
     private LogLevel level = LogLevel.INFO;
 
+    // lines held before they are written to the log, 0 to write every line as it is logged. Kept when the logger is sent to an agent, the buffer itself is created again there
+    private int bufferSize;
+
+    private transient HubLogBuffer buffer;
+
     public HubJenkinsLogger(final TaskListener jenkinsLogger) {
         this.jenkinsLogger = jenkinsLogger;
     }
@@ -45,6 +52,36 @@ public class HubJenkinsLogger extends IntLogger implements Serializable {
         return jenkinsLogger;
     }
 
+    /**
+     * Writes the log from a background thread, holding up to bufferSize lines. When the buffer is full the warnings and errors are still written while the info, debug and trace messages are dropped
+     * and counted. Call {@link #flush()} when the step ends.
+     *
+     * @param bufferSize
+     *            0 to write every line as it is logged
+     */
+    public synchronized void setBufferSize(final int bufferSize) {
+        flush();
+        this.bufferSize = Math.max(0, bufferSize);
+        buffer = null;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Writes the lines that are still buffered.
+     */
+    public void flush() {
+        final HubLogBuffer currentBuffer;
+        synchronized (this) {
+            currentBuffer = buffer;
+        }
+        if (currentBuffer != null) {
+            currentBuffer.flush();
+        }
+    }
+
     @Override
     public void setLogLevel(final LogLevel level) {
         this.level = level;
@@ -60,89 +97,108 @@ public class HubJenkinsLogger extends IntLogger implements Serializable {
      */
     @Override
     public void alwaysLog(final String txt) {
-        printLog(txt, null);
+        printLog(txt, null, false);
     }
 
     @Override
     public void debug(final String txt) {
         if (LogLevel.isLoggable(level, LogLevel.DEBUG)) {
-            printLog(txt, null);
+            printLog(txt, null, true);
         }
     }
 
     @Override
     public void debug(final String txt, final Throwable e) {
         if (LogLevel.isLoggable(level, LogLevel.DEBUG)) {
-            printLog(txt, e);
+            printLog(txt, e, true);
         }
     }
 
     @Override
     public void error(final Throwable e) {
         if (LogLevel.isLoggable(level, LogLevel.ERROR)) {
-            printLog(null, e);
+            printLog(null, e, false);
         }
     }
 
     @Override
     public void error(final String txt) {
         if (LogLevel.isLoggable(level, LogLevel.ERROR)) {
-            printLog(txt, null);
+            printLog(txt, null, false);
         }
     }
 
     @Override
     public void error(final String txt, final Throwable e) {
         if (LogLevel.isLoggable(level, LogLevel.ERROR)) {
-            printLog(txt, e);
+            printLog(txt, e, false);
         }
     }
 
     @Override
     public void info(final String txt) {
         if (LogLevel.isLoggable(level, LogLevel.INFO)) {
-            printLog(txt, null);
+            printLog(txt, null, true);
         }
     }
 
     @Override
     public void trace(final String txt) {
         if (LogLevel.isLoggable(level, LogLevel.TRACE)) {
-            printLog(txt, null);
+            printLog(txt, null, true);
         }
     }
 
     @Override
     public void trace(final String txt, final Throwable e) {
         if (LogLevel.isLoggable(level, LogLevel.TRACE)) {
-            printLog(txt, e);
+            printLog(txt, e, true);
         }
     }
 
     @Override
     public void warn(final String txt) {
         if (LogLevel.isLoggable(level, LogLevel.WARN)) {
-            printLog(txt, null);
+            printLog(txt, null, false);
         }
     }
 
-    private void printLog(final String txt, final Throwable e) {
+    private void printLog(final String txt, final Throwable e, final boolean droppable) {
         if (txt != null) {
-            if (jenkinsLogger != null) {
-                jenkinsLogger.getLogger().println(txt);
-            } else {
-                System.out.println(txt);
-            }
+            print(txt, droppable);
         }
         if (e != null) {
             final StringWriter sw = new StringWriter();
             e.printStackTrace(new PrintWriter(sw));
-            if (jenkinsLogger != null) {
-                jenkinsLogger.getLogger().println(sw.toString());
+            print(sw.toString(), droppable);
+        }
+    }
+
+    private void print(final String line, final boolean droppable) {
+        final HubLogBuffer currentBuffer = getBuffer();
+        if (currentBuffer == null) {
+            getStream().println(line);
+        } else if (!currentBuffer.offer(line)) {
+            if (droppable) {
+                currentBuffer.drop();
             } else {
-                System.out.println(sw.toString());
+                currentBuffer.writeThrough(line);
             }
         }
     }
 
+    private synchronized HubLogBuffer getBuffer() {
+        if (buffer == null && bufferSize > 0) {
+            buffer = new HubLogBuffer(getStream(), bufferSize);
+        }
+        return buffer;
+    }
+
+    private PrintStream getStream() {
+        if (jenkinsLogger != null) {
+            return jenkinsLogger.getLogger();
+        }
+        return System.out;
+    }
+
 }
@@ -26,6 +26,7 @@ import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
 
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRetryPolicy;
 import com.cloudbees.plugins.credentials.CredentialsProvider;
 import com.cloudbees.plugins.credentials.common.StandardCredentials;
 import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
@@ -50,6 +51,24 @@ public class HubServerInfo {
 
     private boolean performWorkspaceCheck;
 
+    private Integer retryCount;
+
+    private Integer reportRetention;
+
+    private Integer connectionReuse;
+
+    private Integer logBuffer;
+
+    private Integer scanLogLines;
+
+    private boolean backgroundReportGeneration;
+
+    private boolean cliFromController;
+
+    private Integer cliProvisioning;
+
+    private boolean bomNotifications;
+
     public HubServerInfo() {
     }
 
@@ -76,6 +95,138 @@ public class HubServerInfo {
         this.timeout = timeout;
     }
 
+    public static int getDefaultRetryCount() {
+        return HubRetryPolicy.DEFAULT_MAX_RETRIES;
+    }
+
+    public int getRetryCount() {
+        if (retryCount == null || retryCount < 0) {
+            return getDefaultRetryCount();
+        }
+        return retryCount;
+    }
+
+    public void setRetryCount(final int retryCount) {
+        this.retryCount = retryCount;
+    }
+
+    /**
+     * Keeping every report is the default, the retention policy only compacts reports once it has been configured.
+     */
+    public static int getDefaultReportRetention() {
+        return 0;
+    }
+
+    public int getReportRetention() {
+        if (reportRetention == null || reportRetention < 0) {
+            return getDefaultReportRetention();
+        }
+        return reportRetention;
+    }
+
+    public void setReportRetention(final int reportRetention) {
+        this.reportRetention = reportRetention;
+    }
+
+    /**
+     * Minutes a connection to the Hub is shared by the builds and the configuration pages before a new one is opened, 0 to open a connection for every use.
+     */
+    public static int getDefaultConnectionReuse() {
+        return 10;
+    }
+
+    public int getConnectionReuse() {
+        if (connectionReuse == null || connectionReuse < 0) {
+            return getDefaultConnectionReuse();
+        }
+        return connectionReuse;
+    }
+
+    public void setConnectionReuse(final int connectionReuse) {
+        this.connectionReuse = connectionReuse;
+    }
+
+    /**
+     * Lines of the scan log held while they are written to the build log in the background, 0 to write every line as it is logged.
+     */
+    public static int getDefaultLogBuffer() {
+        return 10000;
+    }
+
+    public int getLogBuffer() {
+        if (logBuffer == null || logBuffer < 0) {
+            return getDefaultLogBuffer();
+        }
+        return logBuffer;
+    }
+
+    public void setLogBuffer(final int logBuffer) {
+        this.logBuffer = logBuffer;
+    }
+
+    /**
+     * Lines of the scan log kept at the start and again at the end of the build log, the full scan log is attached to the build. 0 to write the whole scan log to the build log.
+     */
+    public static int getDefaultScanLogLines() {
+        return 500;
+    }
+
+    public int getScanLogLines() {
+        if (scanLogLines == null || scanLogLines < 0) {
+            return getDefaultScanLogLines();
+        }
+        return scanLogLines;
+    }
+
+    public void setScanLogLines(final int scanLogLines) {
+        this.scanLogLines = scanLogLines;
+    }
+
+    public boolean isBackgroundReportGeneration() {
+        return backgroundReportGeneration;
+    }
+
+    public void setBackgroundReportGeneration(final boolean backgroundReportGeneration) {
+        this.backgroundReportGeneration = backgroundReportGeneration;
+    }
+
+    /**
+     * The scan CLI is downloaded from the Hub once by Jenkins and copied to the nodes, instead of every node downloading it.
+     */
+    public boolean isCliFromController() {
+        return cliFromController;
+    }
+
+    public void setCliFromController(final boolean cliFromController) {
+        this.cliFromController = cliFromController;
+    }
+
+    /**
+     * Agents the scan CLI is installed on at the same time when they connect, 0 to install the CLI only when a build scans on the agent.
+     */
+    public static int getDefaultCliProvisioning() {
+        return 4;
+    }
+
+    public int getCliProvisioning() {
+        if (cliProvisioning == null || cliProvisioning < 0) {
+            return getDefaultCliProvisioning();
+        }
+        return cliProvisioning;
+    }
+
+    public void setCliProvisioning(final int cliProvisioning) {
+        this.cliProvisioning = cliProvisioning;
+    }
+
+    public boolean isBomNotifications() {
+        return bomNotifications;
+    }
+
+    public void setBomNotifications(final boolean bomNotifications) {
+        this.bomNotifications = bomNotifications;
+    }
+
     public String getServerUrl() {
         return serverUrl;
     }
@@ -162,6 +313,24 @@ public class HubServerInfo {
         builder.append(trustSSLCertificates);
         builder.append(", performWorkspaceCheck=");
         builder.append(performWorkspaceCheck);
+        builder.append(", retryCount=");
+        builder.append(retryCount);
+        builder.append(", reportRetention=");
+        builder.append(reportRetention);
+        builder.append(", connectionReuse=");
+        builder.append(connectionReuse);
+        builder.append(", logBuffer=");
+        builder.append(logBuffer);
+        builder.append(", scanLogLines=");
+        builder.append(scanLogLines);
+        builder.append(", backgroundReportGeneration=");
+        builder.append(backgroundReportGeneration);
+        builder.append(", cliFromController=");
+        builder.append(cliFromController);
+        builder.append(", cliProvisioning=");
+        builder.append(cliProvisioning);
+        builder.append(", bomNotifications=");
+        builder.append(bomNotifications);
         builder.append("]");
         return builder.toString();
     }
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.blackducksoftware.integration.log.IntLogger;
+import com.blackducksoftware.integration.log.LogLevel;
+
+/**
+ * Logs to the Jenkins system log, for the work of the plugin that is not done for a single build, like the connections to the Hub that the builds share. What is logged is set with the log
+ * recorders of Jenkins, the log level of the logger follows the level of the java.util.logging logger.
+ */
+public class HubSystemLogger extends IntLogger {
+
+    private final Logger logger;
+
+    public HubSystemLogger(final Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * The level is set in the Jenkins logging configuration, not by the plugin.
+     */
+    @Override
+    public void setLogLevel(final LogLevel level) {
+    }
+
+    @Override
+    public LogLevel getLogLevel() {
+        if (logger.isLoggable(Level.FINEST)) {
+            return LogLevel.TRACE;
+        }
+        if (logger.isLoggable(Level.FINE)) {
+            return LogLevel.DEBUG;
+        }
+        if (logger.isLoggable(Level.INFO)) {
+            return LogLevel.INFO;
+        }
+        if (logger.isLoggable(Level.WARNING)) {
+            return LogLevel.WARN;
+        }
+        if (logger.isLoggable(Level.SEVERE)) {
+            return LogLevel.ERROR;
+        }
+        return LogLevel.OFF;
+    }
+
+    /**
+     * Logs the message at the INFO level, the system log has no level that is always written
+     */
+    @Override
+    public void alwaysLog(final String txt) {
+        logger.log(Level.INFO, txt);
+    }
+
+    @Override
+    public void debug(final String txt) {
+        logger.log(Level.FINE, txt);
+    }
+
+    @Override
+    public void debug(final String txt, final Throwable e) {
+        logger.log(Level.FINE, txt, e);
+    }
+
+    @Override
+    public void error(final Throwable e) {
+        logger.log(Level.SEVERE, e.getMessage(), e);
+    }
+
+    @Override
+    public void error(final String txt) {
+        logger.log(Level.SEVERE, txt);
+    }
+
+    @Override
+    public void error(final String txt, final Throwable e) {
+        logger.log(Level.SEVERE, txt, e);
+    }
+
+    @Override
+    public void info(final String txt) {
+        logger.log(Level.INFO, txt);
+    }
+
+    @Override
+    public void trace(final String txt) {
+        logger.log(Level.FINEST, txt);
+    }
+
+    @Override
+    public void trace(final String txt, final Throwable e) {
+        logger.log(Level.FINEST, txt, e);
+    }
+
+    @Override
+    public void warn(final String txt) {
+        logger.log(Level.WARNING, txt);
+    }
+
+}
@@ -191,6 +191,7 @@ public class PostBuildHubScan extends Recorder {
     @Override
     public boolean perform(final AbstractBuild<?, ?> build, final Launcher launcher, final BuildListener listener) throws InterruptedException, IOException {
         final HubJenkinsLogger logger = new HubJenkinsLogger(listener);
+        logger.setBufferSize(getHubServerInfo().getLogBuffer());
 
         try {
             final BDCommonScanStep scanStep = new BDCommonScanStep(getScans(), getHubProjectName(), getHubProjectVersion(), getHubVersionPhase(), getHubVersionDist(), getScanMemory(), isProjectLevelAdjustments(),
@@ -201,6 +202,8 @@ public class PostBuildHubScan extends Recorder {
             scanStep.runScan(build, build.getBuiltOn(), envVars, getWorkingDirectory(logger, build), logger, launcher, listener, build.getFullDisplayName(), String.valueOf(build.getNumber()));
         } catch (final Exception e) {
             logger.error(e);
+        } finally {
+            logger.flush();
         }
         return true;
     }
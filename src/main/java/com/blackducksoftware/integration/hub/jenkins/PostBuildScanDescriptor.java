@@ -79,7 +79,6 @@ import hudson.tasks.Publisher;
 import hudson.util.FormValidation;
 import hudson.util.IOUtils;
 import hudson.util.ListBoxModel;
-import jenkins.model.Jenkins;
 import net.sf.json.JSONObject;
 
 // This indicates to Jenkins that this is an implementation of an extension
@@ -99,6 +98,24 @@ public class PostBuildScanDescriptor extends BuildStepDescriptor<Publisher> impl
 
     private static final String FORM_CREDENTIALSID = "hubCredentialsId";
 
+    private static final String FORM_RETRY_COUNT = "hubRetryCount";
+
+    private static final String FORM_REPORT_RETENTION = "hubReportRetention";
+
+    private static final String FORM_CONNECTION_REUSE = "hubConnectionReuse";
+
+    private static final String FORM_LOG_BUFFER = "hubLogBuffer";
+
+    private static final String FORM_SCAN_LOG_LINES = "hubScanLogLines";
+
+    private static final String FORM_BACKGROUND_REPORT = "hubBackgroundReport";
+
+    private static final String FORM_CLI_FROM_CONTROLLER = "hubCliFromController";
+
+    private static final String FORM_CLI_PROVISIONING = "hubCliProvisioning";
+
+    private static final String FORM_BOM_NOTIFICATIONS = "hubBomNotifications";
+
     private HubServerInfo hubServerInfo;
 
     /**
@@ -157,6 +174,86 @@ public class PostBuildScanDescriptor extends BuildStepDescriptor<Publisher> impl
         return getHubServerInfo() == null ? getDefaultTimeout() : String.valueOf(getHubServerInfo().getTimeout());
     }
 
+    /**
+     * We return a String here instead of an int or Integer because the UI needs a String to display correctly
+     *
+     */
+    public String getDefaultRetryCount() {
+        return String.valueOf(HubServerInfo.getDefaultRetryCount());
+    }
+
+    /**
+     * We return a String here instead of an int or Integer because the UI needs a String to display correctly
+     *
+     */
+    public String getHubRetryCount() {
+        return getHubServerInfo() == null ? getDefaultRetryCount() : String.valueOf(getHubServerInfo().getRetryCount());
+    }
+
+    /**
+     * We return a String here instead of an int or Integer because the UI needs a String to display correctly
+     *
+     */
+    public String getDefaultReportRetention() {
+        return String.valueOf(HubServerInfo.getDefaultReportRetention());
+    }
+
+    /**
+     * We return a String here instead of an int or Integer because the UI needs a String to display correctly
+     *
+     */
+    public String getHubReportRetention() {
+        return getHubServerInfo() == null ? getDefaultReportRetention() : String.valueOf(getHubServerInfo().getReportRetention());
+    }
+
+    /**
+     * We return a String here instead of an int or Integer because the UI needs a String to display correctly
+     *
+     */
+    public String getDefaultConnectionReuse() {
+        return String.valueOf(HubServerInfo.getDefaultConnectionReuse());
+    }
+
+    /**
+     * We return a String here instead of an int or Integer because the UI needs a String to display correctly
+     *
+     */
+    public String getHubConnectionReuse() {
+        return getHubServerInfo() == null ? getDefaultConnectionReuse() : String.valueOf(getHubServerInfo().getConnectionReuse());
+    }
+
+    /**
+     * We return a String here instead of an int or Integer because the UI needs a String to display correctly
+     *
+     */
+    public String getDefaultLogBuffer() {
+        return String.valueOf(HubServerInfo.getDefaultLogBuffer());
+    }
+
+    /**
+     * We return a String here instead of an int or Integer because the UI needs a String to display correctly
+     *
+     */
+    public String getHubLogBuffer() {
+        return getHubServerInfo() == null ? getDefaultLogBuffer() : String.valueOf(getHubServerInfo().getLogBuffer());
+    }
+
+    /**
+     * We return a String here instead of an int or Integer because the UI needs a String to display correctly
+     *
+     */
+    public String getDefaultScanLogLines() {
+        return String.valueOf(HubServerInfo.getDefaultScanLogLines());
+    }
+
+    /**
+     * We return a String here instead of an int or Integer because the UI needs a String to display correctly
+     *
+     */
+    public String getHubScanLogLines() {
+        return getHubServerInfo() == null ? getDefaultScanLogLines() : String.valueOf(getHubServerInfo().getScanLogLines());
+    }
+
     public String getHubCredentialsId() {
         return (getHubServerInfo() == null ? "" : (getHubServerInfo().getCredentialsId() == null ? "" : getHubServerInfo().getCredentialsId()));
     }
@@ -169,6 +266,34 @@ public class PostBuildScanDescriptor extends BuildStepDescriptor<Publisher> impl
         return (getHubServerInfo() == null ? true : (getHubServerInfo().isPerformWorkspaceCheck()));
     }
 
+    public boolean getHubBackgroundReport() {
+        return (getHubServerInfo() == null ? false : (getHubServerInfo().isBackgroundReportGeneration()));
+    }
+
+    public boolean getHubCliFromController() {
+        return (getHubServerInfo() == null ? false : (getHubServerInfo().isCliFromController()));
+    }
+
+    /**
+     * We return a String here instead of an int or Integer because the UI needs a String to display correctly
+     *
+     */
+    public String getDefaultCliProvisioning() {
+        return String.valueOf(HubServerInfo.getDefaultCliProvisioning());
+    }
+
+    /**
+     * We return a String here instead of an int or Integer because the UI needs a String to display correctly
+     *
+     */
+    public String getHubCliProvisioning() {
+        return getHubServerInfo() == null ? getDefaultCliProvisioning() : String.valueOf(getHubServerInfo().getCliProvisioning());
+    }
+
+    public boolean getHubBomNotifications() {
+        return (getHubServerInfo() == null ? false : (getHubServerInfo().isBomNotifications()));
+    }
+
     /**
      * Code from https://github.com/jenkinsci/jenkins/blob/master/core/src/main/java/ hudson/model/AbstractItem.java#L602
      *
@@ -274,6 +399,87 @@ public class PostBuildScanDescriptor extends BuildStepDescriptor<Publisher> impl
                     }
                 }
 
+                final Node retryCountNode = hubServerInfoElement.getElementsByTagName("retryCount").item(0);
+                String hubRetryCount = String.valueOf(HubServerInfo.getDefaultRetryCount());
+                if (retryCountNode != null && retryCountNode.getChildNodes() != null && retryCountNode.getChildNodes().item(0) != null) {
+                    hubRetryCount = retryCountNode.getChildNodes().item(0).getNodeValue();
+                    if (hubRetryCount != null) {
+                        hubRetryCount = hubRetryCount.trim();
+                    }
+                }
+
+                final Node reportRetentionNode = hubServerInfoElement.getElementsByTagName("reportRetention").item(0);
+                String hubReportRetention = String.valueOf(HubServerInfo.getDefaultReportRetention());
+                if (reportRetentionNode != null && reportRetentionNode.getChildNodes() != null && reportRetentionNode.getChildNodes().item(0) != null) {
+                    hubReportRetention = reportRetentionNode.getChildNodes().item(0).getNodeValue();
+                    if (hubReportRetention != null) {
+                        hubReportRetention = hubReportRetention.trim();
+                    }
+                }
+
+                final Node connectionReuseNode = hubServerInfoElement.getElementsByTagName("connectionReuse").item(0);
+                String hubConnectionReuse = String.valueOf(HubServerInfo.getDefaultConnectionReuse());
+                if (connectionReuseNode != null && connectionReuseNode.getChildNodes() != null && connectionReuseNode.getChildNodes().item(0) != null) {
+                    hubConnectionReuse = connectionReuseNode.getChildNodes().item(0).getNodeValue();
+                    if (hubConnectionReuse != null) {
+                        hubConnectionReuse = hubConnectionReuse.trim();
+                    }
+                }
+
+                final Node logBufferNode = hubServerInfoElement.getElementsByTagName("logBuffer").item(0);
+                String hubLogBuffer = String.valueOf(HubServerInfo.getDefaultLogBuffer());
+                if (logBufferNode != null && logBufferNode.getChildNodes() != null && logBufferNode.getChildNodes().item(0) != null) {
+                    hubLogBuffer = logBufferNode.getChildNodes().item(0).getNodeValue();
+                    if (hubLogBuffer != null) {
+                        hubLogBuffer = hubLogBuffer.trim();
+                    }
+                }
+
+                final Node scanLogLinesNode = hubServerInfoElement.getElementsByTagName("scanLogLines").item(0);
+                String hubScanLogLines = String.valueOf(HubServerInfo.getDefaultScanLogLines());
+                if (scanLogLinesNode != null && scanLogLinesNode.getChildNodes() != null && scanLogLinesNode.getChildNodes().item(0) != null) {
+                    hubScanLogLines = scanLogLinesNode.getChildNodes().item(0).getNodeValue();
+                    if (hubScanLogLines != null) {
+                        hubScanLogLines = hubScanLogLines.trim();
+                    }
+                }
+
+                final Node backgroundReportNode = hubServerInfoElement.getElementsByTagName("backgroundReportGeneration").item(0);
+                String hubBackgroundReport = "";
+                if (backgroundReportNode != null && backgroundReportNode.getChildNodes() != null && backgroundReportNode.getChildNodes().item(0) != null) {
+                    hubBackgroundReport = backgroundReportNode.getChildNodes().item(0).getNodeValue();
+                    if (hubBackgroundReport != null) {
+                        hubBackgroundReport = hubBackgroundReport.trim();
+                    }
+                }
+
+                final Node cliFromControllerNode = hubServerInfoElement.getElementsByTagName("cliFromController").item(0);
+                String hubCliFromController = "";
+                if (cliFromControllerNode != null && cliFromControllerNode.getChildNodes() != null && cliFromControllerNode.getChildNodes().item(0) != null) {
+                    hubCliFromController = cliFromControllerNode.getChildNodes().item(0).getNodeValue();
+                    if (hubCliFromController != null) {
+                        hubCliFromController = hubCliFromController.trim();
+                    }
+                }
+
+                final Node cliProvisioningNode = hubServerInfoElement.getElementsByTagName("cliProvisioning").item(0);
+                String hubCliProvisioning = String.valueOf(HubServerInfo.getDefaultCliProvisioning());
+                if (cliProvisioningNode != null && cliProvisioningNode.getChildNodes() != null && cliProvisioningNode.getChildNodes().item(0) != null) {
+                    hubCliProvisioning = cliProvisioningNode.getChildNodes().item(0).getNodeValue();
+                    if (hubCliProvisioning != null) {
+                        hubCliProvisioning = hubCliProvisioning.trim();
+                    }
+                }
+
+                final Node bomNotificationsNode = hubServerInfoElement.getElementsByTagName("bomNotifications").item(0);
+                String hubBomNotifications = "";
+                if (bomNotificationsNode != null && bomNotificationsNode.getChildNodes() != null && bomNotificationsNode.getChildNodes().item(0) != null) {
+                    hubBomNotifications = bomNotificationsNode.getChildNodes().item(0).getNodeValue();
+                    if (hubBomNotifications != null) {
+                        hubBomNotifications = hubBomNotifications.trim();
+                    }
+                }
+
                 serverInfo.setCredentialsId(credentialId);
                 serverInfo.setServerUrl(serverUrl);
 
@@ -287,12 +493,23 @@ public class PostBuildScanDescriptor extends BuildStepDescriptor<Publisher> impl
                 serverInfo.setTimeout(serverTimeout);
                 serverInfo.setTrustSSLCertificates(Boolean.valueOf(trustSSLCertificates));
                 serverInfo.setPerformWorkspaceCheck(Boolean.valueOf(hubWorkspaceCheck));
+                serverInfo.setRetryCount(NumberUtils.toInt(hubRetryCount, HubServerInfo.getDefaultRetryCount()));
+                serverInfo.setReportRetention(NumberUtils.toInt(hubReportRetention, HubServerInfo.getDefaultReportRetention()));
+                serverInfo.setConnectionReuse(NumberUtils.toInt(hubConnectionReuse, HubServerInfo.getDefaultConnectionReuse()));
+                serverInfo.setLogBuffer(NumberUtils.toInt(hubLogBuffer, HubServerInfo.getDefaultLogBuffer()));
+                serverInfo.setScanLogLines(NumberUtils.toInt(hubScanLogLines, HubServerInfo.getDefaultScanLogLines()));
+                serverInfo.setBackgroundReportGeneration(Boolean.valueOf(hubBackgroundReport));
+                serverInfo.setCliFromController(Boolean.valueOf(hubCliFromController));
+                serverInfo.setCliProvisioning(NumberUtils.toInt(hubCliProvisioning, HubServerInfo.getDefaultCliProvisioning()));
+                serverInfo.setBomNotifications(Boolean.valueOf(hubBomNotifications));
             }
         }
         hubServerInfo = serverInfo;
 
         save();
         HubServerInfoSingleton.getInstance().setServerInfo(hubServerInfo);
+        HubCapabilityCache.getInstance().invalidateAll();
+        HubConnectionCache.getInstance().invalidateAll();
     }
 
     @Override
@@ -315,8 +532,19 @@ public class PostBuildScanDescriptor extends BuildStepDescriptor<Publisher> impl
         final Integer timeout = NumberUtils.toInt(formData.getString(FORM_TIMEOUT), 120);
 
         hubServerInfo = new HubServerInfo(formData.getString(FORM_SERVER_URL), formData.getString(FORM_CREDENTIALSID), timeout, formData.getBoolean(FORM_TRUST_CERTS), formData.getBoolean(FORM_WORKSPACE_CHECK));
+        hubServerInfo.setRetryCount(NumberUtils.toInt(formData.optString(FORM_RETRY_COUNT), HubServerInfo.getDefaultRetryCount()));
+        hubServerInfo.setReportRetention(NumberUtils.toInt(formData.optString(FORM_REPORT_RETENTION), HubServerInfo.getDefaultReportRetention()));
+        hubServerInfo.setConnectionReuse(NumberUtils.toInt(formData.optString(FORM_CONNECTION_REUSE), HubServerInfo.getDefaultConnectionReuse()));
+        hubServerInfo.setLogBuffer(NumberUtils.toInt(formData.optString(FORM_LOG_BUFFER), HubServerInfo.getDefaultLogBuffer()));
+        hubServerInfo.setScanLogLines(NumberUtils.toInt(formData.optString(FORM_SCAN_LOG_LINES), HubServerInfo.getDefaultScanLogLines()));
+        hubServerInfo.setBackgroundReportGeneration(formData.optBoolean(FORM_BACKGROUND_REPORT));
+        hubServerInfo.setCliFromController(formData.optBoolean(FORM_CLI_FROM_CONTROLLER));
+        hubServerInfo.setCliProvisioning(NumberUtils.toInt(formData.optString(FORM_CLI_PROVISIONING), HubServerInfo.getDefaultCliProvisioning()));
+        hubServerInfo.setBomNotifications(formData.optBoolean(FORM_BOM_NOTIFICATIONS));
         save();
         HubServerInfoSingleton.getInstance().setServerInfo(hubServerInfo);
+        HubCapabilityCache.getInstance().invalidateAll();
+        HubConnectionCache.getInstance().invalidateAll();
 
         return super.configure(req, formData);
     }
@@ -355,26 +583,86 @@ public class PostBuildScanDescriptor extends BuildStepDescriptor<Publisher> impl
         return FormValidation.ok();
     }
 
+    public FormValidation doCheckHubRetryCount(@QueryParameter("hubRetryCount") final String hubRetryCount) throws IOException, ServletException {
+        if (StringUtils.isBlank(hubRetryCount)) {
+            return FormValidation.ok();
+        }
+        final int retryCount = NumberUtils.toInt(hubRetryCount, -1);
+        if (retryCount < 0) {
+            return FormValidation.error(Messages.HubBuildScan_getRetryCountInvalid());
+        }
+        return FormValidation.ok();
+    }
+
+    public FormValidation doCheckHubReportRetention(@QueryParameter("hubReportRetention") final String hubReportRetention) throws IOException, ServletException {
+        if (StringUtils.isBlank(hubReportRetention)) {
+            return FormValidation.ok();
+        }
+        final int reportRetention = NumberUtils.toInt(hubReportRetention, -1);
+        if (reportRetention < 0) {
+            return FormValidation.error(Messages.HubBuildScan_getReportRetentionInvalid());
+        }
+        return FormValidation.ok();
+    }
+
+    public FormValidation doCheckHubConnectionReuse(@QueryParameter("hubConnectionReuse") final String hubConnectionReuse) throws IOException, ServletException {
+        if (StringUtils.isBlank(hubConnectionReuse)) {
+            return FormValidation.ok();
+        }
+        final int connectionReuse = NumberUtils.toInt(hubConnectionReuse, -1);
+        if (connectionReuse < 0) {
+            return FormValidation.error(Messages.HubBuildScan_getConnectionReuseInvalid());
+        }
+        return FormValidation.ok();
+    }
+
+    public FormValidation doCheckHubLogBuffer(@QueryParameter("hubLogBuffer") final String hubLogBuffer) throws IOException, ServletException {
+        if (StringUtils.isBlank(hubLogBuffer)) {
+            return FormValidation.ok();
+        }
+        final int logBuffer = NumberUtils.toInt(hubLogBuffer, -1);
+        if (logBuffer < 0) {
+            return FormValidation.error(Messages.HubBuildScan_getLogBufferInvalid());
+        }
+        return FormValidation.ok();
+    }
+
+    public FormValidation doCheckHubScanLogLines(@QueryParameter("hubScanLogLines") final String hubScanLogLines) throws IOException, ServletException {
+        if (StringUtils.isBlank(hubScanLogLines)) {
+            return FormValidation.ok();
+        }
+        final int scanLogLines = NumberUtils.toInt(hubScanLogLines, -1);
+        if (scanLogLines < 0) {
+            return FormValidation.error(Messages.HubBuildScan_getScanLogLinesInvalid());
+        }
+        return FormValidation.ok();
+    }
+
+    public FormValidation doCheckHubCliProvisioning(@QueryParameter("hubCliProvisioning") final String hubCliProvisioning) throws IOException, ServletException {
+        if (StringUtils.isBlank(hubCliProvisioning)) {
+            return FormValidation.ok();
+        }
+        final int cliProvisioning = NumberUtils.toInt(hubCliProvisioning, -1);
+        if (cliProvisioning < 0) {
+            return FormValidation.error(Messages.HubBuildScan_getCliProvisioningInvalid());
+        }
+        return FormValidation.ok();
+    }
+
     /**
      * Performs on-the-fly validation of the form field 'serverUrl'.
      *
      */
     public FormValidation doCheckHubServerUrl(@QueryParameter("hubServerUrl") final String hubServerUrl) throws IOException, ServletException {
-        ProxyConfiguration proxyConfig = null;
-        final Jenkins jenkins = Jenkins.getInstance();
-        if (jenkins != null) {
-            proxyConfig = jenkins.proxy;
-        }
         final HubServerConfigValidator validator = new HubServerConfigValidator();
         validator.setHubUrl(hubServerUrl);
         validator.setAlwaysTrustServerCertificate(getTrustSSLCertificates());
+        final ProxyConfiguration proxyConfig = JenkinsProxyHelper.getProxyConfiguration(hubServerUrl);
         if (proxyConfig != null) {
-            if (JenkinsProxyHelper.shouldUseProxy(hubServerUrl, proxyConfig.noProxyHost)) {
-                validator.setProxyHost(proxyConfig.name);
-                validator.setProxyPort(proxyConfig.port);
-                validator.setProxyUsername(proxyConfig.getUserName());
-                validator.setProxyPassword(proxyConfig.getPassword());
-            }
+            validator.setProxyHost(proxyConfig.name);
+            validator.setProxyPort(proxyConfig.port);
+            validator.setProxyUsername(proxyConfig.getUserName());
+            validator.setProxyPassword(proxyConfig.getPassword());
         }
         final ValidationResults results = new ValidationResults();
         validator.validateHubUrl(results);
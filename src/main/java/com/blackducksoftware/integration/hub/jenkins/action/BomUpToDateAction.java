@@ -21,10 +21,17 @@
  *******************************************************************************/
 package com.blackducksoftware.integration.hub.jenkins.action;
 
+import com.blackducksoftware.integration.hub.model.view.VersionBomPolicyStatusView;
+
 import hudson.model.Action;
 
 public class BomUpToDateAction implements Action {
 
+    /**
+     * How long a policy status fetched by the scan step may be reused by the failure conditions before it is fetched again.
+     */
+    public static final long POLICY_STATUS_MAX_AGE = 5 * 60 * 1000L;
+
     private boolean hasBomBeenUdpated;
 
     private long maxWaitTime;
@@ -33,6 +40,11 @@ public class BomUpToDateAction implements Action {
 
     private boolean dryRun;
 
+    // Only needed while the build is running, the failure conditions fetch it again if it is missing
+    private transient VersionBomPolicyStatusView policyStatus;
+
+    private transient long policyStatusTimestamp;
+
     public boolean isHasBomBeenUdpated() {
         return hasBomBeenUdpated;
     }
@@ -57,6 +69,36 @@ public class BomUpToDateAction implements Action {
         this.policyStatusUrl = policyStatusUrl;
     }
 
+    public VersionBomPolicyStatusView getPolicyStatus() {
+        return policyStatus;
+    }
+
+    public void setPolicyStatus(final VersionBomPolicyStatusView policyStatus) {
+        this.policyStatus = policyStatus;
+        policyStatusTimestamp = System.currentTimeMillis();
+    }
+
+    public long getPolicyStatusTimestamp() {
+        return policyStatusTimestamp;
+    }
+
+    /**
+     * @return the policy status fetched during the scan step, or null if there is none or it is older than {@link #POLICY_STATUS_MAX_AGE}
+     */
+    public VersionBomPolicyStatusView getCurrentPolicyStatus() {
+        return getPolicyStatusAt(System.currentTimeMillis());
+    }
+
+    /**
+     * @return the policy status fetched during the scan step, or null if there is none or it is older than {@link #POLICY_STATUS_MAX_AGE} at the time
+     */
+    public VersionBomPolicyStatusView getPolicyStatusAt(final long time) {
+        if (policyStatus == null || time - policyStatusTimestamp > POLICY_STATUS_MAX_AGE) {
+            return null;
+        }
+        return policyStatus;
+    }
+
     public boolean isDryRun() {
         return dryRun;
     }
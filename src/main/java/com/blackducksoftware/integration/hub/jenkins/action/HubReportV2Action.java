@@ -21,22 +21,102 @@
  *******************************************************************************/
 package com.blackducksoftware.integration.hub.jenkins.action;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.ref.SoftReference;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
 import com.blackducksoftware.integration.hub.jenkins.Messages;
+import com.blackducksoftware.integration.hub.jenkins.report.HubReportDelta;
+import com.blackducksoftware.integration.hub.jenkins.report.HubReportFile;
+import com.blackducksoftware.integration.hub.jenkins.report.HubReportIndex;
 import com.blackducksoftware.integration.hub.report.api.ReportData;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 
+import hudson.Util;
 import hudson.model.Action;
 import hudson.model.Run;
+import hudson.util.IOUtils;
 
 public class HubReportV2Action implements Action {
 
+    /**
+     * At most this many builds in a row store their report as a delta, the next one stores the full report so that rebuilding a report never walks a long chain of builds.
+     */
+    public static final int FULL_REPORT_INTERVAL = 10;
+
+    /**
+     * The full report as gzipped json, written the first time the report page asks for it and served as is from then on.
+     */
+    public static final String JSON_FILE_NAME = "blackduck-hub-report.json.gz";
+
+    public static final int COMPONENT_PAGE_SIZE = 500;
+
+    public static final int MAX_COMPONENT_PAGE_SIZE = 5000;
+
+    private static final Logger LOGGER = Logger.getLogger(HubReportV2Action.class.getName());
+
     private final Run<?, ?> build;
 
+    // Only set by older versions of the plugin, the report is now kept as json
     private ReportData reportData;
 
+    // Only kept in the build record by older versions of the plugin or if the report file could not be written, the full report is stored in HubReportFile.FILE_NAME
     private String jsonReportData;
 
+    private HubReportDelta delta;
+
+    private int deltaChainLength;
+
+    // Set once the retention policy has dropped the components of the report, only the summary counts are left
+    private boolean compacted;
+
+    private int[] compactedSummary;
+
+    private Map<String, Integer> compactedPolicyStatusCounts;
+
+    // Set while the report is generated in the background after the build has finished
+    private boolean pending;
+
+    private long pendingSince;
+
+    private String generationFailure;
+
+    // The full report of this action only, the actions a delta is rebuilt from do not keep theirs. The garbage collector may drop it when memory runs low
+    private transient SoftReference<String> reconstructedJsonReportData;
+
+    // Shared by the searches and the requests for the pages of components, the garbage collector may drop it when memory runs low
+    private transient SoftReference<HubReportIndex> reportIndex;
+
     public HubReportV2Action(final Run<?, ?> build) {
         this.build = build;
     }
@@ -45,18 +125,554 @@ public class HubReportV2Action implements Action {
         return build;
     }
 
-    public void setReportData(final ReportData reportData) {
-        this.reportData = reportData;
+    /**
+     * Stores the report, as a delta to the report of the previous build when that is much smaller than the full report.
+     */
+    public synchronized void setReportData(final ReportData reportData) {
         final Gson gson = new GsonBuilder().create();
-        jsonReportData = gson.toJson(reportData);
+        final JsonObject report = gson.toJsonTree(reportData).getAsJsonObject();
+        final String json = gson.toJson(report);
+        this.reportData = null;
+        reconstructedJsonReportData = new SoftReference<>(json);
+        reportIndex = null;
+        final File jsonFile = getJsonFile();
+        if (jsonFile.exists() && !jsonFile.delete()) {
+            LOGGER.warning("Could not delete the outdated " + jsonFile);
+        }
+        jsonReportData = null;
+        delta = null;
+        deltaChainLength = 0;
+        compacted = false;
+        compactedSummary = null;
+        compactedPolicyStatusCounts = null;
+        pending = false;
+        generationFailure = null;
+
+        final HubReportV2Action previousAction = getPreviousReportAction();
+        final String previousJson = previousAction == null ? null : previousAction.readJsonReportData();
+        if (previousJson != null) {
+            try {
+                final HubReportDelta previousDelta = HubReportDelta.compute(previousAction.getBuild().getNumber(), previousJson, json);
+                if (previousDelta != null && previousAction.deltaChainLength + 1 < FULL_REPORT_INTERVAL && previousDelta.getSize() < json.length() / 2) {
+                    delta = previousDelta;
+                    deltaChainLength = previousAction.deltaChainLength + 1;
+                }
+            } catch (final RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Could not compare the risk report to the report of build " + previousAction.getBuild().getNumber() + ", storing the full report", e);
+            }
+        }
+        if (delta == null) {
+            storeReport(json, report);
+            if (jsonReportData == null) {
+                // the report file has it, the pages read it from there
+                reconstructedJsonReportData = null;
+            }
+        }
     }
 
     public ReportData getReportData() {
-        return reportData;
+        if (reportData != null) {
+            return reportData;
+        }
+        final String json = getJsonReportData();
+        if (json == null) {
+            return null;
+        }
+        return new GsonBuilder().create().fromJson(json, ReportData.class);
+    }
+
+    /**
+     * @return the full report, rebuilt from the report of the base build if only the delta is stored
+     */
+    public synchronized String getJsonReportData() {
+        if (compacted) {
+            return null;
+        }
+        String json = getCachedJsonReportData();
+        if (json == null) {
+            json = loadJsonReportData();
+            reconstructedJsonReportData = json == null ? null : new SoftReference<>(json);
+        }
+        return json;
+    }
+
+    /**
+     * @return the full report like {@link #getJsonReportData()}, without keeping it in memory. Used for the reports a delta is rebuilt from or compared to.
+     */
+    private String readJsonReportData() {
+        synchronized (this) {
+            if (compacted) {
+                return null;
+            }
+            final String json = getCachedJsonReportData();
+            if (json != null) {
+                return json;
+            }
+            if (!isReportFileOnly()) {
+                return loadJsonReportData();
+            }
+        }
+        try {
+            return HubReportFile.read(getReportFile());
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Could not read the risk report of " + build.getFullDisplayName(), e);
+            return null;
+        }
+    }
+
+    private synchronized String getCachedJsonReportData() {
+        return reconstructedJsonReportData == null ? null : reconstructedJsonReportData.get();
+    }
+
+    private synchronized String loadJsonReportData() {
+        if (jsonReportData != null) {
+            final String json = jsonReportData;
+            migrateReport();
+            return json;
+        }
+        if (delta != null) {
+            final HubReportV2Action baseAction = getBaseReportAction();
+            String baseJson = null;
+            if (baseAction != null) {
+                baseJson = baseAction.readJsonReportData();
+            }
+            if (baseJson == null) {
+                LOGGER.warning("The risk report of build " + delta.getBaseBuildNumber() + " is missing, only the changes of " + build.getFullDisplayName() + " can be shown");
+                baseJson = "{}";
+            }
+            return delta.apply(baseJson);
+        }
+        if (getReportFile().isFile()) {
+            try {
+                return HubReportFile.read(getReportFile());
+            } catch (final IOException e) {
+                LOGGER.log(Level.WARNING, "Could not read the risk report of " + build.getFullDisplayName(), e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the report level counts in the order of {@link HubReportFile#SUMMARY_COUNTS}, read from the start of the report file when the report is not loaded yet
+     */
+    public synchronized int[] getSummary() {
+        if (compacted) {
+            return compactedSummary == null ? new int[HubReportFile.SUMMARY_COUNTS.length] : compactedSummary.clone();
+        }
+        if (isReportFileOnly()) {
+            try {
+                return HubReportFile.readSummary(getReportFile());
+            } catch (final IOException e) {
+                LOGGER.log(Level.WARNING, "Could not read the risk report summary of " + build.getFullDisplayName(), e);
+            }
+        }
+        final int[] summary = new int[HubReportFile.SUMMARY_COUNTS.length];
+        final String json = getJsonReportData();
+        final JsonObject report = json == null ? new JsonObject() : new JsonParser().parse(json).getAsJsonObject();
+        for (int i = 0; i < summary.length; i++) {
+            final JsonElement count = report.get(HubReportFile.SUMMARY_COUNTS[i]);
+            summary[i] = count != null && count.isJsonPrimitive() ? count.getAsInt() : -1;
+        }
+        return summary;
+    }
+
+    public File getReportFile() {
+        return new File(build.getRootDir(), HubReportFile.FILE_NAME);
+    }
+
+    public File getJsonFile() {
+        return new File(build.getRootDir(), JSON_FILE_NAME);
+    }
+
+    /**
+     * Serves the report json from the gzipped file, copying the file straight to the response when the client accepts gzip. Clients that still have the current report get a 304.
+     */
+    public void doJson(final StaplerRequest request, final StaplerResponse response) throws IOException {
+        final File jsonFile = writeJsonFile();
+        if (jsonFile == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        final long lastModified = jsonFile.lastModified();
+        final String etag = "\"" + lastModified + "-" + jsonFile.length() + "\"";
+        response.setHeader("ETag", etag);
+        response.setDateHeader("Last-Modified", lastModified);
+        response.setHeader("Cache-Control", "private, no-cache");
+        response.setHeader("Vary", "Accept-Encoding");
+        final String ifNoneMatch = request.getHeader("If-None-Match");
+        boolean notModified;
+        if (ifNoneMatch != null) {
+            notModified = ifNoneMatch.equals(etag);
+        } else {
+            // the header only has a precision of seconds
+            notModified = request.getDateHeader("If-Modified-Since") >= lastModified / 1000 * 1000;
+        }
+        if (notModified) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType("application/json;charset=UTF-8");
+        if (StringUtils.contains(request.getHeader("Accept-Encoding"), "gzip")) {
+            response.setHeader("Content-Encoding", "gzip");
+            response.setContentLength((int) jsonFile.length());
+            try (FileInputStream input = new FileInputStream(jsonFile)) {
+                final FileChannel channel = input.getChannel();
+                final WritableByteChannel output = Channels.newChannel(response.getOutputStream());
+                long position = 0;
+                final long size = channel.size();
+                while (position < size) {
+                    position += channel.transferTo(position, size - position, output);
+                }
+            }
+        } else {
+            try (InputStream input = new GZIPInputStream(new FileInputStream(jsonFile))) {
+                IOUtils.copy(input, response.getOutputStream());
+            }
+        }
+    }
+
+    /**
+     * Serves a page of the components of the report that match the search parameters, all the components if there are none. The first page also has the report level fields so the page can be shown before all
+     * the components are loaded.
+     */
+    public void doComponents(final StaplerRequest request, final StaplerResponse response) throws IOException {
+        final HubReportIndex index = getReportIndex();
+        if (index == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        HubReportIndex.Query query;
+        try {
+            query = new HubReportIndex.Query(request.getParameter("name"), request.getParameter("license"), request.getParameter("policyStatus"), request.getParameter("securityRisk"),
+                    request.getParameter("licenseRisk"), request.getParameter("operationalRisk"));
+        } catch (final IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        final int start = Math.max(0, NumberUtils.toInt(request.getParameter("start"), 0));
+        final int count = Math.min(MAX_COMPONENT_PAGE_SIZE, Math.max(1, NumberUtils.toInt(request.getParameter("count"), COMPONENT_PAGE_SIZE)));
+
+        final BitSet matches = index.search(query);
+        final JsonArray pageComponents = new JsonArray();
+        int position = 0;
+        for (int i = matches.nextSetBit(0); i >= 0 && position < start + count; i = matches.nextSetBit(i + 1)) {
+            if (position >= start) {
+                pageComponents.add(index.getComponent(i));
+            }
+            position++;
+        }
+        final JsonObject page = new JsonObject();
+        page.addProperty("total", matches.cardinality());
+        page.addProperty("start", start);
+        page.add(HubReportDelta.COMPONENTS, pageComponents);
+        if (start == 0) {
+            page.add("report", index.getReportFields());
+        }
+        response.setContentType("application/json;charset=UTF-8");
+        response.setHeader("Cache-Control", "private, no-cache");
+        response.getWriter().write(page.toString());
+    }
+
+    public int getComponentPageSize() {
+        return COMPONENT_PAGE_SIZE;
+    }
+
+    private synchronized HubReportIndex getReportIndex() {
+        HubReportIndex index = reportIndex == null ? null : reportIndex.get();
+        if (index == null) {
+            JsonObject report = null;
+            if (isReportFileOnly()) {
+                // the index holds the components already, keeping the json of the report as well would only double the memory used
+                try {
+                    report = HubReportFile.readReport(getReportFile());
+                } catch (final IOException e) {
+                    LOGGER.log(Level.WARNING, "Could not read the risk report of " + build.getFullDisplayName(), e);
+                }
+            } else {
+                final String json = getJsonReportData();
+                if (json != null) {
+                    report = new JsonParser().parse(json).getAsJsonObject();
+                }
+            }
+            if (report == null) {
+                return null;
+            }
+            index = new HubReportIndex(report);
+            reportIndex = new SoftReference<>(index);
+        }
+        return index;
+    }
+
+    /**
+     * @return true if the report is only stored in the report file and has not been read yet
+     */
+    private synchronized boolean isReportFileOnly() {
+        return !compacted && getCachedJsonReportData() == null && jsonReportData == null && delta == null && getReportFile().isFile();
+    }
+
+    private synchronized File writeJsonFile() throws IOException {
+        final File jsonFile = getJsonFile();
+        if (jsonFile.isFile()) {
+            return jsonFile;
+        }
+        final File tempFile = new File(jsonFile.getParentFile(), jsonFile.getName() + ".tmp");
+        if (isReportFileOnly()) {
+            // streamed from the report file, without building the json of the whole report as a string
+            final JsonObject report = HubReportFile.readReport(getReportFile());
+            try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(tempFile)), StandardCharsets.UTF_8)) {
+                new GsonBuilder().create().toJson(report, writer);
+            }
+        } else {
+            final String json = getJsonReportData();
+            if (json == null) {
+                return null;
+            }
+            try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(tempFile)), StandardCharsets.UTF_8)) {
+                writer.write(json);
+            }
+        }
+        Files.move(tempFile.toPath(), jsonFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return jsonFile;
+    }
+
+    private void storeReport(final String json) {
+        storeReport(json, null);
+    }
+
+    /**
+     * @param report
+     *            the parsed json, null to parse it from the json
+     */
+    private void storeReport(final String json, final JsonObject report) {
+        try {
+            if (report != null) {
+                HubReportFile.write(getReportFile(), report);
+            } else {
+                HubReportFile.write(getReportFile(), json);
+            }
+            jsonReportData = null;
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Could not write the risk report file of " + build.getFullDisplayName() + ", keeping the report in the build record", e);
+            jsonReportData = json;
+        }
+    }
+
+    /**
+     * Moves a report kept in the build record by an older version of the plugin to the report file, so the build record loads faster the next time.
+     */
+    private void migrateReport() {
+        if (build.isBuilding()) {
+            return;
+        }
+        storeReport(jsonReportData);
+        if (jsonReportData == null) {
+            reportData = null;
+            try {
+                build.save();
+            } catch (final IOException e) {
+                LOGGER.log(Level.WARNING, "Could not save " + build.getFullDisplayName() + " after moving its risk report to the report file", e);
+            }
+        }
+    }
+
+    /**
+     * @return the number of the build the changes are shown against, or -1 if there is no earlier report. Cheap enough for the report page, the changes themselves are only computed by their own page
+     */
+    public int getPreviousReportBuildNumber() {
+        final HubReportV2Action previousAction = getPreviousReportAction();
+        if (previousAction == null || previousAction.isCompacted()) {
+            return -1;
+        }
+        return previousAction.getBuild().getNumber();
+    }
+
+    /**
+     * Computes what changed since the report of the previous build every time it is asked, the reports are not kept in memory for it. Two reports stored in report files are compared column by column.
+     *
+     * @return what changed since the report of the previous build, or null if there is no earlier report
+     */
+    public HubReportDelta getChanges() {
+        final HubReportV2Action previousAction = getPreviousReportAction();
+        if (previousAction == null) {
+            return null;
+        }
+        final int previousBuildNumber = previousAction.getBuild().getNumber();
+        synchronized (this) {
+            if (delta != null && delta.getBaseBuildNumber() == previousBuildNumber) {
+                return delta;
+            }
+        }
+        final File previousReportFile = previousAction.getReportFile();
+        if (isReportFileOnly() && previousAction.isReportFileOnly()) {
+            try {
+                return HubReportFile.compare(previousBuildNumber, previousReportFile, getReportFile());
+            } catch (final IOException e) {
+                LOGGER.log(Level.WARNING, "Could not compare the risk report of " + build.getFullDisplayName() + " to the report of build " + previousBuildNumber, e);
+                return null;
+            }
+        }
+        final String previousJson = previousAction.readJsonReportData();
+        final String json = readJsonReportData();
+        if (previousJson == null || json == null) {
+            return null;
+        }
+        return HubReportDelta.compute(previousBuildNumber, previousJson, json);
+    }
+
+    public boolean isDelta() {
+        return delta != null;
+    }
+
+    public int getBaseBuildNumber() {
+        if (delta == null) {
+            return -1;
+        }
+        return delta.getBaseBuildNumber();
+    }
+
+    /**
+     * Replaces the stored delta with the full report, used before the base build is deleted.
+     */
+    public void storeFullReport() throws IOException {
+        synchronized (this) {
+            if (delta == null) {
+                return;
+            }
+            final String json = getJsonReportData();
+            delta = null;
+            deltaChainLength = 0;
+            storeReport(json);
+        }
+        build.save();
+    }
+
+    /**
+     * Marks the report as being generated in the background, the report page shows the progress until {@link #setReportData(ReportData)} or {@link #setGenerationFailure(String)} is called.
+     */
+    public synchronized void setPending() {
+        pending = true;
+        pendingSince = System.currentTimeMillis();
+        generationFailure = null;
+    }
+
+    public synchronized boolean isPending() {
+        return pending;
+    }
+
+    /**
+     * @return how long the report has been generated for, in a human readable form
+     */
+    public synchronized String getPendingDuration() {
+        return Util.getTimeSpanString(System.currentTimeMillis() - pendingSince);
+    }
+
+    public synchronized void setGenerationFailure(final String generationFailure) {
+        pending = false;
+        this.generationFailure = generationFailure;
+    }
+
+    /**
+     * @return why the background generation of the report failed, or null if it did not
+     */
+    public synchronized String getGenerationFailure() {
+        return generationFailure;
+    }
+
+    /**
+     * A report that was still generated when Jenkins stopped will never be attached, so it is loaded as failed.
+     */
+    protected Object readResolve() {
+        if (pending) {
+            pending = false;
+            generationFailure = "Jenkins was restarted before the report was generated";
+        }
+        return this;
+    }
+
+    public synchronized boolean isCompacted() {
+        return compacted;
+    }
+
+    /**
+     * @return the number of components with each policy status, computed from the components while the report has them
+     */
+    public synchronized Map<String, Integer> getPolicyStatusCounts() {
+        if (compacted) {
+            return compactedPolicyStatusCounts == null ? Collections.<String, Integer> emptyMap() : compactedPolicyStatusCounts;
+        }
+        final HubReportIndex index = getReportIndex();
+        if (index == null) {
+            return Collections.<String, Integer> emptyMap();
+        }
+        return index.getPolicyStatusCounts();
+    }
+
+    /**
+     * Drops the components of the report and keeps only its summary counts. The builds whose delta is based on this report must have been given their full report first.
+     *
+     * @return the number of bytes reclaimed, on disk and in the build record
+     */
+    public long compact() throws IOException {
+        long reclaimed = 0;
+        synchronized (this) {
+            if (compacted) {
+                return 0;
+            }
+            compactedSummary = getSummary();
+            final HubReportIndex index = getReportIndex();
+            if (index != null) {
+                compactedPolicyStatusCounts = index.getPolicyStatusCounts();
+            }
+            if (jsonReportData != null) {
+                reclaimed += jsonReportData.length();
+            }
+            if (delta != null) {
+                reclaimed += delta.getSize();
+            }
+            reclaimed += deleteReportFile(getReportFile());
+            reclaimed += deleteReportFile(getJsonFile());
+            compacted = true;
+            reportData = null;
+            jsonReportData = null;
+            delta = null;
+            deltaChainLength = 0;
+            reconstructedJsonReportData = null;
+            reportIndex = null;
+        }
+        build.save();
+        return reclaimed;
+    }
+
+    private long deleteReportFile(final File file) throws IOException {
+        if (!file.isFile()) {
+            return 0;
+        }
+        final long length = file.length();
+        if (!file.delete()) {
+            throw new IOException("Could not delete " + file);
+        }
+        return length;
+    }
+
+    private HubReportV2Action getBaseReportAction() {
+        final Run<?, ?> baseBuild = build.getParent().getBuildByNumber(delta.getBaseBuildNumber());
+        if (baseBuild == null) {
+            return null;
+        }
+        return baseBuild.getAction(HubReportV2Action.class);
     }
 
-    public String getJsonReportData() {
-        return jsonReportData;
+    private HubReportV2Action getPreviousReportAction() {
+        Run<?, ?> previousBuild = build.getPreviousBuild();
+        for (int i = 0; previousBuild != null && i < FULL_REPORT_INTERVAL; i++) {
+            final HubReportV2Action previousAction = previousBuild.getAction(HubReportV2Action.class);
+            if (previousAction != null) {
+                return previousAction;
+            }
+            previousBuild = previousBuild.getPreviousBuild();
+        }
+        return null;
     }
 
     @Override
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.action;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+import com.blackducksoftware.integration.hub.jenkins.Messages;
+import com.blackducksoftware.integration.hub.jenkins.report.HubScanEvent;
+import com.blackducksoftware.integration.hub.jenkins.report.HubScanEventLog;
+
+import hudson.model.Action;
+import hudson.model.Run;
+import hudson.util.IOUtils;
+
+/**
+ * Exposes the {@link HubScanEventLog} of a build: the events are part of the remote API of the build from depth 1 and the log itself is served as json lines from the url of this action. The events of a
+ * finished build are read once and kept with the action.
+ */
+@ExportedBean
+public class HubScanEventsAction implements Action {
+
+    private static final Logger LOGGER = Logger.getLogger(HubScanEventsAction.class.getName());
+
+    private final Run<?, ?> build;
+
+    // only set once the build is finished, no event is added after that
+    private transient volatile List<HubScanEvent> events;
+
+    public HubScanEventsAction(final Run<?, ?> build) {
+        this.build = build;
+    }
+
+    /**
+     * Adds the action to the build unless an earlier Hub step already did.
+     */
+    public static void attach(final Run<?, ?> build) {
+        if (build.getAction(HubScanEventsAction.class) == null) {
+            build.addAction(new HubScanEventsAction(build));
+        }
+    }
+
+    public Run<?, ?> getBuild() {
+        return build;
+    }
+
+    /**
+     * Not part of the build at depth 0, so listing builds through the API does not read the event log of every build.
+     */
+    @Exported
+    public List<HubScanEvent> getEvents() {
+        final List<HubScanEvent> cached = events;
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            final boolean finished = !build.isBuilding();
+            final List<HubScanEvent> read = Collections.unmodifiableList(HubScanEventLog.read(build.getRootDir()));
+            if (finished) {
+                events = read;
+            }
+            return read;
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Could not read the Hub events of " + build, e);
+            return Collections.emptyList();
+        }
+    }
+
+    public void doIndex(final StaplerRequest request, final StaplerResponse response) throws IOException {
+        final File file = HubScanEventLog.getFile(build.getRootDir());
+        if (!file.isFile()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setContentType("application/x-ndjson;charset=UTF-8");
+        try (InputStream input = new FileInputStream(file)) {
+            IOUtils.copy(input, response.getOutputStream());
+        }
+    }
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.HubScanEventsAction_getDisplayName();
+    }
+
+    @Override
+    public String getUrlName() {
+        return "hub_scan_events";
+    }
+
+}
@@ -25,6 +25,19 @@ import hudson.model.Action;
 
 public class HubScanFinishedAction implements Action {
 
+    private long scanDuration = -1;
+
+    public HubScanFinishedAction() {
+    }
+
+    public HubScanFinishedAction(final long scanDuration) {
+        this.scanDuration = scanDuration;
+    }
+
+    public long getScanDuration() {
+        return scanDuration;
+    }
+
     @Override
     public String getIconFileName() {
         return null;
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.action;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import com.blackducksoftware.integration.hub.jenkins.Messages;
+
+import hudson.model.Action;
+import hudson.model.Run;
+import hudson.util.IOUtils;
+
+/**
+ * Links the full scan log from the build page. Only the first and the last lines of it are in the build log.
+ */
+public class HubScanLogAction implements Action {
+
+    /**
+     * Gzipped, every scan of the build adds its log as another gzip member.
+     */
+    public static final String FILE_NAME = "blackduck-hub-scan.log.gz";
+
+    private final Run<?, ?> build;
+
+    public HubScanLogAction(final Run<?, ?> build) {
+        this.build = build;
+    }
+
+    public static File getFile(final Run<?, ?> build) {
+        return new File(build.getRootDir(), FILE_NAME);
+    }
+
+    /**
+     * Adds the action to the build unless an earlier scan already did.
+     */
+    public static void attach(final Run<?, ?> build) {
+        if (build.getAction(HubScanLogAction.class) == null) {
+            build.addAction(new HubScanLogAction(build));
+        }
+    }
+
+    public Run<?, ?> getBuild() {
+        return build;
+    }
+
+    public void doIndex(final StaplerRequest request, final StaplerResponse response) throws IOException {
+        final File file = getFile(build);
+        if (!file.isFile()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setContentType("text/plain;charset=UTF-8");
+        try (InputStream input = new GZIPInputStream(new FileInputStream(file))) {
+            IOUtils.copy(input, response.getOutputStream());
+        }
+    }
+
+    @Override
+    public String getIconFileName() {
+        return "clipboard.png";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.HubScanLogAction_getDisplayName();
+    }
+
+    @Override
+    public String getUrlName() {
+        return "hub_scan_log";
+    }
+
+}
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.action;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.blackducksoftware.integration.hub.jenkins.Messages;
+import com.blackducksoftware.integration.hub.jenkins.report.HubTrendIndex;
+import com.blackducksoftware.integration.hub.jenkins.report.HubTrendIndex.HubTrendEntry;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import hudson.model.Action;
+import hudson.model.Job;
+
+public class HubTrendAction implements Action {
+
+    private final Job<?, ?> job;
+
+    public HubTrendAction(final Job<?, ?> job) {
+        this.job = job;
+    }
+
+    public Job<?, ?> getJob() {
+        return job;
+    }
+
+    public List<HubTrendEntry> getEntries() throws IOException {
+        return HubTrendIndex.getIndex(job.getRootDir()).getEntries();
+    }
+
+    public String getJsonTrend() throws IOException {
+        final Gson gson = new GsonBuilder().create();
+        return gson.toJson(getEntries());
+    }
+
+    @Override
+    public String getIconFileName() {
+        return "/plugin/blackduck-hub/images/Ducky-200.png";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.HubTrendAction_getDisplayName();
+    }
+
+    @Override
+    public String getUrlName() {
+        return "hub_trend";
+    }
+
+}
@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.action;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import com.blackducksoftware.integration.hub.jenkins.report.HubTrendIndex;
+
+import hudson.Extension;
+import hudson.model.Action;
+import hudson.model.Job;
+import jenkins.model.TransientActionFactory;
+
+/**
+ * Shows the Hub trend on the page of every job that has a trend index.
+ */
+@Extension
+@SuppressWarnings("rawtypes")
+public class HubTrendActionFactory extends TransientActionFactory<Job> {
+
+    @Override
+    public Class<Job> type() {
+        return Job.class;
+    }
+
+    @Override
+    public Collection<? extends Action> createFor(final Job target) {
+        // asked for every job, the index is only loaded once the trend is shown
+        if (!HubTrendIndex.exists(target.getRootDir())) {
+            return Collections.emptySet();
+        }
+        return Collections.singleton(new HubTrendAction(target));
+    }
+
+}
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.jenkins.remote.HubCLIDownload;
+import com.blackducksoftware.integration.hub.jenkins.remote.HubCLIInstallation;
+import com.blackducksoftware.integration.hub.jenkins.remote.InstallCLIArchive;
+import com.blackducksoftware.integration.hub.jenkins.remote.VerifyCLIInstallation;
+import com.blackducksoftware.integration.hub.rest.RestConnection;
+import com.blackducksoftware.integration.log.IntLogger;
+
+import hudson.FilePath;
+import hudson.remoting.VirtualChannel;
+import jenkins.model.Jenkins;
+
+/**
+ * Installs the scan CLI on the nodes from an archive kept by Jenkins, so the Hub is asked for the CLI once per Hub version and platform instead of once per node. The installation of a node is checked
+ * against its version and checksum once per connection of the node, the executors of the node share it and wait while it is installed. The archive is downloaded with the connection of the configured
+ * Hub server, so it uses the proxy, the timeout and the certificate settings of the server, and an executor waiting for the download can still be interrupted.
+ */
+public class HubCLIInstallationManager {
+
+    public static final String ARCHIVE_DIRECTORY = "blackduck-hub-cli";
+
+    private final static HubCLIInstallationManager _instance = new HubCLIInstallationManager();
+
+    // forgotten with the channel, a node that connects again is checked again
+    private final Map<VirtualChannel, NodeInstallations> nodeInstallations = new WeakHashMap<>();
+
+    private final ConcurrentMap<String, ReentrantLock> archiveLocks = new ConcurrentHashMap<>();
+
+    // archives whose checksum was checked since Jenkins started
+    private final Set<String> checkedArchives = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private HubCLIInstallationManager() {
+    }
+
+    public static HubCLIInstallationManager getInstance() {
+        return _instance;
+    }
+
+    /**
+     * Makes sure the CLI of the Hub version is installed in the tools directory of the node, downloading the archive with the connection to the Hub if Jenkins does not have it yet.
+     *
+     * @return true if the CLI was installed, false if it already was
+     */
+    public boolean install(final IntLogger logger, final VirtualChannel channel, final String toolsDirectory, final RestConnection restConnection, final String hubUrl, final String hubVersion)
+            throws IOException, IntegrationException, InterruptedException {
+        final String key = toolsDirectory + "|" + hubVersion;
+        final NodeInstallations node = getNodeInstallations(channel);
+        // the executors of a node wait for each other, different nodes install in parallel
+        node.lock.lockInterruptibly();
+        try {
+            if (node.verified.contains(key)) {
+                return false;
+            }
+            final HubCLIInstallation installation = channel.call(new VerifyCLIInstallation(toolsDirectory));
+            boolean installed = false;
+            if (!installation.isInstalled(hubVersion)) {
+                final File archive = getArchive(logger, restConnection, hubUrl, hubVersion, installation.getPlatform());
+                final String checksum = readChecksum(archive);
+                logger.info("Installing the scan CLI of Hub " + hubVersion + " from Jenkins in " + toolsDirectory);
+                final FilePath remoteArchive = new FilePath(channel, toolsDirectory).child(HubCLIInstallation.INSTALL_DIRECTORY + "." + UUID.randomUUID().toString() + ".zip");
+                remoteArchive.copyFrom(new FilePath(archive));
+                // another process sharing the tools directory may have installed it in the meantime
+                installed = channel.call(new InstallCLIArchive(toolsDirectory, remoteArchive.getRemote(), checksum, hubVersion));
+            }
+            node.verified.add(key);
+            return installed;
+        } finally {
+            node.lock.unlock();
+        }
+    }
+
+    private NodeInstallations getNodeInstallations(final VirtualChannel channel) {
+        synchronized (nodeInstallations) {
+            NodeInstallations node = nodeInstallations.get(channel);
+            if (node == null) {
+                node = new NodeInstallations();
+                nodeInstallations.put(channel, node);
+            }
+            return node;
+        }
+    }
+
+    /**
+     * @return the archive of the CLI for the Hub version and the platform, downloaded from the Hub the first time it is asked for
+     */
+    public File getArchive(final IntLogger logger, final RestConnection restConnection, final String hubUrl, final String hubVersion, final String platform)
+            throws IOException, IntegrationException, InterruptedException {
+        final File directory = new File(new File(Jenkins.getInstance().getRootDir(), ARCHIVE_DIRECTORY), hubVersion.replaceAll("[^A-Za-z0-9._-]", "_"));
+        final File archive = new File(directory, HubCLIInstallation.getArchiveName(platform));
+        final String archiveKey = archive.getAbsolutePath();
+        final ReentrantLock lock = getArchiveLock(archiveKey);
+        lock.lockInterruptibly();
+        try {
+            final File checksumFile = getChecksumFile(archive);
+            if (archive.isFile() && checksumFile.isFile()) {
+                if (checkedArchives.contains(archiveKey) || readChecksum(archive).equals(HubCLIInstallation.checksum(archive))) {
+                    checkedArchives.add(archiveKey);
+                    return archive;
+                }
+                logger.warn("The scan CLI archive " + archive + " does not match its checksum, downloading it again");
+            }
+            download(logger, restConnection, StringUtils.removeEnd(hubUrl, "/") + "/download/" + archive.getName(), archive);
+            checkedArchives.add(archiveKey);
+            return archive;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock getArchiveLock(final String archiveKey) {
+        final ReentrantLock lock = new ReentrantLock();
+        final ReentrantLock existing = archiveLocks.putIfAbsent(archiveKey, lock);
+        return existing == null ? lock : existing;
+    }
+
+    private void download(final IntLogger logger, final RestConnection restConnection, final String url, final File archive) throws IOException, IntegrationException {
+        archive.getParentFile().mkdirs();
+        final File downloading = new File(archive.getParentFile(), archive.getName() + "." + UUID.randomUUID().toString() + ".tmp");
+        try {
+            final String checksum = HubCLIDownload.download(logger, restConnection, url, downloading);
+            Files.write(getChecksumFile(archive).toPath(), checksum.getBytes(StandardCharsets.UTF_8));
+            Files.move(downloading.toPath(), archive.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(downloading.toPath());
+        }
+    }
+
+    private File getChecksumFile(final File archive) {
+        return new File(archive.getParentFile(), archive.getName() + ".sha256");
+    }
+
+    private String readChecksum(final File archive) throws IOException {
+        return new String(Files.readAllBytes(getChecksumFile(archive).toPath()), StandardCharsets.UTF_8).trim();
+    }
+
+    private static class NodeInstallations {
+        private final ReentrantLock lock = new ReentrantLock();
+
+        // installations checked since the node connected, only read and changed while holding the lock
+        private final Set<String> verified = new HashSet<>();
+    }
+
+}
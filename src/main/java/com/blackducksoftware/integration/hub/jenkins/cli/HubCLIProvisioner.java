@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.cli;
+
+import java.io.IOException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.jenkins.HubCapabilityCache;
+import com.blackducksoftware.integration.hub.jenkins.HubConnectionCache;
+import com.blackducksoftware.integration.hub.jenkins.HubJenkinsLogger;
+import com.blackducksoftware.integration.hub.jenkins.HubServerInfo;
+import com.blackducksoftware.integration.hub.jenkins.HubServerInfoSingleton;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRetryPolicy;
+import com.blackducksoftware.integration.hub.rest.RestConnection;
+import com.blackducksoftware.integration.hub.service.HubServicesFactory;
+
+import hudson.Extension;
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import hudson.slaves.ComputerListener;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.model.Jenkins;
+
+/**
+ * Installs the scan CLI on an agent as soon as it connects, so agents that only live for a build do not install the CLI during their first scan. The agents are installed from the archive kept by
+ * {@link HubCLIInstallationManager}, a limited number at the same time so a fleet of agents starting together does not copy the CLI to all of them at once. A scan that starts while its agent is
+ * installed waits for that installation instead of starting another one.
+ */
+@Extension
+public class HubCLIProvisioner extends ComputerListener {
+
+    private static final Logger LOGGER = Logger.getLogger(HubCLIProvisioner.class.getName());
+
+    private static final ThreadPoolExecutor executor;
+
+    static {
+        final int poolSize = HubServerInfo.getDefaultCliProvisioning();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new NamingThreadFactory(new DaemonThreadFactory(), "Black Duck Hub scan CLI provisioning"));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void onOnline(final Computer computer, final TaskListener listener) throws IOException, InterruptedException {
+        // the controller keeps its tools directory, its CLI is installed by its first scan
+        if (computer instanceof Jenkins.MasterComputer) {
+            return;
+        }
+        final HubServerInfo serverInfo = HubServerInfoSingleton.getInstance().getServerInfo();
+        if (serverInfo == null || !serverInfo.isPluginConfigured() || !serverInfo.isCliFromController() || serverInfo.getCliProvisioning() == 0) {
+            return;
+        }
+        setPoolSize(serverInfo.getCliProvisioning());
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                provision(computer, listener);
+            }
+        });
+    }
+
+    private static synchronized void setPoolSize(final int poolSize) {
+        resize(executor, poolSize);
+    }
+
+    /**
+     * Sets the core and the maximum size of a fixed size pool. The core size may never be above the maximum size, so the order depends on whether the pool grows or shrinks.
+     */
+    public static void resize(final ThreadPoolExecutor pool, final int poolSize) {
+        if (poolSize > pool.getMaximumPoolSize()) {
+            pool.setMaximumPoolSize(poolSize);
+            pool.setCorePoolSize(poolSize);
+        } else if (poolSize < pool.getMaximumPoolSize()) {
+            pool.setCorePoolSize(poolSize);
+            pool.setMaximumPoolSize(poolSize);
+        }
+    }
+
+    private void provision(final Computer computer, final TaskListener listener) {
+        final HubServerInfo serverInfo = HubServerInfoSingleton.getInstance().getServerInfo();
+        final Node node = computer.getNode();
+        final VirtualChannel channel = computer.getChannel();
+        // the agent may have gone away while it waited for its turn
+        if (serverInfo == null || node == null || channel == null) {
+            return;
+        }
+        final HubJenkinsLogger logger = new HubJenkinsLogger(listener);
+        final long start = System.currentTimeMillis();
+        try {
+            final String toolsDirectory = new DummyToolInstaller().getToolDir(new DummyToolInstallation(), node).getRemote();
+            final HubRetryPolicy retryPolicy = new HubRetryPolicy(logger, serverInfo.getRetryCount());
+            final RestConnection restConnection = HubConnectionCache.getInstance().getConnection(logger, serverInfo.getServerUrl(), serverInfo.getUsername(), serverInfo.getPassword(), serverInfo.getTimeout(),
+                    serverInfo.shouldTrustSSLCerts());
+            HubConnectionCache.getInstance().connect(restConnection, retryPolicy);
+            final String hubVersion = HubCapabilityCache.getInstance().getCapabilities(serverInfo.getServerUrl(), new HubServicesFactory(restConnection), retryPolicy).getHubVersion();
+            if (HubCLIInstallationManager.getInstance().install(logger, channel, toolsDirectory, restConnection, serverInfo.getServerUrl(), hubVersion)) {
+                LOGGER.fine("Installed the scan CLI of Hub " + hubVersion + " on " + computer.getName() + " in " + (System.currentTimeMillis() - start) + "ms");
+            }
+        } catch (final IOException | IntegrationException e) {
+            logger.warn("Could not install the scan CLI on this agent, the first scan will install it : " + e.getMessage());
+            LOGGER.log(Level.WARNING, "Could not install the scan CLI on " + computer.getName(), e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -26,18 +26,24 @@ import java.net.URISyntaxException;
 
 import com.blackducksoftware.integration.exception.EncryptionException;
 import com.blackducksoftware.integration.exception.IntegrationException;
-import com.blackducksoftware.integration.hub.HubSupportHelper;
 import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.jenkins.HubCapabilityCache;
+import com.blackducksoftware.integration.hub.jenkins.HubCapabilityCache.HubCapabilities;
+import com.blackducksoftware.integration.hub.jenkins.HubConnectionCache;
 import com.blackducksoftware.integration.hub.jenkins.HubJenkinsLogger;
 import com.blackducksoftware.integration.hub.jenkins.HubServerInfo;
 import com.blackducksoftware.integration.hub.jenkins.HubServerInfoSingleton;
 import com.blackducksoftware.integration.hub.jenkins.action.BomUpToDateAction;
+import com.blackducksoftware.integration.hub.jenkins.action.HubScanEventsAction;
 import com.blackducksoftware.integration.hub.jenkins.action.HubVariableContributor;
 import com.blackducksoftware.integration.hub.jenkins.exceptions.BDJenkinsHubPluginException;
-import com.blackducksoftware.integration.hub.jenkins.helper.BuildHelper;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRetryPolicy;
+import com.blackducksoftware.integration.hub.jenkins.report.HubScanEvent;
+import com.blackducksoftware.integration.hub.jenkins.report.HubScanEventLog;
 import com.blackducksoftware.integration.hub.model.enumeration.VersionBomPolicyStatusOverallStatusEnum;
 import com.blackducksoftware.integration.hub.model.view.VersionBomPolicyStatusView;
 import com.blackducksoftware.integration.hub.model.view.components.ComponentVersionStatusCount;
+import com.blackducksoftware.integration.hub.rest.RestConnection;
 import com.blackducksoftware.integration.hub.service.HubServicesFactory;
 import com.blackducksoftware.integration.util.CIEnvironmentVariables;
 
@@ -68,7 +74,21 @@ public class HubCommonFailureStep {
 
     public boolean checkFailureConditions(final Run run, final Node builtOn, final EnvVars envVars, final HubJenkinsLogger logger, final TaskListener listener, final BomUpToDateAction bomUpToDateAction)
             throws InterruptedException, IOException, IllegalArgumentException, EncryptionException {
+        final HubScanEventLog events = new HubScanEventLog(run.getRootDir(), "failureConditions");
+        final long start = events.phaseStart("failureConditions");
+        try {
+            return checkFailureConditions(run, envVars, logger, bomUpToDateAction, events);
+        } finally {
+            final HubScanEvent resultEvent = events.createEvent(HubScanEvent.RESULT, String.valueOf(run.getResult()));
+            resultEvent.setDuration(resultEvent.getTime() - start);
+            events.record(resultEvent);
+            events.phaseEnd("failureConditions", start);
+            HubScanEventsAction.attach(run);
+        }
+    }
 
+    private boolean checkFailureConditions(final Run run, final EnvVars envVars, final HubJenkinsLogger logger, final BomUpToDateAction bomUpToDateAction, final HubScanEventLog events)
+            throws InterruptedException, IOException, IllegalArgumentException, EncryptionException {
         final CIEnvironmentVariables variables = new CIEnvironmentVariables();
         variables.putAll(envVars);
         logger.setLogLevel(variables);
@@ -99,22 +119,19 @@ public class HubCommonFailureStep {
                     run.setResult(Result.UNSTABLE);
                     return true;
                 }
-                final HubServicesFactory service = getHubServicesFactory(logger, serverInfo);
-
-                final HubSupportHelper hubSupport = new HubSupportHelper();
-                hubSupport.checkHubSupport(service.createHubVersionRequestService(), null);
-
-                VersionBomPolicyStatusView policyStatus = null;
-                try {
-                    policyStatus = service.createHubResponseService().getItem(bomUpToDateAction.getPolicyStatusUrl(), VersionBomPolicyStatusView.class);
-                } catch (final HubIntegrationException e) {
-                    // ignore exception, could not find policy information
+                VersionBomPolicyStatusView policyStatus = bomUpToDateAction.getCurrentPolicyStatus();
+                if (policyStatus != null) {
+                    logger.debug("Using the policy status retrieved during the Hub scan.");
+                } else {
+                    policyStatus = fetchPolicyStatus(logger, serverInfo, bomUpToDateAction.getPolicyStatusUrl(), events);
                 }
                 if (policyStatus == null) {
                     logger.error("Could not find any information about the Policy status of the bom.");
                     return true;
                 }
 
+                events.record(events.createEvent(HubScanEvent.POLICY_STATUS, String.valueOf(policyStatus.overallStatus)));
+
                 logger.alwaysLog("--> Configured to set the Build Result to " + buildStateOnFailure.getDisplayValue() + " for Hub Failure Conditions.");
                 if (policyStatus.overallStatus == VersionBomPolicyStatusOverallStatusEnum.IN_VIOLATION) {
                     run.setResult(resultToSetForFailureCondition);
@@ -154,9 +171,41 @@ public class HubCommonFailureStep {
         return true;
     }
 
-    public HubServicesFactory getHubServicesFactory(final HubJenkinsLogger logger, final HubServerInfo serverInfo)
-            throws IOException, URISyntaxException, BDJenkinsHubPluginException, HubIntegrationException, IllegalArgumentException, EncryptionException {
-        return BuildHelper.getHubServicesFactory(logger, serverInfo.getServerUrl(), serverInfo.getUsername(), serverInfo.getPassword(), serverInfo.getTimeout());
+    private VersionBomPolicyStatusView fetchPolicyStatus(final HubJenkinsLogger logger, final HubServerInfo serverInfo, final String policyStatusUrl, final HubScanEventLog events)
+            throws IOException, URISyntaxException, BDJenkinsHubPluginException, IntegrationException, InterruptedException, IllegalArgumentException, EncryptionException {
+        final HubRetryPolicy retryPolicy = new HubRetryPolicy(logger, serverInfo.getRetryCount());
+        retryPolicy.setEventLog(events);
+        final HubServicesFactory service = getHubServicesFactory(logger, serverInfo, retryPolicy);
+
+        final HubCapabilities capabilities = HubCapabilityCache.getInstance().getCapabilities(serverInfo.getServerUrl(), service, retryPolicy);
+        logger.debug("Hub server version : " + capabilities.getHubVersion());
+
+        VersionBomPolicyStatusView policyStatus = null;
+        try {
+            policyStatus = retryPolicy.execute("get policy status", new HubRetryPolicy.HubRequest<VersionBomPolicyStatusView>() {
+                @Override
+                public VersionBomPolicyStatusView execute() throws Exception {
+                    return service.createHubResponseService().getItem(policyStatusUrl, VersionBomPolicyStatusView.class);
+                }
+            });
+        } catch (final HubIntegrationException e) {
+            // ignore exception, could not find policy information
+        }
+        if (retryPolicy.getRetryCount() > 0) {
+            logger.alwaysLog("--> Hub requests retried : " + retryPolicy.getRetryCount());
+        }
+        return policyStatus;
+    }
+
+    /**
+     * @return the services of the shared connection to the Hub, logged in like the connection of the scan
+     */
+    public HubServicesFactory getHubServicesFactory(final HubJenkinsLogger logger, final HubServerInfo serverInfo, final HubRetryPolicy retryPolicy)
+            throws IOException, IntegrationException, InterruptedException, IllegalArgumentException, EncryptionException {
+        final RestConnection restConnection = HubConnectionCache.getInstance().getConnection(logger, serverInfo.getServerUrl(), serverInfo.getUsername(), serverInfo.getPassword(), serverInfo.getTimeout(),
+                serverInfo.shouldTrustSSLCerts());
+        HubConnectionCache.getInstance().connect(restConnection, retryPolicy);
+        return new HubServicesFactory(restConnection);
     }
 
 }
@@ -29,6 +29,7 @@ import org.apache.commons.lang3.StringUtils;
 import com.blackducksoftware.integration.exception.EncryptionException;
 import com.blackducksoftware.integration.hub.builder.HubServerConfigBuilder;
 import com.blackducksoftware.integration.hub.global.HubServerConfig;
+import com.blackducksoftware.integration.hub.jenkins.HubConnectionCache;
 import com.blackducksoftware.integration.hub.jenkins.exceptions.BDJenkinsHubPluginException;
 import com.blackducksoftware.integration.hub.rest.RestConnection;
 import com.blackducksoftware.integration.hub.service.HubServicesFactory;
@@ -40,7 +41,6 @@ import hudson.ProxyConfiguration;
 import hudson.Util;
 import hudson.model.AbstractBuild;
 import hudson.model.Result;
-import jenkins.model.Jenkins;
 
 public class BuildHelper {
     public static boolean isSuccess(final AbstractBuild<?, ?> build) {
@@ -65,7 +65,7 @@ public class BuildHelper {
         if (logger == null) {
             logger = new PrintStreamIntLogger(System.out, LogLevel.INFO);
         }
-        final HubServicesFactory service = new HubServicesFactory(getRestConnection(logger, serverUrl, username, password, Integer.toString(hubTimeout), shouldTrustSSLCertificates));
+        final HubServicesFactory service = new HubServicesFactory(HubConnectionCache.getInstance().getConnection(logger, serverUrl, username, password, hubTimeout, shouldTrustSSLCertificates));
         return service;
     }
 
@@ -101,21 +101,16 @@ public class BuildHelper {
     }
 
     private static RestConnection getRestConnection(final IntLogger logger, final String serverUrl, final HubServerConfigBuilder hubServerConfigBuilder) throws EncryptionException, MalformedURLException {
-        final Jenkins jenkins = Jenkins.getInstance();
         String proxyHost = null;
         Integer proxyPort = null;
         String proxyUser = null;
         String proxyPassword = null;
-        if (jenkins != null) {
-            final ProxyConfiguration proxyConfig = jenkins.proxy;
-            if (proxyConfig != null) {
-                if (JenkinsProxyHelper.shouldUseProxy(serverUrl, proxyConfig.noProxyHost)) {
-                    proxyHost = proxyConfig.name;
-                    proxyPort = proxyConfig.port;
-                    proxyUser = jenkins.proxy.getUserName();
-                    proxyPassword = jenkins.proxy.getPassword();
-                }
-            }
+        final ProxyConfiguration proxyConfig = JenkinsProxyHelper.getProxyConfiguration(serverUrl);
+        if (proxyConfig != null) {
+            proxyHost = proxyConfig.name;
+            proxyPort = proxyConfig.port;
+            proxyUser = proxyConfig.getUserName();
+            proxyPassword = proxyConfig.getPassword();
         }
 
         return getRestConnection(logger, hubServerConfigBuilder, proxyHost, proxyPort, proxyUser, proxyPassword);
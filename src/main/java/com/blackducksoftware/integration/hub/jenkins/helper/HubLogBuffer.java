@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.helper;
+
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+/**
+ * Holds the lines of a build log in a ring of a fixed size and writes them to the log in chunks from a background thread, so the code logging the lines (like the scan CLI) does not wait for the log,
+ * which is a remote call for every write when the build runs on an agent.
+ */
+public class HubLogBuffer {
+
+    public static final long FLUSH_INTERVAL = 200L;
+
+    private static final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(new NamingThreadFactory(new DaemonThreadFactory(), "Black Duck Hub build log"));
+
+    private final PrintStream stream;
+
+    private final String[] lines;
+
+    // keeps the chunks in order when the background thread and the logging thread flush at the same time
+    private final Object writeLock = new Object();
+
+    private int head;
+
+    private int count;
+
+    private int droppedLines;
+
+    private ScheduledFuture<?> flushing;
+
+    public HubLogBuffer(final PrintStream stream, final int capacity) {
+        this.stream = stream;
+        this.lines = new String[Math.max(1, capacity)];
+    }
+
+    /**
+     * Adds the line to the buffer, it is written by the background thread shortly after.
+     *
+     * @return false if the buffer is full and the line was not added
+     */
+    public synchronized boolean offer(final String line) {
+        if (count == lines.length) {
+            return false;
+        }
+        lines[(head + count) % lines.length] = line;
+        count++;
+        if (flushing == null) {
+            flushing = flusher.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            }, FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+        return true;
+    }
+
+    /**
+     * Counts a line that was not added because the buffer was full, the number of dropped lines is written with the next chunk.
+     */
+    public synchronized void drop() {
+        droppedLines++;
+    }
+
+    /**
+     * Writes the buffered lines and then the line itself before returning, for the lines that should never be dropped.
+     */
+    public void writeThrough(final String line) {
+        synchronized (writeLock) {
+            flush();
+            stream.println(line);
+            stream.flush();
+        }
+    }
+
+    /**
+     * Writes the buffered lines to the stream as a single chunk.
+     */
+    public void flush() {
+        synchronized (writeLock) {
+            final StringBuilder chunk = new StringBuilder();
+            synchronized (this) {
+                if (flushing != null) {
+                    flushing.cancel(false);
+                    flushing = null;
+                }
+                while (count > 0) {
+                    chunk.append(lines[head]).append(System.lineSeparator());
+                    lines[head] = null;
+                    head = (head + 1) % lines.length;
+                    count--;
+                }
+                if (droppedLines > 0) {
+                    chunk.append("[").append(droppedLines).append(" log lines were dropped because the build log could not keep up]").append(System.lineSeparator());
+                    droppedLines = 0;
+                }
+            }
+            if (chunk.length() > 0) {
+                stream.print(chunk);
+                stream.flush();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.helper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.log.IntLogger;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+/**
+ * Controller wide pool used to run short Hub requests of a build in parallel with the work of the build itself. The pool is bounded so that many builds finishing at the same time can not flood the Hub
+ * with requests. Long requests, like a risk report that waits for the BOM, run on the thread of their build with {@link #call(IntLogger, String, Callable)} so they never hold a thread of the pool.
+ */
+public class HubRequestExecutor {
+
+    public static final int POOL_SIZE = 4;
+
+    private static final ThreadPoolExecutor executor;
+
+    static {
+        executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new NamingThreadFactory(new DaemonThreadFactory(), "Black Duck Hub requests"));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Submits the request to the pool, logging how long it took once it has finished.
+     */
+    public static <T> Future<T> submit(final IntLogger logger, final String section, final Callable<T> request) {
+        return executor.submit(timed(logger, section, request));
+    }
+
+    /**
+     * Runs the request on the calling thread, logging how long it took and rethrowing its failure like {@link #get(Future)}.
+     */
+    public static <T> T call(final IntLogger logger, final String section, final Callable<T> request) throws IntegrationException, InterruptedException {
+        try {
+            return timed(logger, section, request).call();
+        } catch (final IntegrationException | InterruptedException | RuntimeException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new HubIntegrationException(e.getMessage(), e);
+        }
+    }
+
+    private static <T> Callable<T> timed(final IntLogger logger, final String section, final Callable<T> request) {
+        return new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                final long start = System.currentTimeMillis();
+                try {
+                    return request.call();
+                } finally {
+                    logger.alwaysLog("--> " + section + " took " + (System.currentTimeMillis() - start) + "ms");
+                }
+            }
+        };
+    }
+
+    /**
+     * Waits for the result of the request, rethrowing the failure of the request as it was thrown. The request is cancelled if the waiting thread is interrupted.
+     */
+    public static <T> T get(final Future<T> future) throws IntegrationException, InterruptedException {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IntegrationException) {
+                throw (IntegrationException) cause;
+            }
+            if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new HubIntegrationException(cause.getMessage(), cause);
+        }
+    }
+
+}
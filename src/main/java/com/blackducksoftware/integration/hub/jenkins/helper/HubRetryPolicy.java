@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.helper;
+
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.Random;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.jenkins.report.HubScanEventLog;
+import com.blackducksoftware.integration.hub.rest.exception.IntegrationRestException;
+import com.blackducksoftware.integration.log.IntLogger;
+
+/**
+ * Retries idempotent Hub requests that failed with a transient error (a 502, 503 or 504 response, a timeout, a refused or reset connection). Only single requests should be retried, not a call that makes
+ * many requests and would repeat all of them. The delay between attempts grows exponentially and is jittered so that many builds hitting a restarting
+ * Hub do not retry in lock step. One policy is created per step execution and every retry is charged against its budget, which may be shared by requests running in parallel. A request the Hub rejects with a 401,
+ * because the Hub restarted or the session expired, is sent once more after logging in again if the policy knows how to log in.
+ */
+public class HubRetryPolicy {
+
+    public static final int DEFAULT_MAX_RETRIES = 3;
+
+    public static final long DEFAULT_INITIAL_BACKOFF = 1000L;
+
+    public static final long DEFAULT_MAX_BACKOFF = 30000L;
+
+    public static final int DEFAULT_RETRY_BUDGET = 20;
+
+    private static final int[] TRANSIENT_STATUS_CODES = new int[] { 502, 503, 504 };
+
+    private static final int UNAUTHORIZED_STATUS_CODE = 401;
+
+    private final IntLogger logger;
+
+    private final int maxRetries;
+
+    private final long initialBackoff;
+
+    private final long maxBackoff;
+
+    private final Random random = new Random();
+
+    private int remainingBudget;
+
+    private int retryCount;
+
+    private HubScanEventLog eventLog;
+
+    private Reauthentication reauthentication;
+
+    public HubRetryPolicy(final IntLogger logger, final int maxRetries) {
+        this(logger, maxRetries, DEFAULT_INITIAL_BACKOFF, DEFAULT_MAX_BACKOFF, DEFAULT_RETRY_BUDGET);
+    }
+
+    public HubRetryPolicy(final IntLogger logger, final int maxRetries, final long initialBackoff, final long maxBackoff, final int retryBudget) {
+        this.logger = logger;
+        this.maxRetries = Math.max(0, maxRetries);
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.remainingBudget = retryBudget;
+    }
+
+    /**
+     * Records the time and the attempts of every request in the event log of the build.
+     */
+    public void setEventLog(final HubScanEventLog eventLog) {
+        this.eventLog = eventLog;
+    }
+
+    /**
+     * Logs in to the Hub again when a request is not authorized anymore.
+     */
+    public void setReauthentication(final Reauthentication reauthentication) {
+        this.reauthentication = reauthentication;
+    }
+
+    /**
+     * Runs the request, retrying it while the failure looks transient and both the per request retry count and the budget of this policy allow it.
+     */
+    public <T> T execute(final String description, final HubRequest<T> request) throws IntegrationException, InterruptedException {
+        final long start = System.currentTimeMillis();
+        int attempt = 0;
+        int reauthentications = 0;
+        while (true) {
+            final long attemptStart = System.currentTimeMillis();
+            try {
+                final T result = request.execute();
+                recordRequest(description, start, attempt + reauthentications + 1, true);
+                return result;
+            } catch (final InterruptedException e) {
+                throw e;
+            } catch (final Exception e) {
+                if (reauthentications == 0 && reauthentication != null && isUnauthorized(e)) {
+                    reauthentications++;
+                    if (logger != null) {
+                        logger.warn("Hub request '" + description + "' was not authorized : " + e.getMessage() + ". Logging in to the Hub again.");
+                    }
+                    reauthentication.reauthenticate(attemptStart);
+                    continue;
+                }
+                if (attempt >= maxRetries || !isTransient(e) || !acquireRetry()) {
+                    recordRequest(description, start, attempt + reauthentications + 1, false);
+                    if (e instanceof IntegrationException) {
+                        throw (IntegrationException) e;
+                    }
+                    if (e instanceof RuntimeException) {
+                        throw (RuntimeException) e;
+                    }
+                    throw new HubIntegrationException(e.getMessage(), e);
+                }
+                attempt++;
+                final long backoff = getBackoff(attempt);
+                if (logger != null) {
+                    logger.warn("Hub request '" + description + "' failed with a transient error : " + e.getMessage() + ". Retry " + attempt + " of " + maxRetries + " in " + backoff + "ms.");
+                }
+                Thread.sleep(backoff);
+            }
+        }
+    }
+
+    private void recordRequest(final String description, final long start, final int attempts, final boolean success) {
+        if (eventLog != null) {
+            eventLog.hubRequest(description, start, attempts, success);
+        }
+    }
+
+    private synchronized boolean acquireRetry() {
+        if (remainingBudget <= 0) {
+            return false;
+        }
+        remainingBudget--;
+        retryCount++;
+        return true;
+    }
+
+    /**
+     * Exponential backoff capped at the maximum, with "equal jitter": half of the delay is fixed and the other half is random.
+     */
+    public long getBackoff(final int attempt) {
+        long backoff = initialBackoff;
+        for (int i = 1; i < attempt && backoff < maxBackoff; i++) {
+            backoff = backoff * 2;
+        }
+        backoff = Math.min(backoff, maxBackoff);
+        final long half = backoff / 2;
+        if (half <= 0) {
+            return backoff;
+        }
+        return half + (long) (random.nextDouble() * half);
+    }
+
+    public synchronized int getRetryCount() {
+        return retryCount;
+    }
+
+    public synchronized int getRemainingBudget() {
+        return remainingBudget;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public static boolean isTransient(final Throwable throwable) {
+        Throwable current = throwable;
+        // guard against cause cycles
+        int depth = 0;
+        while (current != null && depth < 10) {
+            // refused and reset connections are socket exceptions
+            if (current instanceof SocketTimeoutException || current instanceof SocketException) {
+                return true;
+            }
+            if (current instanceof IntegrationRestException) {
+                final int statusCode = ((IntegrationRestException) current).getHttpStatusCode();
+                for (final int transientStatusCode : TRANSIENT_STATUS_CODES) {
+                    if (statusCode == transientStatusCode) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            current = current.getCause();
+            depth++;
+        }
+        return false;
+    }
+
+    public static boolean isUnauthorized(final Throwable throwable) {
+        Throwable current = throwable;
+        int depth = 0;
+        while (current != null && depth < 10) {
+            if (current instanceof IntegrationRestException) {
+                return ((IntegrationRestException) current).getHttpStatusCode() == UNAUTHORIZED_STATUS_CODE;
+            }
+            current = current.getCause();
+            depth++;
+        }
+        return false;
+    }
+
+    public interface HubRequest<T> {
+        T execute() throws Exception;
+    }
+
+    public interface Reauthentication {
+        /**
+         * @param since
+         *            when the rejected request was sent, a login after that does not have to be repeated
+         */
+        void reauthenticate(long since) throws IntegrationException, InterruptedException;
+    }
+
+}
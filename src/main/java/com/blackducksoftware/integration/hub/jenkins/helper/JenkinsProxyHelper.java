@@ -25,16 +25,32 @@ package com.blackducksoftware.integration.hub.jenkins.helper;
 
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.List;
-import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
 
-import com.blackducksoftware.integration.util.proxy.ProxyUtil;
-import com.google.common.collect.Lists;
+import hudson.ProxyConfiguration;
+import jenkins.model.Jenkins;
 
 public class JenkinsProxyHelper {
 
+    // compiled from the no proxy hosts last asked for, compiled again when the proxy configuration changes
+    private static volatile NoProxyHostMatcher noProxyHostMatcher = new NoProxyHostMatcher(null);
+
+    /**
+     * @return the proxy configuration of Jenkins if the connections to the url should go through the proxy, null if they should not
+     */
+    public static ProxyConfiguration getProxyConfiguration(final String urlString) {
+        final Jenkins jenkins = Jenkins.getInstance();
+        if (jenkins == null) {
+            return null;
+        }
+        final ProxyConfiguration proxyConfig = jenkins.proxy;
+        if (proxyConfig == null || !shouldUseProxy(urlString, proxyConfig.noProxyHost)) {
+            return null;
+        }
+        return proxyConfig;
+    }
+
     public static boolean shouldUseProxy(final String urlString, final String noProxyHosts) {
         if (StringUtils.isBlank(urlString)) {
             return false;
@@ -49,25 +65,19 @@ public class JenkinsProxyHelper {
     }
 
     public static boolean shouldUseProxy(final URL url, final String noProxyHosts) {
-        if (url != null) {
+        if (url == null) {
             return false;
         }
-        if (StringUtils.isBlank(noProxyHosts)) {
-            return true;
-        }
-        final List<Pattern> noProxyHostPatterns = getNoProxyHostPatterns(noProxyHosts);
-        return ProxyUtil.shouldIgnoreHost(url.getHost(), noProxyHostPatterns);
+        return !getNoProxyHostMatcher(noProxyHosts).isNoProxyHost(url.getHost());
     }
 
-    private static List<Pattern> getNoProxyHostPatterns(final String noProxyHosts) {
-        final List<Pattern> noProxyHostPatterns = Lists.newArrayList();
-        for (final String currentNoProxyHost : noProxyHosts.split("[ \t\n,|]+")) {
-            if (currentNoProxyHost.length() == 0) {
-                continue;
-            }
-            noProxyHostPatterns.add(Pattern.compile(currentNoProxyHost.replace(".", "\\.").replace("*", ".*")));
+    public static NoProxyHostMatcher getNoProxyHostMatcher(final String noProxyHosts) {
+        NoProxyHostMatcher matcher = noProxyHostMatcher;
+        if (!matcher.getNoProxyHosts().equals(StringUtils.defaultString(noProxyHosts))) {
+            matcher = new NoProxyHostMatcher(noProxyHosts);
+            noProxyHostMatcher = matcher;
         }
-        return noProxyHostPatterns;
+        return matcher;
     }
 
 }
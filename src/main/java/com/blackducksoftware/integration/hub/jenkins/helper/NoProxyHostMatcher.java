@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.helper;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The no proxy hosts of the Jenkins proxy configuration, compiled once. Hosts without a wildcard are looked up in a set, "*.example.com" entries in a trie of the reversed suffixes and "10.*" entries in a
+ * trie of the prefixes, only entries with other wildcards are matched with a regular expression. The decision is cached per host.
+ */
+public class NoProxyHostMatcher {
+
+    private static final int MAX_CACHED_HOSTS = 1000;
+
+    private final String noProxyHosts;
+
+    private final Set<String> hosts = new HashSet<>();
+
+    private final TrieNode suffixes = new TrieNode();
+
+    private final TrieNode prefixes = new TrieNode();
+
+    private final Pattern otherHosts;
+
+    private final ConcurrentMap<String, Boolean> decisions = new ConcurrentHashMap<>();
+
+    public NoProxyHostMatcher(final String noProxyHosts) {
+        this.noProxyHosts = StringUtils.defaultString(noProxyHosts);
+        final StringBuilder otherHostsRegex = new StringBuilder();
+        for (final String noProxyHost : this.noProxyHosts.toLowerCase(Locale.ENGLISH).split("[ \t\n,|]+")) {
+            if (noProxyHost.length() == 0) {
+                continue;
+            }
+            final int wildcards = StringUtils.countMatches(noProxyHost, "*");
+            if (wildcards == 0) {
+                hosts.add(noProxyHost);
+            } else if (wildcards == 1 && noProxyHost.startsWith("*")) {
+                suffixes.add(new StringBuilder(noProxyHost.substring(1)).reverse());
+            } else if (wildcards == 1 && noProxyHost.endsWith("*")) {
+                prefixes.add(noProxyHost.substring(0, noProxyHost.length() - 1));
+            } else {
+                if (otherHostsRegex.length() > 0) {
+                    otherHostsRegex.append('|');
+                }
+                final String[] parts = noProxyHost.split("\\*", -1);
+                for (int i = 0; i < parts.length; i++) {
+                    if (i > 0) {
+                        otherHostsRegex.append(".*");
+                    }
+                    if (parts[i].length() > 0) {
+                        otherHostsRegex.append(Pattern.quote(parts[i]));
+                    }
+                }
+            }
+        }
+        otherHosts = otherHostsRegex.length() == 0 ? null : Pattern.compile(otherHostsRegex.toString());
+    }
+
+    /**
+     * @return the configuration the matcher was compiled from
+     */
+    public String getNoProxyHosts() {
+        return noProxyHosts;
+    }
+
+    /**
+     * @return true if the host is one of the no proxy hosts, the case of the host is ignored
+     */
+    public boolean isNoProxyHost(final String host) {
+        if (host == null) {
+            return false;
+        }
+        final String normalizedHost = host.toLowerCase(Locale.ENGLISH);
+        Boolean decision = decisions.get(normalizedHost);
+        if (decision == null) {
+            decision = hosts.contains(normalizedHost) || suffixes.hasKeyStarting(new StringBuilder(normalizedHost).reverse()) || prefixes.hasKeyStarting(normalizedHost)
+                    || (otherHosts != null && otherHosts.matcher(normalizedHost).matches());
+            if (decisions.size() >= MAX_CACHED_HOSTS) {
+                decisions.clear();
+            }
+            decisions.put(normalizedHost, decision);
+        }
+        return decision;
+    }
+
+    private static class TrieNode {
+        private final Map<Character, TrieNode> children = new HashMap<>();
+
+        private boolean keyEnd;
+
+        private void add(final CharSequence key) {
+            TrieNode node = this;
+            for (int i = 0; i < key.length(); i++) {
+                TrieNode child = node.children.get(key.charAt(i));
+                if (child == null) {
+                    child = new TrieNode();
+                    node.children.put(key.charAt(i), child);
+                }
+                node = child;
+            }
+            node.keyEnd = true;
+        }
+
+        /**
+         * @return true if one of the keys is a prefix of the value
+         */
+        private boolean hasKeyStarting(final CharSequence value) {
+            TrieNode node = this;
+            for (int i = 0; !node.keyEnd; i++) {
+                if (i == value.length()) {
+                    return false;
+                }
+                node = node.children.get(value.charAt(i));
+                if (node == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,259 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.notification;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+/**
+ * Reads the notifications of a Hub on the controller and wakes up the builds waiting for the BOM of a project version as soon as a notification about that version shows up. There is one feed per Hub, it only
+ * asks the Hub for notifications while builds are waiting, and every waiting build shares the same request.
+ *
+ * The Hub only notifies about policy violations, overrides and vulnerabilities, so a notification is no proof that the BOM is up to date and a scan that changes none of them is not notified at all. The
+ * builds check the status of their scans when they are woken up and every {@link #STATUS_INTERVAL} in between.
+ */
+public class HubNotificationFeed {
+
+    public static final long POLL_INTERVAL = 5000L;
+
+    public static final long STATUS_INTERVAL = 10000L;
+
+    /**
+     * Every request overlaps the previous one by this much, so notifications are not missed when the clocks of Jenkins and the Hub differ or a notification is stored late.
+     */
+    public static final long CURSOR_OVERLAP = 30000L;
+
+    private static final Logger LOGGER = Logger.getLogger(HubNotificationFeed.class.getName());
+
+    private final static ConcurrentMap<String, HubNotificationFeed> feeds = new ConcurrentHashMap<>();
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new NamingThreadFactory(new DaemonThreadFactory(), "Black Duck Hub notifications"));
+
+    private final long pollInterval;
+
+    private final long statusInterval;
+
+    private final List<Waiter> waiters = new ArrayList<>();
+
+    // notifications already handed to the waiters, with the time they were first read, so the overlapping requests do not wake anyone twice
+    private final Map<String, Long> readNotifications = new HashMap<>();
+
+    private long cursor;
+
+    private ScheduledFuture<?> polling;
+
+    public HubNotificationFeed(final long pollInterval) {
+        this(pollInterval, STATUS_INTERVAL);
+    }
+
+    public HubNotificationFeed(final long pollInterval, final long statusInterval) {
+        this.pollInterval = pollInterval;
+        this.statusInterval = statusInterval;
+    }
+
+    public static HubNotificationFeed getFeed(final String serverUrl) {
+        final String key = StringUtils.removeEnd(StringUtils.trimToEmpty(serverUrl), "/").toLowerCase();
+        HubNotificationFeed feed = feeds.get(key);
+        if (feed == null) {
+            feed = new HubNotificationFeed(POLL_INTERVAL);
+            final HubNotificationFeed existing = feeds.putIfAbsent(key, feed);
+            if (existing != null) {
+                feed = existing;
+            }
+        }
+        return feed;
+    }
+
+    /**
+     * Waits for a notification that mentions the project version.
+     *
+     * @param since
+     *            when the scans of the version finished, earlier notifications are not asked for
+     * @return true if a notification showed up, false if the timeout was reached first
+     */
+    public boolean awaitNotification(final HubNotificationSource source, final String projectVersionUrl, final long since, final long timeout) throws InterruptedException {
+        final Waiter waiter = addWaiter(source, projectVersionUrl, since);
+        try {
+            return waiter.notified.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+        } finally {
+            removeWaiter(waiter);
+        }
+    }
+
+    /**
+     * Waits until the Hub has processed the scans of a build. The scan status is checked whenever a notification about the project version shows up and every status interval in between, so a build
+     * whose scans change nothing the Hub notifies about goes on once they are processed.
+     *
+     * @param since
+     *            when the scans of the version were started, earlier notifications are not asked for
+     * @return true if the scans were processed, false if the timeout was reached first
+     */
+    public boolean awaitScan(final HubNotificationSource source, final HubScanStatusSource scanStatus, final String projectVersionUrl, final long since, final long timeout)
+            throws IntegrationException, InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeout;
+        final Waiter waiter = addWaiter(source, projectVersionUrl, since);
+        try {
+            while (!scanStatus.isScanFinished()) {
+                final long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                if (waiter.notified.tryAcquire(Math.min(remaining, statusInterval), TimeUnit.MILLISECONDS)) {
+                    // several notifications about the version only need one look at the scans
+                    waiter.notified.drainPermits();
+                }
+            }
+            return true;
+        } finally {
+            removeWaiter(waiter);
+        }
+    }
+
+    private synchronized Waiter addWaiter(final HubNotificationSource source, final String projectVersionUrl, final long since) {
+        final Waiter waiter = new Waiter(source, normalizeUrl(projectVersionUrl));
+        waiters.add(waiter);
+        if (polling == null) {
+            cursor = since - CURSOR_OVERLAP;
+            readNotifications.clear();
+            polling = scheduler.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    poll();
+                }
+            }, 0, pollInterval, TimeUnit.MILLISECONDS);
+        }
+        return waiter;
+    }
+
+    private synchronized void removeWaiter(final Waiter waiter) {
+        waiters.remove(waiter);
+        if (waiters.isEmpty() && polling != null) {
+            polling.cancel(false);
+            polling = null;
+        }
+    }
+
+    private void poll() {
+        final HubNotificationSource currentSource;
+        final long start;
+        synchronized (this) {
+            if (waiters.isEmpty()) {
+                return;
+            }
+            // the builds may use different connections, the one of a build that still waits is used
+            currentSource = waiters.get(0).source;
+            start = cursor;
+        }
+        final long end = System.currentTimeMillis();
+        List<String> notifications;
+        try {
+            notifications = currentSource.getNotifications(new Date(start), new Date(end));
+        } catch (final Exception e) {
+            LOGGER.log(Level.FINE, "Could not read the Hub notifications, trying again in " + pollInterval + "ms", e);
+            return;
+        }
+        synchronized (this) {
+            for (final String notification : notifications) {
+                if (readNotifications.put(notification, end) != null) {
+                    continue;
+                }
+                final List<String> mentionedUrls = new ArrayList<>();
+                try {
+                    collectStrings(new JsonParser().parse(notification), mentionedUrls);
+                } catch (final JsonSyntaxException e) {
+                    LOGGER.log(Level.FINE, "Skipping a Hub notification that is not json", e);
+                    continue;
+                }
+                for (final Waiter waiter : waiters) {
+                    if (mentionedUrls.contains(waiter.projectVersionUrl)) {
+                        waiter.notified.release();
+                    }
+                }
+            }
+            cursor = Math.max(cursor, end - CURSOR_OVERLAP);
+            final Iterator<Entry<String, Long>> iterator = readNotifications.entrySet().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().getValue() < cursor - CURSOR_OVERLAP) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private void collectStrings(final JsonElement element, final List<String> strings) {
+        if (element.isJsonPrimitive()) {
+            if (element.getAsJsonPrimitive().isString()) {
+                strings.add(normalizeUrl(element.getAsString()));
+            }
+        } else if (element.isJsonArray()) {
+            for (final JsonElement child : element.getAsJsonArray()) {
+                collectStrings(child, strings);
+            }
+        } else if (element.isJsonObject()) {
+            for (final Entry<String, JsonElement> child : element.getAsJsonObject().entrySet()) {
+                collectStrings(child.getValue(), strings);
+            }
+        }
+    }
+
+    private String normalizeUrl(final String url) {
+        return StringUtils.removeEnd(StringUtils.trimToEmpty(url), "/");
+    }
+
+    private static class Waiter {
+        private final HubNotificationSource source;
+
+        private final String projectVersionUrl;
+
+        private final Semaphore notified = new Semaphore(0);
+
+        private Waiter(final HubNotificationSource source, final String projectVersionUrl) {
+            this.source = source;
+            this.projectVersionUrl = projectVersionUrl;
+        }
+    }
+
+}
@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.notification;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+
+/**
+ * Tells whether the Hub has finished processing the scans of a build. A notification only means that something about the project version changed, the scans decide whether the BOM is up to date.
+ */
+public interface HubScanStatusSource {
+
+    /**
+     * @return true if none of the scans of the build is still being processed
+     */
+    boolean isScanFinished() throws IntegrationException;
+
+}
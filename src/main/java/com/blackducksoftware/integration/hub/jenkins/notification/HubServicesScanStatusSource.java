@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.notification;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.api.item.MetaService;
+import com.blackducksoftware.integration.hub.model.view.CodeLocationView;
+import com.blackducksoftware.integration.hub.model.view.ScanSummaryView;
+import com.blackducksoftware.integration.hub.service.HubServicesFactory;
+
+/**
+ * Reads the scan summaries of the code location of a build. The newest summaries are the scans the build uploaded, one per scan target, and they are finished once none of them is still being processed.
+ */
+public class HubServicesScanStatusSource implements HubScanStatusSource {
+
+    private final HubServicesFactory services;
+
+    private final String codeLocationName;
+
+    private final int scanCount;
+
+    public HubServicesScanStatusSource(final HubServicesFactory services, final String codeLocationName, final int scanCount) {
+        this.services = services;
+        this.codeLocationName = codeLocationName;
+        this.scanCount = scanCount;
+    }
+
+    @Override
+    public boolean isScanFinished() throws IntegrationException {
+        final CodeLocationView codeLocation = services.createCodeLocationRequestService().getCodeLocationByName(codeLocationName);
+        final String scansUrl = services.createMetaService().getFirstLink(codeLocation, MetaService.SCANS_LINK);
+        final List<ScanSummaryView> scanSummaries = new ArrayList<>(services.createScanSummaryRequestService().getAllScanSummaryItems(scansUrl));
+        if (scanSummaries.size() < scanCount) {
+            return false;
+        }
+        Collections.sort(scanSummaries, new Comparator<ScanSummaryView>() {
+            @Override
+            public int compare(final ScanSummaryView first, final ScanSummaryView second) {
+                if (first.createdAt == null || second.createdAt == null) {
+                    return first.createdAt == null ? (second.createdAt == null ? 0 : 1) : -1;
+                }
+                return second.createdAt.compareTo(first.createdAt);
+            }
+        });
+        for (final ScanSummaryView scanSummary : scanSummaries.subList(0, scanCount)) {
+            if (!isFinished(String.valueOf(scanSummary.status))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the Hub is done with a scan in this status, whether it succeeded or not
+     */
+    public static boolean isFinished(final String status) {
+        return "COMPLETE".equals(status) || "CANCELLED".equals(status) || status.startsWith("ERROR");
+    }
+
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.remote;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.rest.RestConnection;
+import com.blackducksoftware.integration.log.IntLogger;
+
+import hudson.util.IOUtils;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Downloads the archive of the scan CLI from the Hub, on Jenkins to keep it for the nodes or on a node that installs the CLI itself.
+ */
+public class HubCLIDownload {
+
+    private HubCLIDownload() {
+    }
+
+    /**
+     * @return the checksum of the downloaded archive
+     */
+    public static String download(final IntLogger logger, final RestConnection restConnection, final String url, final File archive) throws IOException, IntegrationException {
+        logger.info("Downloading the scan CLI from " + url);
+        final MessageDigest digest = HubCLIInstallation.createDigest();
+        final HttpUrl httpUrl = restConnection.createHttpUrl(url);
+        final Request request = restConnection.createGetRequest(httpUrl);
+        // the client of the connection has the connect and read timeouts of the server, a stalled download fails instead of holding the lock
+        try (Response response = restConnection.handleExecuteClientCall(request);
+                InputStream input = new DigestInputStream(response.body().byteStream(), digest);
+                OutputStream output = new FileOutputStream(archive)) {
+            IOUtils.copy(input, output);
+        }
+        return HubCLIInstallation.toHex(digest.digest());
+    }
+
+}
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.remote;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lets one executor at a time install the scan CLI in a tools directory, the others wait until it is done and then find the CLI installed. The executors of an agent wait on each other in the agent,
+ * other processes that share the tools directory, like a second agent on the same machine, wait on a lock of a file next to the installation.
+ */
+public class HubCLIInstallLock implements Closeable {
+
+    public static final String LOCK_FILE = HubCLIInstallation.INSTALL_DIRECTORY + ".lock";
+
+    // a file can only be locked once per process, the executors of the agent take turns before locking it
+    private static final ConcurrentMap<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    private final ReentrantLock lock;
+
+    private final FileChannel channel;
+
+    private final FileLock fileLock;
+
+    private HubCLIInstallLock(final ReentrantLock lock, final FileChannel channel, final FileLock fileLock) {
+        this.lock = lock;
+        this.channel = channel;
+        this.fileLock = fileLock;
+    }
+
+    /**
+     * Waits until no one else installs the CLI in the tools directory. Close the lock when the installation is done.
+     */
+    public static HubCLIInstallLock acquire(final File toolsDirectory) throws IOException, InterruptedException {
+        toolsDirectory.mkdirs();
+        final ReentrantLock lock = getLock(toolsDirectory.getCanonicalPath());
+        lock.lockInterruptibly();
+        try {
+            if (lock.getHoldCount() > 1) {
+                // the thread already holds the file lock
+                return new HubCLIInstallLock(lock, null, null);
+            }
+            final FileChannel channel = FileChannel.open(new File(toolsDirectory, LOCK_FILE).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                return new HubCLIInstallLock(lock, channel, channel.lock());
+            } catch (final IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        } catch (final IOException | RuntimeException e) {
+            lock.unlock();
+            throw e;
+        }
+    }
+
+    private static ReentrantLock getLock(final String key) {
+        final ReentrantLock lock = new ReentrantLock();
+        final ReentrantLock existing = locks.putIfAbsent(key, lock);
+        return existing == null ? lock : existing;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (fileLock != null) {
+                fileLock.release();
+            }
+        } finally {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+}
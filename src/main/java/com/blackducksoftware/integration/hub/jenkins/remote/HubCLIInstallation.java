@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.remote;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.commons.lang3.StringUtils;
+
+import hudson.FilePath;
+
+/**
+ * The scan CLI installed in the tools directory of a node, in the directory the Hub libraries install it to and look for it in. The installation holds the Hub version it was downloaded from, which the Hub
+ * libraries compare before downloading the CLI again, and the checksum of its jars when it was installed by Jenkins.
+ */
+public class HubCLIInstallation implements Serializable {
+    private static final long serialVersionUID = -2217914408164553421L;
+
+    public static final String INSTALL_DIRECTORY = "Hub_Scan_Installation";
+
+    public static final String VERSION_FILE = "hubVersion.txt";
+
+    public static final String CHECKSUM_FILE = "blackduckHubCli.sha256";
+
+    public static final String PLATFORM_WINDOWS = "windows";
+
+    public static final String PLATFORM_MAC = "macosx";
+
+    public static final String PLATFORM_OTHER = "";
+
+    private final String platform;
+
+    private final String installedVersion;
+
+    private final boolean valid;
+
+    public HubCLIInstallation(final String platform, final String installedVersion, final boolean valid) {
+        this.platform = platform;
+        this.installedVersion = installedVersion;
+        this.valid = valid;
+    }
+
+    /**
+     * @return the platform of the node, which decides the archive of the CLI
+     */
+    public String getPlatform() {
+        return platform;
+    }
+
+    /**
+     * @return the Hub version the CLI was downloaded from, null if the CLI is not installed
+     */
+    public String getInstalledVersion() {
+        return installedVersion;
+    }
+
+    /**
+     * @return true if the CLI was installed by Jenkins and its jars still match the checksum
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    public boolean isInstalled(final String hubVersion) {
+        return valid && StringUtils.equals(installedVersion, hubVersion);
+    }
+
+    public static String getArchiveName(final String platform) {
+        if (StringUtils.isBlank(platform)) {
+            return "scan.cli.zip";
+        }
+        return "scan.cli-" + platform + ".zip";
+    }
+
+    public static String getPlatform(final String osName) {
+        final String lowerCaseOsName = StringUtils.defaultString(osName).toLowerCase();
+        if (lowerCaseOsName.contains("windows")) {
+            return PLATFORM_WINDOWS;
+        }
+        if (lowerCaseOsName.contains("mac")) {
+            return PLATFORM_MAC;
+        }
+        return PLATFORM_OTHER;
+    }
+
+    /**
+     * @return the Hub version the CLI in the tools directory was downloaded from, null if the CLI is not installed. Unlike {@link #read(File)} the jars are not checked.
+     */
+    public static String readInstalledVersion(final File toolsDirectory) throws IOException {
+        final File versionFile = new File(new File(toolsDirectory, INSTALL_DIRECTORY), VERSION_FILE);
+        if (!versionFile.isFile()) {
+            return null;
+        }
+        return readString(versionFile);
+    }
+
+    /**
+     * Reads the installation in the tools directory, checking its jars against the checksum written when it was installed.
+     */
+    public static HubCLIInstallation read(final File toolsDirectory) throws IOException {
+        final String platform = getPlatform(System.getProperty("os.name"));
+        final File installDirectory = new File(toolsDirectory, INSTALL_DIRECTORY);
+        final File versionFile = new File(installDirectory, VERSION_FILE);
+        if (!versionFile.isFile()) {
+            return new HubCLIInstallation(platform, null, false);
+        }
+        final String installedVersion = readString(versionFile);
+        final File checksumFile = new File(installDirectory, CHECKSUM_FILE);
+        final boolean valid = checksumFile.isFile() && readString(checksumFile).equals(digest(installDirectory));
+        return new HubCLIInstallation(platform, installedVersion, valid);
+    }
+
+    /**
+     * Unzips the CLI next to the current installation and renames it into place, so a scan never sees a partly installed CLI. The previous installation is deleted when nothing holds its files anymore.
+     */
+    public static void install(final File toolsDirectory, final File archive, final String archiveChecksum, final String hubVersion) throws IOException, InterruptedException {
+        final String checksum = checksum(archive);
+        if (!checksum.equals(archiveChecksum)) {
+            throw new IOException("The scan CLI archive " + archive + " does not match its checksum, expected " + archiveChecksum + " but was " + checksum);
+        }
+        deletePreviousInstallations(toolsDirectory);
+        final String suffix = UUID.randomUUID().toString();
+        final File staging = new File(toolsDirectory, INSTALL_DIRECTORY + "." + suffix + ".tmp");
+        try {
+            new FilePath(archive).unzip(new FilePath(staging));
+            makeExecutable(staging);
+            writeString(new File(staging, VERSION_FILE), hubVersion);
+            writeString(new File(staging, CHECKSUM_FILE), digest(staging));
+
+            final File installDirectory = new File(toolsDirectory, INSTALL_DIRECTORY);
+            final File previous = new File(toolsDirectory, INSTALL_DIRECTORY + "." + suffix + ".old");
+            if (installDirectory.exists() && !installDirectory.renameTo(previous)) {
+                throw new IOException("Could not move the scan CLI installation " + installDirectory + " out of the way");
+            }
+            if (!staging.renameTo(installDirectory)) {
+                previous.renameTo(installDirectory);
+                throw new IOException("Could not move the scan CLI installation " + staging + " into place");
+            }
+            deleteQuietly(previous);
+        } finally {
+            deleteQuietly(staging);
+        }
+    }
+
+    private static void deletePreviousInstallations(final File toolsDirectory) throws InterruptedException {
+        final File[] files = toolsDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (final File file : files) {
+            if (file.getName().startsWith(INSTALL_DIRECTORY + ".") && file.getName().endsWith(".old")) {
+                deleteQuietly(file);
+            }
+        }
+    }
+
+    /**
+     * Checksum of the jars of the installation, the files that make up the CLI. Other files, like logs, may change between scans.
+     */
+    public static String digest(final File installDirectory) throws IOException {
+        final Path root = installDirectory.toPath();
+        final List<Path> jars = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) {
+                if (file.getFileName().toString().endsWith(".jar")) {
+                    jars.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        Collections.sort(jars);
+        final MessageDigest digest = createDigest();
+        for (final Path jar : jars) {
+            digest.update(root.relativize(jar).toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8));
+            update(digest, jar.toFile());
+        }
+        return toHex(digest.digest());
+    }
+
+    public static String checksum(final File file) throws IOException {
+        final MessageDigest digest = createDigest();
+        update(digest, file);
+        return toHex(digest.digest());
+    }
+
+    private static void update(final MessageDigest digest, final File file) throws IOException {
+        final byte[] buffer = new byte[65536];
+        try (InputStream input = new FileInputStream(file)) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+    }
+
+    public static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static String toHex(final byte[] bytes) {
+        final StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (final byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    // the unzipped files keep their permissions only if the archive has them, the bundled java has to be executable
+    private static void makeExecutable(final File directory) throws IOException {
+        Files.walkFileTree(directory.toPath(), new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) {
+                final Path parent = file.getParent();
+                if (parent != null && "bin".equals(parent.getFileName().toString())) {
+                    file.toFile().setExecutable(true);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static String readString(final File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).trim();
+    }
+
+    private static void writeString(final File file, final String value) throws IOException {
+        Files.write(file.toPath(), value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void deleteQuietly(final File file) throws InterruptedException {
+        if (!file.exists()) {
+            return;
+        }
+        try {
+            new FilePath(file).deleteRecursive();
+        } catch (final IOException e) {
+            // a scan on Windows may still hold the files of the previous installation, the next installation cleans it up
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.remote;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.jenkinsci.remoting.Role;
+import org.jenkinsci.remoting.RoleChecker;
+
+import hudson.remoting.Callable;
+
+public class InstallCLIArchive implements Callable<Boolean, IOException> {
+    private static final long serialVersionUID = -4410427296962466420L;
+
+    private final String toolsDirectory;
+
+    private final String archivePath;
+
+    private final String archiveChecksum;
+
+    private final String hubVersion;
+
+    public InstallCLIArchive(final String toolsDirectory, final String archivePath, final String archiveChecksum, final String hubVersion) {
+        this.toolsDirectory = toolsDirectory;
+        this.archivePath = archivePath;
+        this.archiveChecksum = archiveChecksum;
+        this.hubVersion = hubVersion;
+    }
+
+    /**
+     * @return true if the CLI was installed, false if another executor installed it while this one waited
+     */
+    @Override
+    public Boolean call() throws IOException {
+        final File archive = new File(archivePath);
+        final File toolsDir = new File(toolsDirectory);
+        try (HubCLIInstallLock installLock = HubCLIInstallLock.acquire(toolsDir)) {
+            if (HubCLIInstallation.read(toolsDir).isInstalled(hubVersion)) {
+                return false;
+            }
+            HubCLIInstallation.install(toolsDir, archive, archiveChecksum, hubVersion);
+            return true;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while installing the scan CLI", e);
+        } finally {
+            archive.delete();
+        }
+    }
+
+    @Override
+    public void checkRoles(final RoleChecker checker) throws SecurityException {
+        checker.check(this, new Role(InstallCLIArchive.class));
+    }
+}
@@ -22,19 +22,25 @@
 package com.blackducksoftware.integration.hub.jenkins.remote;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.List;
+import java.util.UUID;
 
+import org.apache.commons.lang3.StringUtils;
 import org.jenkinsci.remoting.Role;
 import org.jenkinsci.remoting.RoleChecker;
 
+import com.blackducksoftware.integration.exception.IntegrationException;
 import com.blackducksoftware.integration.hub.builder.HubScanConfigBuilder;
 import com.blackducksoftware.integration.hub.dataservice.cli.CLIDataService;
 import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
 import com.blackducksoftware.integration.hub.global.HubServerConfig;
+import com.blackducksoftware.integration.hub.jenkins.HubJenkinsLogger;
 import com.blackducksoftware.integration.hub.jenkins.helper.BuildHelper;
 import com.blackducksoftware.integration.hub.model.request.ProjectRequest;
 import com.blackducksoftware.integration.hub.model.view.ProjectVersionView;
 import com.blackducksoftware.integration.hub.request.builder.ProjectRequestBuilder;
+import com.blackducksoftware.integration.hub.rest.RestConnection;
 import com.blackducksoftware.integration.hub.scan.HubScanConfig;
 import com.blackducksoftware.integration.hub.service.HubServicesFactory;
 import com.blackducksoftware.integration.log.IntLogger;
@@ -43,7 +49,7 @@ import com.blackducksoftware.integration.phonehome.enums.ThirdPartyName;
 import hudson.EnvVars;
 import hudson.remoting.Callable;
 
-public class RemoteScan implements Callable<String, HubIntegrationException> {
+public class RemoteScan implements Callable<RemoteScanResult, HubIntegrationException> {
     private final IntLogger logger;
 
     private final String codeLocationName;
@@ -88,6 +94,12 @@ public class RemoteScan implements Callable<String, HubIntegrationException> {
 
     private final boolean shouldWaitForScansFinished;
 
+    private String scanLogPath;
+
+    private int scanLogLines;
+
+    private String hubVersion;
+
     public RemoteScan(final IntLogger logger, final String codeLocationName, final String hubProjectName, final String hubProjectVersion, final String phase, final String distribution, final int scanMemory,
             final boolean projectLevelAdjustments, final String workingDirectoryPath, final List<String> scanTargetPaths, final boolean dryRun, final boolean cleanupOnSuccessfulScan, final String toolsDirectory,
             final String thirdPartyVersion, final String pluginVersion, final HubServerConfig hubServerConfig, final boolean performWorkspaceCheck, final String[] excludePatterns, final EnvVars envVars,
@@ -116,10 +128,58 @@ public class RemoteScan implements Callable<String, HubIntegrationException> {
         this.shouldWaitForScansFinished = shouldWaitForScansFinished;
     }
 
+    /**
+     * Writes the full scan log to a gzipped file on the node and keeps only the first and the last lines of it in the build log.
+     *
+     * @param scanLogPath
+     *            the file on the node
+     * @param scanLogLines
+     *            lines kept at the start and at the end of the build log, 0 to write the whole scan log to the build log
+     */
+    public void setScanLog(final String scanLogPath, final int scanLogLines) {
+        this.scanLogPath = scanLogPath;
+        this.scanLogLines = scanLogLines;
+    }
+
+    public String getCodeLocationName() {
+        return codeLocationName;
+    }
+
+    public String getHubProjectName() {
+        return hubProjectName;
+    }
+
+    public String getHubProjectVersion() {
+        return hubProjectVersion;
+    }
+
+    public HubServerConfig getHubServerConfig() {
+        return hubServerConfig;
+    }
+
+    public boolean isShouldWaitForScansFinished() {
+        return shouldWaitForScansFinished;
+    }
+
+    /**
+     * @param hubVersion
+     *            the version of the Hub the CLI has to be installed from, null if it is not known. The version is then asked from the Hub if the CLI is not installed at all, and any installed CLI is run
+     */
+    public void setHubVersion(final String hubVersion) {
+        this.hubVersion = hubVersion;
+    }
+
     @Override
-    public String call() throws HubIntegrationException {
+    public RemoteScanResult call() throws HubIntegrationException {
+        TruncatingScanLogger scanLogger = null;
         try {
-            final HubServicesFactory services = BuildHelper.getHubServicesFactory(logger, hubServerConfig);
+            IntLogger scanLog = logger;
+            if (scanLogPath != null && scanLogLines > 0) {
+                scanLogger = new TruncatingScanLogger(logger, new File(scanLogPath), scanLogLines);
+                scanLog = scanLogger;
+            }
+            final RestConnection restConnection = BuildHelper.getRestConnection(scanLog, hubServerConfig);
+            final HubServicesFactory services = new HubServicesFactory(restConnection);
 
             services.addEnvironmentVariables(envVars);
             final CLIDataService cliDataService = services.createCLIDataService(hubServerConfig.getTimeout() * 60 * 1000);
@@ -151,14 +211,86 @@ public class RemoteScan implements Callable<String, HubIntegrationException> {
 
             final HubScanConfig hubScanConfig = hubScanConfigBuilder.build();
             final ProjectRequest projectRequest = projectRequestBuilder.build();
+            installCLI(scanLog, services, restConnection, toolsDir);
             final ProjectVersionView projectVersionView = cliDataService.installAndRunControlledScan(hubServerConfig, hubScanConfig, projectRequest, shouldWaitForScansFinished, ThirdPartyName.JENKINS.getName(), thirdPartyVersion,
                     pluginVersion);
-            return dryRun ? null : projectVersionView.json;
+            if (dryRun || projectVersionView == null) {
+                return null;
+            }
+            return RemoteScanResult.create(logger, services.createMetaService(), projectVersionView, codeLocationName);
         } catch (final Exception e) {
             throw new HubIntegrationException(e.getMessage(), e);
+        } finally {
+            if (scanLogger != null) {
+                try {
+                    scanLogger.close();
+                } catch (final IOException e) {
+                    logger.debug("Could not close the scan log " + scanLogPath + " : " + e.getMessage());
+                }
+            }
+            // the lines buffered on the agent have to reach the build log before the scan step goes on
+            if (logger instanceof HubJenkinsLogger) {
+                ((HubJenkinsLogger) logger).flush();
+            }
+        }
+    }
+
+    /**
+     * The scan installs the CLI before it runs it. If the CLI still has to be installed, the scans of the tools directory install it here one at a time so the executors of a node do not download it together
+     * or overwrite each other's installation. The scans that waited find the CLI installed, and the lock is released before any scan runs, so the scans still run at the same time.
+     */
+    private void installCLI(final IntLogger scanLog, final HubServicesFactory services, final RestConnection restConnection, final File toolsDir) throws IOException, InterruptedException {
+        final HubCLIInstallLock installLock = lockInstallation(scanLog, toolsDir);
+        if (installLock == null) {
+            return;
+        }
+        final File archive = new File(toolsDir, HubCLIInstallation.INSTALL_DIRECTORY + "." + UUID.randomUUID().toString() + ".zip");
+        try {
+            restConnection.connect();
+            final String installVersion = hubVersion != null ? hubVersion : services.createHubVersionRequestService().getHubVersion();
+            final String archiveName = HubCLIInstallation.getArchiveName(HubCLIInstallation.getPlatform(System.getProperty("os.name")));
+            final String checksum = HubCLIDownload.download(scanLog, restConnection, StringUtils.removeEnd(hubServerConfig.getHubUrl().toString(), "/") + "/download/" + archiveName, archive);
+            scanLog.info("Installing the scan CLI of Hub " + installVersion + " in " + toolsDirectory);
+            HubCLIInstallation.install(toolsDir, archive, checksum, installVersion);
+        } catch (final IOException | IntegrationException e) {
+            scanLog.warn("Could not install the scan CLI in " + toolsDirectory + ", the scan will install it : " + e.getMessage());
+        } finally {
+            archive.delete();
+            try {
+                installLock.close();
+            } catch (final IOException e) {
+                logger.debug("Could not release the lock of the scan CLI installation in " + toolsDirectory + " : " + e.getMessage());
+            }
         }
     }
 
+    /**
+     * @return the lock to hold while the CLI is installed, null if the CLI is already installed
+     */
+    private HubCLIInstallLock lockInstallation(final IntLogger scanLog, final File toolsDir) throws IOException, InterruptedException {
+        if (isCLIInstalled(toolsDir)) {
+            return null;
+        }
+        scanLog.debug("Waiting for other scans installing the scan CLI in " + toolsDirectory);
+        final HubCLIInstallLock installLock;
+        try {
+            installLock = HubCLIInstallLock.acquire(toolsDir);
+        } catch (final IOException e) {
+            scanLog.warn("Could not lock the scan CLI installation in " + toolsDirectory + ", the scan will install it without the lock : " + e.getMessage());
+            return null;
+        }
+        if (isCLIInstalled(toolsDir)) {
+            installLock.close();
+            return null;
+        }
+        return installLock;
+    }
+
+    private boolean isCLIInstalled(final File toolsDir) throws IOException {
+        final String installedVersion = HubCLIInstallation.readInstalledVersion(toolsDir);
+        return installedVersion != null && (hubVersion == null || hubVersion.equals(installedVersion));
+    }
+
     @Override
     public void checkRoles(final RoleChecker checker) throws SecurityException {
         checker.check(this, new Role(RemoteScan.class));
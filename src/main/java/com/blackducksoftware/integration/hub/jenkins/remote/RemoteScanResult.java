@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.remote;
+
+import java.io.Serializable;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.api.item.MetaService;
+import com.blackducksoftware.integration.hub.model.view.ProjectVersionView;
+import com.blackducksoftware.integration.log.IntLogger;
+
+/**
+ * What the controller needs to know about the project version a scan was mapped to. Only the links are sent back from the node, the views are requested from the Hub when a step actually needs them.
+ */
+public class RemoteScanResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String projectVersionUrl;
+
+    private final String projectUrl;
+
+    private final String policyStatusUrl;
+
+    private final String codeLocationName;
+
+    /**
+     * @param policyStatusUrl
+     *            null if the Hub has no policy module
+     */
+    public RemoteScanResult(final String projectVersionUrl, final String projectUrl, final String policyStatusUrl, final String codeLocationName) {
+        this.projectVersionUrl = projectVersionUrl;
+        this.projectUrl = projectUrl;
+        this.policyStatusUrl = policyStatusUrl;
+        this.codeLocationName = codeLocationName;
+    }
+
+    /**
+     * Keeps the links of the project version the scan was mapped to.
+     */
+    public static RemoteScanResult create(final IntLogger logger, final MetaService metaService, final ProjectVersionView projectVersionView, final String codeLocationName) throws IntegrationException {
+        String policyStatusUrl = null;
+        try {
+            // not all HUB users have the policy module enabled
+            // so there will be no policy status link
+            policyStatusUrl = metaService.getFirstLink(projectVersionView, MetaService.POLICY_STATUS_LINK);
+        } catch (final Exception e) {
+            logger.debug("Could not get the policy status link, the Hub policy module is not enabled");
+        }
+        return new RemoteScanResult(metaService.getHref(projectVersionView), metaService.getFirstLink(projectVersionView, MetaService.PROJECT_LINK), policyStatusUrl, codeLocationName);
+    }
+
+    public String getProjectVersionUrl() {
+        return projectVersionUrl;
+    }
+
+    public String getProjectUrl() {
+        return projectUrl;
+    }
+
+    public String getPolicyStatusUrl() {
+        return policyStatusUrl;
+    }
+
+    public String getCodeLocationName() {
+        return codeLocationName;
+    }
+
+}
@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.remote;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.zip.GZIPOutputStream;
+
+import com.blackducksoftware.integration.log.IntLogger;
+import com.blackducksoftware.integration.log.LogLevel;
+
+/**
+ * Writes everything logged during the scan to a gzipped file and keeps only the first and the last lines in the build log, so a verbose scanner does not flood the console. Warnings and errors always reach
+ * the build log. Runs on the node of the scan, the file is copied to the build once the scan is done.
+ */
+public class TruncatingScanLogger extends IntLogger implements Closeable {
+
+    private final IntLogger console;
+
+    private final File logFile;
+
+    private final int headLines;
+
+    private final int tailLines;
+
+    private final Writer archive;
+
+    private final Deque<String> tail = new ArrayDeque<>();
+
+    private int consoleLines;
+
+    private int omittedLines;
+
+    /**
+     * @param consoleLines
+     *            lines kept at the start of the build log and again at the end
+     */
+    public TruncatingScanLogger(final IntLogger console, final File logFile, final int consoleLines) throws IOException {
+        this.console = console;
+        this.logFile = logFile;
+        this.headLines = consoleLines;
+        this.tailLines = consoleLines;
+        logFile.getParentFile().mkdirs();
+        this.archive = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(logFile)), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void setLogLevel(final LogLevel level) {
+        console.setLogLevel(level);
+    }
+
+    @Override
+    public LogLevel getLogLevel() {
+        return console.getLogLevel();
+    }
+
+    @Override
+    public void alwaysLog(final String txt) {
+        archive(txt, null);
+        console.alwaysLog(txt);
+    }
+
+    @Override
+    public void error(final Throwable e) {
+        if (LogLevel.isLoggable(getLogLevel(), LogLevel.ERROR)) {
+            archive(null, e);
+            console.error(e);
+        }
+    }
+
+    @Override
+    public void error(final String txt) {
+        if (LogLevel.isLoggable(getLogLevel(), LogLevel.ERROR)) {
+            archive(txt, null);
+            console.error(txt);
+        }
+    }
+
+    @Override
+    public void error(final String txt, final Throwable e) {
+        if (LogLevel.isLoggable(getLogLevel(), LogLevel.ERROR)) {
+            archive(txt, e);
+            console.error(txt, e);
+        }
+    }
+
+    @Override
+    public void warn(final String txt) {
+        if (LogLevel.isLoggable(getLogLevel(), LogLevel.WARN)) {
+            archive(txt, null);
+            console.warn(txt);
+        }
+    }
+
+    @Override
+    public void info(final String txt) {
+        if (LogLevel.isLoggable(getLogLevel(), LogLevel.INFO)) {
+            archive(txt, null);
+            truncate(LogLevel.INFO, txt, null);
+        }
+    }
+
+    @Override
+    public void debug(final String txt) {
+        if (LogLevel.isLoggable(getLogLevel(), LogLevel.DEBUG)) {
+            archive(txt, null);
+            truncate(LogLevel.DEBUG, txt, null);
+        }
+    }
+
+    @Override
+    public void debug(final String txt, final Throwable e) {
+        if (LogLevel.isLoggable(getLogLevel(), LogLevel.DEBUG)) {
+            archive(txt, e);
+            truncate(LogLevel.DEBUG, txt, e);
+        }
+    }
+
+    @Override
+    public void trace(final String txt) {
+        if (LogLevel.isLoggable(getLogLevel(), LogLevel.TRACE)) {
+            archive(txt, null);
+            truncate(LogLevel.TRACE, txt, null);
+        }
+    }
+
+    @Override
+    public void trace(final String txt, final Throwable e) {
+        if (LogLevel.isLoggable(getLogLevel(), LogLevel.TRACE)) {
+            archive(txt, e);
+            truncate(LogLevel.TRACE, txt, e);
+        }
+    }
+
+    public int getOmittedLines() {
+        return omittedLines;
+    }
+
+    /**
+     * Writes the last lines to the build log and closes the file.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (omittedLines > 0) {
+            console.alwaysLog("[" + omittedLines + " lines of the scan log were left out of the build log, the full log is linked from the build page as the Black Duck Scan Log]");
+        }
+        for (final String line : tail) {
+            console.alwaysLog(line);
+        }
+        tail.clear();
+        archive.close();
+    }
+
+    private synchronized void archive(final String txt, final Throwable e) {
+        try {
+            if (txt != null) {
+                archive.write(txt);
+                archive.write('\n');
+            }
+            if (e != null) {
+                archive.write(getStackTrace(e));
+                archive.write('\n');
+            }
+        } catch (final IOException archiveException) {
+            console.debug("Could not write to the scan log " + logFile + " : " + archiveException.getMessage());
+        }
+    }
+
+    private synchronized void truncate(final LogLevel level, final String txt, final Throwable e) {
+        if (consoleLines < headLines) {
+            consoleLines++;
+            if (level == LogLevel.INFO) {
+                console.info(txt);
+            } else if (level == LogLevel.DEBUG) {
+                console.debug(txt, e);
+            } else {
+                console.trace(txt, e);
+            }
+            return;
+        }
+        if (tailLines <= 0) {
+            omittedLines++;
+            return;
+        }
+        if (tail.size() == tailLines) {
+            tail.removeFirst();
+            omittedLines++;
+        }
+        if (e == null) {
+            tail.addLast(txt);
+        } else {
+            tail.addLast(txt + System.lineSeparator() + getStackTrace(e));
+        }
+    }
+
+    private String getStackTrace(final Throwable e) {
+        final StringWriter sw = new StringWriter();
+        e.printStackTrace(new PrintWriter(sw));
+        return sw.toString();
+    }
+
+}
@@ -0,0 +1,213 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.report;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * The difference between the risk report of a build and the report of an earlier build. The project level fields are kept as they are since they are small, only the components that were added, removed or whose risk
+ * changed are stored.
+ */
+public class HubReportDelta {
+
+    public static final String COMPONENTS = "components";
+
+    private final int baseBuildNumber;
+
+    private final String header;
+
+    private final Map<String, String> addedComponents;
+
+    private final Map<String, String> changedComponents;
+
+    private final Map<String, String> removedComponents;
+
+    HubReportDelta(final int baseBuildNumber, final String header, final Map<String, String> addedComponents, final Map<String, String> changedComponents, final Map<String, String> removedComponents) {
+        this.baseBuildNumber = baseBuildNumber;
+        this.header = header;
+        this.addedComponents = addedComponents;
+        this.changedComponents = changedComponents;
+        this.removedComponents = removedComponents;
+    }
+
+    /**
+     * @return the changes from the base report to the current report, or null if the components of one of the reports can not be told apart
+     */
+    public static HubReportDelta compute(final int baseBuildNumber, final String baseJson, final String currentJson) {
+        final JsonObject base = parse(baseJson);
+        final JsonObject current = parse(currentJson);
+        final Map<String, JsonObject> baseComponents = getComponents(base);
+        final Map<String, JsonObject> currentComponents = getComponents(current);
+        if (baseComponents == null || currentComponents == null) {
+            return null;
+        }
+
+        final Map<String, String> added = new LinkedHashMap<>();
+        final Map<String, String> changed = new LinkedHashMap<>();
+        final Map<String, String> removed = new LinkedHashMap<>();
+        for (final Entry<String, JsonObject> component : currentComponents.entrySet()) {
+            final JsonObject baseComponent = baseComponents.get(component.getKey());
+            if (baseComponent == null) {
+                added.put(component.getKey(), component.getValue().toString());
+            } else if (!baseComponent.equals(component.getValue())) {
+                changed.put(component.getKey(), component.getValue().toString());
+            }
+        }
+        for (final Entry<String, JsonObject> component : baseComponents.entrySet()) {
+            if (!currentComponents.containsKey(component.getKey())) {
+                removed.put(component.getKey(), getDisplayName(component.getValue()));
+            }
+        }
+        current.remove(COMPONENTS);
+        return new HubReportDelta(baseBuildNumber, current.toString(), added, changed, removed);
+    }
+
+    /**
+     * Rebuilds the full report from the report of the base build.
+     */
+    public String apply(final String baseJson) {
+        final Map<String, JsonObject> components = getComponents(parse(baseJson));
+        if (components == null) {
+            throw new IllegalArgumentException("The components of the base report can not be told apart");
+        }
+        for (final String key : removedComponents.keySet()) {
+            components.remove(key);
+        }
+        for (final Entry<String, String> component : changedComponents.entrySet()) {
+            components.put(component.getKey(), parse(component.getValue()));
+        }
+        for (final Entry<String, String> component : addedComponents.entrySet()) {
+            components.put(component.getKey(), parse(component.getValue()));
+        }
+        final List<JsonObject> sortedComponents = new ArrayList<>(components.values());
+        Collections.sort(sortedComponents, new Comparator<JsonObject>() {
+            @Override
+            public int compare(final JsonObject first, final JsonObject second) {
+                return getDisplayName(first).compareToIgnoreCase(getDisplayName(second));
+            }
+        });
+        final JsonArray componentArray = new JsonArray();
+        for (final JsonObject component : sortedComponents) {
+            componentArray.add(component);
+        }
+        final JsonObject report = parse(header);
+        report.add(COMPONENTS, componentArray);
+        return report.toString();
+    }
+
+    public int getBaseBuildNumber() {
+        return baseBuildNumber;
+    }
+
+    public boolean isEmpty() {
+        return addedComponents.isEmpty() && changedComponents.isEmpty() && removedComponents.isEmpty();
+    }
+
+    /**
+     * @return the number of characters needed to store the changed components, used to decide if the delta is worth keeping
+     */
+    public int getSize() {
+        int size = header.length();
+        for (final String component : addedComponents.values()) {
+            size += component.length();
+        }
+        for (final String component : changedComponents.values()) {
+            size += component.length();
+        }
+        for (final String component : removedComponents.values()) {
+            size += component.length();
+        }
+        return size;
+    }
+
+    public List<String> getAddedComponents() {
+        return getDisplayNames(addedComponents);
+    }
+
+    public List<String> getChangedComponents() {
+        return getDisplayNames(changedComponents);
+    }
+
+    public List<String> getRemovedComponents() {
+        return new ArrayList<>(removedComponents.values());
+    }
+
+    private List<String> getDisplayNames(final Map<String, String> components) {
+        final List<String> displayNames = new ArrayList<>();
+        for (final String component : components.values()) {
+            displayNames.add(getDisplayName(parse(component)));
+        }
+        return displayNames;
+    }
+
+    private static JsonObject parse(final String json) {
+        return new JsonParser().parse(json).getAsJsonObject();
+    }
+
+    /**
+     * @return the components of the report by key, or null if two components have the same key
+     */
+    private static Map<String, JsonObject> getComponents(final JsonObject report) {
+        final Map<String, JsonObject> components = new LinkedHashMap<>();
+        final JsonElement componentArray = report.get(COMPONENTS);
+        if (componentArray == null || !componentArray.isJsonArray()) {
+            return components;
+        }
+        for (final JsonElement component : componentArray.getAsJsonArray()) {
+            final JsonObject componentObject = component.getAsJsonObject();
+            if (components.put(getKey(componentObject), componentObject) != null) {
+                return null;
+            }
+        }
+        return components;
+    }
+
+    static String getKey(final JsonObject component) {
+        return getString(component, "componentURL") + "|" + getString(component, "componentVersionURL") + "|" + getString(component, "componentName") + "|" + getString(component, "componentVersion");
+    }
+
+    static String getDisplayName(final JsonObject component) {
+        return StringUtils.trim(getString(component, "componentName") + " " + getString(component, "componentVersion"));
+    }
+
+    private static String getString(final JsonObject object, final String member) {
+        final JsonElement element = object.get(member);
+        if (element == null || element.isJsonNull()) {
+            return "";
+        }
+        return element.getAsString();
+    }
+
+}
@@ -0,0 +1,419 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.report;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Compact binary file holding the risk report of a build, so that the report is not part of the build record.
+ *
+ * The file starts with the report level counts at fixed offsets, so a summary is read without decoding the components. It is followed by the report level fields as json, a dictionary of all the strings of the
+ * components, and the components stored by column: one array of dictionary indexes per string field and one array of ints per risk count. Fields this format does not know about are kept as json per component.
+ */
+public class HubReportFile {
+
+    public static final String FILE_NAME = "blackduck-hub-report.bin";
+
+    public static final String[] SUMMARY_COUNTS = new String[] { "totalComponents", "vulnerabilityRiskHighCount", "vulnerabilityRiskMediumCount", "vulnerabilityRiskLowCount", "vulnerabilityRiskNoneCount",
+            "licenseRiskHighCount", "licenseRiskMediumCount", "licenseRiskLowCount", "licenseRiskNoneCount", "operationalRiskHighCount", "operationalRiskMediumCount", "operationalRiskLowCount", "operationalRiskNoneCount" };
+
+    private static final String[] STRING_COLUMNS = new String[] { "componentName", "componentURL", "componentVersion", "componentVersionURL", "license", "policyStatus" };
+
+    private static final int NAME_COLUMN = 0;
+
+    private static final int URL_COLUMN = 1;
+
+    private static final int VERSION_COLUMN = 2;
+
+    private static final int VERSION_URL_COLUMN = 3;
+
+    private static final String[] INT_COLUMNS = new String[] { "securityRiskHighCount", "securityRiskMediumCount", "securityRiskLowCount", "licenseRiskHighCount", "licenseRiskMediumCount", "licenseRiskLowCount",
+            "operationalRiskHighCount", "operationalRiskMediumCount", "operationalRiskLowCount" };
+
+    private static final int MAGIC = 0x42444852;
+
+    private static final int VERSION = 1;
+
+    private static final int SUMMARY_OFFSET = 8;
+
+    // Marks a missing value in the columns
+    private static final int MISSING = Integer.MIN_VALUE;
+
+    private HubReportFile() {
+    }
+
+    public static void write(final File file, final String json) throws IOException {
+        write(file, new JsonParser().parse(json).getAsJsonObject());
+    }
+
+    /**
+     * Writes the report without changing it, so a report that is already parsed is not serialized and parsed again.
+     */
+    public static void write(final File file, final JsonObject fullReport) throws IOException {
+        final JsonObject report = new JsonObject();
+        JsonArray components = new JsonArray();
+        for (final Entry<String, JsonElement> field : fullReport.entrySet()) {
+            if (!"components".equals(field.getKey())) {
+                report.add(field.getKey(), field.getValue());
+            } else if (field.getValue().isJsonArray()) {
+                components = field.getValue().getAsJsonArray();
+            }
+        }
+
+        final int[] summary = new int[SUMMARY_COUNTS.length];
+        for (int i = 0; i < SUMMARY_COUNTS.length; i++) {
+            summary[i] = getInt(report.get(SUMMARY_COUNTS[i]));
+        }
+
+        final List<String> dictionary = new ArrayList<>();
+        final Map<String, Integer> dictionaryIndexes = new HashMap<>();
+        final int[][] stringColumns = new int[STRING_COLUMNS.length][components.size()];
+        final int[][] intColumns = new int[INT_COLUMNS.length][components.size()];
+        final int[] extras = new int[components.size()];
+        for (int row = 0; row < components.size(); row++) {
+            final JsonObject component = components.get(row).getAsJsonObject();
+            final JsonObject extra = new JsonObject();
+            for (final Entry<String, JsonElement> member : component.entrySet()) {
+                extra.add(member.getKey(), member.getValue());
+            }
+            for (int column = 0; column < STRING_COLUMNS.length; column++) {
+                final JsonElement value = component.get(STRING_COLUMNS[column]);
+                stringColumns[column][row] = MISSING;
+                if (value != null && value.isJsonPrimitive() && value.getAsJsonPrimitive().isString()) {
+                    stringColumns[column][row] = getDictionaryIndex(dictionary, dictionaryIndexes, value.getAsString());
+                    extra.remove(STRING_COLUMNS[column]);
+                }
+            }
+            for (int column = 0; column < INT_COLUMNS.length; column++) {
+                final JsonElement value = component.get(INT_COLUMNS[column]);
+                intColumns[column][row] = getInt(value);
+                if (intColumns[column][row] != MISSING) {
+                    extra.remove(INT_COLUMNS[column]);
+                }
+            }
+            extras[row] = extra.entrySet().isEmpty() ? MISSING : getDictionaryIndex(dictionary, dictionaryIndexes, extra.toString());
+        }
+
+        final File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            for (final int count : summary) {
+                output.writeInt(count);
+            }
+            writeString(output, report.toString());
+            output.writeInt(dictionary.size());
+            for (final String value : dictionary) {
+                writeString(output, value);
+            }
+            output.writeInt(components.size());
+            for (final int[] column : stringColumns) {
+                writeColumn(output, column);
+            }
+            for (final int[] column : intColumns) {
+                writeColumn(output, column);
+            }
+            writeColumn(output, extras);
+        }
+        // readers see either the old or the new report, never a missing or partly written one
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return the full report as json
+     */
+    public static String read(final File file) throws IOException {
+        return readReport(file).toString();
+    }
+
+    /**
+     * @return the full report, built straight from the columns without going through its json
+     */
+    public static JsonObject readReport(final File file) throws IOException {
+        final Columns columns = readColumns(file);
+        final JsonObject report = new JsonParser().parse(columns.header).getAsJsonObject();
+        final JsonArray components = new JsonArray();
+        for (int row = 0; row < columns.rows; row++) {
+            components.add(columns.getComponent(row));
+        }
+        report.add("components", components);
+        return report;
+    }
+
+    /**
+     * Compares the components of two report files column by column, so only the components that changed are turned into json.
+     *
+     * @return the changes from the base report to the current report, or null if the components of one of the reports can not be told apart
+     */
+    public static HubReportDelta compare(final int baseBuildNumber, final File baseFile, final File currentFile) throws IOException {
+        final Columns base = readColumns(baseFile);
+        final Columns current = readColumns(currentFile);
+        final Map<String, Integer> baseRows = base.getRowsByKey();
+        final Map<String, Integer> currentRows = current.getRowsByKey();
+        if (baseRows == null || currentRows == null) {
+            return null;
+        }
+
+        final Map<String, String> added = new LinkedHashMap<>();
+        final Map<String, String> changed = new LinkedHashMap<>();
+        final Map<String, String> removed = new LinkedHashMap<>();
+        for (final Entry<String, Integer> row : currentRows.entrySet()) {
+            final Integer baseRow = baseRows.get(row.getKey());
+            if (baseRow == null) {
+                added.put(row.getKey(), current.getComponent(row.getValue()).toString());
+            } else if (!current.rowEquals(row.getValue(), base, baseRow)) {
+                changed.put(row.getKey(), current.getComponent(row.getValue()).toString());
+            }
+        }
+        for (final Entry<String, Integer> row : baseRows.entrySet()) {
+            if (!currentRows.containsKey(row.getKey())) {
+                removed.put(row.getKey(), HubReportDelta.getDisplayName(base.getComponent(row.getValue())));
+            }
+        }
+        return new HubReportDelta(baseBuildNumber, current.header, added, changed, removed);
+    }
+
+    private static Columns readColumns(final File file) throws IOException {
+        final ByteBuffer buffer = readFully(file);
+        checkHeader(buffer, file);
+        buffer.position(SUMMARY_OFFSET + SUMMARY_COUNTS.length * 4);
+        final Columns columns = new Columns();
+        columns.header = readString(buffer);
+        columns.dictionary = new String[buffer.getInt()];
+        for (int i = 0; i < columns.dictionary.length; i++) {
+            columns.dictionary[i] = readString(buffer);
+        }
+        columns.rows = buffer.getInt();
+        columns.stringColumns = new int[STRING_COLUMNS.length][];
+        for (int column = 0; column < STRING_COLUMNS.length; column++) {
+            columns.stringColumns[column] = readColumn(buffer, columns.rows);
+        }
+        columns.intColumns = new int[INT_COLUMNS.length][];
+        for (int column = 0; column < INT_COLUMNS.length; column++) {
+            columns.intColumns[column] = readColumn(buffer, columns.rows);
+        }
+        columns.extras = readColumn(buffer, columns.rows);
+        return columns;
+    }
+
+    /**
+     * @return the report level counts in the order of {@link #SUMMARY_COUNTS}, without reading the components
+     */
+    public static int[] readSummary(final File file) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(SUMMARY_OFFSET + SUMMARY_COUNTS.length * 4);
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            final FileChannel channel = input.getChannel();
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException(file + " is not a Hub report file");
+                }
+            }
+        }
+        buffer.flip();
+        checkHeader(buffer, file);
+        final int[] summary = new int[SUMMARY_COUNTS.length];
+        for (int i = 0; i < summary.length; i++) {
+            summary[i] = buffer.getInt();
+        }
+        return summary;
+    }
+
+    private static ByteBuffer readFully(final File file) throws IOException {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            final FileChannel channel = input.getChannel();
+            final ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Unexpected end of " + file);
+                }
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    private static void checkHeader(final ByteBuffer buffer, final File file) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException(file + " is not a Hub report file");
+        }
+        final int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException(file + " has the unsupported version " + version);
+        }
+    }
+
+    private static int getDictionaryIndex(final List<String> dictionary, final Map<String, Integer> dictionaryIndexes, final String value) {
+        Integer index = dictionaryIndexes.get(value);
+        if (index == null) {
+            index = dictionary.size();
+            dictionary.add(value);
+            dictionaryIndexes.put(value, index);
+        }
+        return index;
+    }
+
+    private static int getInt(final JsonElement element) {
+        if (element == null || !element.isJsonPrimitive()) {
+            return MISSING;
+        }
+        final JsonPrimitive primitive = element.getAsJsonPrimitive();
+        if (!primitive.isNumber()) {
+            return MISSING;
+        }
+        final double value = primitive.getAsDouble();
+        if (value != Math.rint(value) || value <= MISSING || value > Integer.MAX_VALUE) {
+            return MISSING;
+        }
+        return (int) value;
+    }
+
+    private static void writeString(final DataOutputStream output, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeColumn(final DataOutputStream output, final int[] column) throws IOException {
+        for (final int value : column) {
+            output.writeInt(value);
+        }
+    }
+
+    private static int[] readColumn(final ByteBuffer buffer, final int rows) {
+        final int[] column = new int[rows];
+        buffer.asIntBuffer().get(column);
+        buffer.position(buffer.position() + rows * 4);
+        return column;
+    }
+
+    /**
+     * The components of a report file as they are stored, before they are turned into json.
+     */
+    private static class Columns {
+        // the report level fields as json
+        private String header;
+
+        private String[] dictionary;
+
+        private int rows;
+
+        private int[][] stringColumns;
+
+        private int[][] intColumns;
+
+        private int[] extras;
+
+        private JsonObject getComponent(final int row) {
+            final JsonObject component = new JsonObject();
+            for (int column = 0; column < STRING_COLUMNS.length; column++) {
+                if (stringColumns[column][row] != MISSING) {
+                    component.addProperty(STRING_COLUMNS[column], dictionary[stringColumns[column][row]]);
+                }
+            }
+            for (int column = 0; column < INT_COLUMNS.length; column++) {
+                if (intColumns[column][row] != MISSING) {
+                    component.addProperty(INT_COLUMNS[column], intColumns[column][row]);
+                }
+            }
+            if (extras[row] != MISSING) {
+                for (final Entry<String, JsonElement> member : new JsonParser().parse(dictionary[extras[row]]).getAsJsonObject().entrySet()) {
+                    component.add(member.getKey(), member.getValue());
+                }
+            }
+            return component;
+        }
+
+        private String getString(final int column, final int row) {
+            return stringColumns[column][row] == MISSING ? null : dictionary[stringColumns[column][row]];
+        }
+
+        /**
+         * @return the rows by the key {@link HubReportDelta} tells the components apart by, or null if two components have the same key
+         */
+        private Map<String, Integer> getRowsByKey() {
+            final Map<String, Integer> rowsByKey = new LinkedHashMap<>();
+            for (int row = 0; row < rows; row++) {
+                final String key;
+                if (extras[row] == MISSING) {
+                    key = StringUtils.defaultString(getString(URL_COLUMN, row)) + "|" + StringUtils.defaultString(getString(VERSION_URL_COLUMN, row)) + "|"
+                            + StringUtils.defaultString(getString(NAME_COLUMN, row)) + "|" + StringUtils.defaultString(getString(VERSION_COLUMN, row));
+                } else {
+                    // a key field that is not a string is kept with the other fields
+                    key = HubReportDelta.getKey(getComponent(row));
+                }
+                if (rowsByKey.put(key, row) != null) {
+                    return null;
+                }
+            }
+            return rowsByKey;
+        }
+
+        private boolean rowEquals(final int row, final Columns other, final int otherRow) {
+            for (int column = 0; column < STRING_COLUMNS.length; column++) {
+                if (!StringUtils.equals(getString(column, row), other.getString(column, otherRow))) {
+                    return false;
+                }
+            }
+            for (int column = 0; column < INT_COLUMNS.length; column++) {
+                if (intColumns[column][row] != other.intColumns[column][otherRow]) {
+                    return false;
+                }
+            }
+            if (extras[row] == MISSING || other.extras[otherRow] == MISSING) {
+                return extras[row] == other.extras[otherRow];
+            }
+            final JsonParser parser = new JsonParser();
+            return parser.parse(dictionary[extras[row]]).equals(parser.parse(other.dictionary[other.extras[otherRow]]));
+        }
+    }
+
+}
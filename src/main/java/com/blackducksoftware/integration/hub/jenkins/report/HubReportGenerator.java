@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.report;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.blackducksoftware.integration.hub.jenkins.action.HubReportV2Action;
+import com.blackducksoftware.integration.hub.jenkins.action.HubScanFinishedAction;
+import com.blackducksoftware.integration.hub.report.api.ReportData;
+
+import hudson.model.Run;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+/**
+ * Controller wide pool that generates risk reports after their build has finished. Generating a report waits for the Hub to finish the BOM, so these are kept apart from the
+ * {@link com.blackducksoftware.integration.hub.jenkins.helper.HubRequestExecutor} pool where they would hold up the short requests of running builds.
+ */
+public class HubReportGenerator {
+
+    public static final int POOL_SIZE = 2;
+
+    private static final Logger LOGGER = Logger.getLogger(HubReportGenerator.class.getName());
+
+    private static final ThreadPoolExecutor executor;
+
+    static {
+        executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new NamingThreadFactory(new DaemonThreadFactory(), "Black Duck Hub risk reports"));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Marks the report action as pending and generates the report in the background. Once the report is attached the build is saved and its line in the trend index is written again with the risk counts.
+     * The generation is recorded as the riskReport phase in the event log of the build.
+     *
+     * @return done once the report or the failure to generate it is attached to the build
+     */
+    public static Future<?> submit(final Run<?, ?> run, final HubReportV2Action reportAction, final Callable<ReportData> reportRequest, final HubScanEventLog events) {
+        reportAction.setPending();
+        return executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                final long start = events.phaseStart("riskReport");
+                HubScanEvent reportEvent;
+                try {
+                    reportAction.setReportData(reportRequest.call());
+                    reportEvent = events.createPhaseEnd("riskReport", start);
+                    reportEvent.setBytes(reportAction.getReportFile().length());
+                    LOGGER.fine("Generated the risk report of " + run.getFullDisplayName() + " in " + reportEvent.getDuration() + "ms");
+                } catch (final Exception e) {
+                    LOGGER.log(Level.WARNING, "Could not generate the risk report of " + run.getFullDisplayName(), e);
+                    reportAction.setGenerationFailure(e.getMessage() == null ? e.toString() : e.getMessage());
+                    reportEvent = events.createPhaseEnd("riskReport", start);
+                    reportEvent.setSuccess(false);
+                    reportEvent.setMessage(reportAction.getGenerationFailure());
+                }
+                events.record(reportEvent);
+                try {
+                    run.save();
+                } catch (final IOException e) {
+                    LOGGER.log(Level.WARNING, "Could not save " + run.getFullDisplayName() + " after generating its risk report", e);
+                }
+                // builds still running are added to the trend when they complete
+                final HubScanFinishedAction scanFinishedAction = run.getAction(HubScanFinishedAction.class);
+                if (scanFinishedAction != null && !run.isBuilding()) {
+                    try {
+                        HubTrendIndex.getIndex(run.getParent().getRootDir()).append(HubTrendRunListener.createEntry(run, scanFinishedAction));
+                    } catch (final IOException e) {
+                        LOGGER.log(Level.WARNING, "Could not add " + run.getFullDisplayName() + " to the Hub trend", e);
+                    }
+                }
+            }
+        });
+    }
+
+}
@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.report;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Index over the components of a risk report, built once per report and used to answer searches without going through the json of every component. Risk levels and policy statuses are kept as bit sets, names and
+ * licenses as lower case strings for the substring searches.
+ */
+public class HubReportIndex {
+
+    public static final String[] RISK_LEVELS = new String[] { "none", "low", "medium", "high" };
+
+    private final JsonObject reportFields = new JsonObject();
+
+    private final JsonArray components;
+
+    private final String[] names;
+
+    private final String[] licenses;
+
+    // by risk level, in the order of RISK_LEVELS
+    private final BitSet[] securityRisks = createLevelSets();
+
+    private final BitSet[] licenseRisks = createLevelSets();
+
+    private final BitSet[] operationalRisks = createLevelSets();
+
+    private final Map<String, BitSet> policyStatuses = new HashMap<>();
+
+    public HubReportIndex(final JsonObject report) {
+        JsonArray reportComponents = new JsonArray();
+        for (final Entry<String, JsonElement> field : report.entrySet()) {
+            if (!HubReportDelta.COMPONENTS.equals(field.getKey())) {
+                reportFields.add(field.getKey(), field.getValue());
+            } else if (field.getValue().isJsonArray()) {
+                reportComponents = field.getValue().getAsJsonArray();
+            }
+        }
+        components = reportComponents;
+        names = new String[components.size()];
+        licenses = new String[components.size()];
+        for (int i = 0; i < components.size(); i++) {
+            final JsonObject component = components.get(i).getAsJsonObject();
+            names[i] = (getString(component, "componentName") + " " + getString(component, "componentVersion")).toLowerCase(Locale.ENGLISH);
+            licenses[i] = getString(component, "license").toLowerCase(Locale.ENGLISH);
+            securityRisks[getLevel(component, "securityRisk")].set(i);
+            licenseRisks[getLevel(component, "licenseRisk")].set(i);
+            operationalRisks[getLevel(component, "operationalRisk")].set(i);
+            final String policyStatus = getString(component, "policyStatus").toUpperCase(Locale.ENGLISH);
+            BitSet policyStatusSet = policyStatuses.get(policyStatus);
+            if (policyStatusSet == null) {
+                policyStatusSet = new BitSet(components.size());
+                policyStatuses.put(policyStatus, policyStatusSet);
+            }
+            policyStatusSet.set(i);
+        }
+    }
+
+    /**
+     * @return the indexes of the components that match all the criteria of the query
+     */
+    public BitSet search(final Query query) {
+        final BitSet matches = new BitSet(components.size());
+        matches.set(0, components.size());
+        if (query.securityRisk >= 0) {
+            matches.and(securityRisks[query.securityRisk]);
+        }
+        if (query.licenseRisk >= 0) {
+            matches.and(licenseRisks[query.licenseRisk]);
+        }
+        if (query.operationalRisk >= 0) {
+            matches.and(operationalRisks[query.operationalRisk]);
+        }
+        if (query.policyStatus != null) {
+            final BitSet policyStatusSet = policyStatuses.get(query.policyStatus);
+            if (policyStatusSet == null) {
+                matches.clear();
+            } else {
+                matches.and(policyStatusSet);
+            }
+        }
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            if ((query.name != null && !names[i].contains(query.name)) || (query.license != null && !licenses[i].contains(query.license))) {
+                matches.clear(i);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @return the fields of the report without the components
+     */
+    public JsonObject getReportFields() {
+        return reportFields;
+    }
+
+    public JsonObject getComponent(final int index) {
+        return components.get(index).getAsJsonObject();
+    }
+
+    public int size() {
+        return components.size();
+    }
+
+    /**
+     * @return the number of components with each policy status, by status
+     */
+    public Map<String, Integer> getPolicyStatusCounts() {
+        final Map<String, Integer> counts = new TreeMap<>();
+        for (final Entry<String, BitSet> policyStatus : policyStatuses.entrySet()) {
+            counts.put(policyStatus.getKey(), policyStatus.getValue().cardinality());
+        }
+        return counts;
+    }
+
+    /**
+     * @return the index of the level in {@link #RISK_LEVELS}, or -1 if the level is blank
+     * @throws IllegalArgumentException
+     *             if the level is not one of {@link #RISK_LEVELS}
+     */
+    public static int parseRiskLevel(final String level) {
+        if (StringUtils.isBlank(level)) {
+            return -1;
+        }
+        for (int i = 0; i < RISK_LEVELS.length; i++) {
+            if (RISK_LEVELS[i].equalsIgnoreCase(level.trim())) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("The risk level " + level + " is not one of " + StringUtils.join(RISK_LEVELS, ", "));
+    }
+
+    private static BitSet[] createLevelSets() {
+        final BitSet[] levelSets = new BitSet[RISK_LEVELS.length];
+        for (int i = 0; i < levelSets.length; i++) {
+            levelSets[i] = new BitSet();
+        }
+        return levelSets;
+    }
+
+    /**
+     * The highest level with a count, same as the risk shown in the report.
+     */
+    private static int getLevel(final JsonObject component, final String risk) {
+        if (getCount(component, risk + "HighCount") > 0) {
+            return 3;
+        }
+        if (getCount(component, risk + "MediumCount") > 0) {
+            return 2;
+        }
+        if (getCount(component, risk + "LowCount") > 0) {
+            return 1;
+        }
+        return 0;
+    }
+
+    private static int getCount(final JsonObject component, final String member) {
+        final JsonElement count = component.get(member);
+        if (count == null || !count.isJsonPrimitive() || !count.getAsJsonPrimitive().isNumber()) {
+            return 0;
+        }
+        return count.getAsInt();
+    }
+
+    private static String getString(final JsonObject component, final String member) {
+        final JsonElement element = component.get(member);
+        if (element == null || element.isJsonNull()) {
+            return "";
+        }
+        return element.getAsString();
+    }
+
+    public static class Query {
+        private final String name;
+
+        private final String license;
+
+        private final String policyStatus;
+
+        private final int securityRisk;
+
+        private final int licenseRisk;
+
+        private final int operationalRisk;
+
+        /**
+         * Blank criteria match every component.
+         *
+         * @throws IllegalArgumentException
+         *             if one of the risk levels is not one of {@link HubReportIndex#RISK_LEVELS}
+         */
+        public Query(final String name, final String license, final String policyStatus, final String securityRisk, final String licenseRisk, final String operationalRisk) {
+            this.name = StringUtils.isBlank(name) ? null : name.trim().toLowerCase(Locale.ENGLISH);
+            this.license = StringUtils.isBlank(license) ? null : license.trim().toLowerCase(Locale.ENGLISH);
+            this.policyStatus = StringUtils.isBlank(policyStatus) ? null : policyStatus.trim().toUpperCase(Locale.ENGLISH);
+            this.securityRisk = parseRiskLevel(securityRisk);
+            this.licenseRisk = parseRiskLevel(licenseRisk);
+            this.operationalRisk = parseRiskLevel(operationalRisk);
+        }
+    }
+
+}
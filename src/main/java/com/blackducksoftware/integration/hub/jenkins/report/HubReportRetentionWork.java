@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.report;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import com.blackducksoftware.integration.hub.jenkins.HubServerInfo;
+import com.blackducksoftware.integration.hub.jenkins.HubServerInfoSingleton;
+import com.blackducksoftware.integration.hub.jenkins.action.HubReportV2Action;
+
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import jenkins.model.Jenkins;
+
+/**
+ * Compacts the risk reports of the builds that are older than the last {@link HubServerInfo#getReportRetention()} reports of their job, keeping only the summary counts of those reports. Each job remembers the
+ * newest build the policy went through and the builds whose report it kept in {@link #FILE_NAME}, so a build is loaded once to find its report and once more to compact it, and jobs that never ran a Hub
+ * scan are not loaded at all.
+ */
+@Extension
+public class HubReportRetentionWork extends AsyncPeriodicWork {
+
+    public static final String FILE_NAME = "blackduck-hub-retention";
+
+    private static final Logger LOGGER = Logger.getLogger(HubReportRetentionWork.class.getName());
+
+    private final AtomicLong totalReclaimedBytes = new AtomicLong();
+
+    private final AtomicLong totalCompactedReports = new AtomicLong();
+
+    public HubReportRetentionWork() {
+        super("Black Duck Hub report retention");
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return TimeUnit.HOURS.toMillis(6);
+    }
+
+    @Override
+    protected void execute(final TaskListener listener) throws IOException, InterruptedException {
+        final HubServerInfo serverInfo = HubServerInfoSingleton.getInstance().getServerInfo();
+        if (serverInfo == null || serverInfo.getReportRetention() <= 0) {
+            return;
+        }
+        final int retention = serverInfo.getReportRetention();
+        final long start = System.currentTimeMillis();
+        long reclaimedBytes = 0;
+        int compactedReports = 0;
+        for (final Job<?, ?> job : Jenkins.getInstance().getAllItems(Job.class)) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            final long[] jobResult = compactJob(job, retention, listener);
+            compactedReports += jobResult[0];
+            reclaimedBytes += jobResult[1];
+        }
+        totalReclaimedBytes.addAndGet(reclaimedBytes);
+        totalCompactedReports.addAndGet(compactedReports);
+
+        final String message = "Compacted " + compactedReports + " risk reports, reclaimed " + reclaimedBytes + " bytes in " + (System.currentTimeMillis() - start) + "ms. Since startup : "
+                + totalCompactedReports.get() + " reports, " + totalReclaimedBytes.get() + " bytes.";
+        listener.getLogger().println(message);
+        if (compactedReports > 0) {
+            LOGGER.info(message);
+        }
+    }
+
+    /**
+     * Compacts the reports that are older than the newest kept reports of the job, newest first so that a build whose delta is based on a compacted report has already been given its full report. Only the
+     * builds that completed since the last run are loaded to find out whether they have a report, the builds whose report is kept are remembered by number. A running build counts as a kept report since its
+     * report is not written yet, it is looked at again once it has completed.
+     *
+     * @return the number of compacted reports and the number of bytes reclaimed
+     */
+    private long[] compactJob(final Job<?, ?> job, final int retention, final TaskListener listener) {
+        final long[] result = new long[2];
+        final File handledFile = new File(job.getRootDir(), FILE_NAME);
+        // a job that never ran a Hub scan has no trend, its builds are not loaded
+        if (!handledFile.isFile() && !HubTrendIndex.exists(job.getRootDir())) {
+            return result;
+        }
+        final RetentionState state = readState(handledFile);
+        final Run<?, ?> lastBuild = job.getLastBuild();
+        if (lastBuild == null || lastBuild.getNumber() <= state.handledBuildNumber) {
+            return result;
+        }
+
+        // the kept reports, newest first, with the running builds that may still add one
+        final List<Integer> reports = new ArrayList<>();
+        final Set<Integer> running = new HashSet<>();
+        int handledBuildNumber = lastBuild.getNumber();
+        for (Run<?, ?> build = lastBuild; build != null && build.getNumber() > state.handledBuildNumber; build = build.getPreviousBuild()) {
+            if (build.isBuilding()) {
+                running.add(build.getNumber());
+                reports.add(build.getNumber());
+                handledBuildNumber = build.getNumber() - 1;
+            } else {
+                final HubReportV2Action reportAction = build.getAction(HubReportV2Action.class);
+                if (reportAction != null && !reportAction.isCompacted()) {
+                    reports.add(build.getNumber());
+                }
+            }
+        }
+        for (final int buildNumber : state.reports) {
+            // skip the builds that were deleted since, without loading the others
+            if (new File(job.getBuildDir(), String.valueOf(buildNumber)).isDirectory()) {
+                reports.add(buildNumber);
+            }
+        }
+
+        final List<Integer> keptReports = new ArrayList<>();
+        for (int i = 0; i < reports.size(); i++) {
+            final int buildNumber = reports.get(i);
+            if (i < retention || running.contains(buildNumber)) {
+                // the reports of the builds that are handled again on the next run are found again then
+                if (buildNumber <= handledBuildNumber) {
+                    keptReports.add(buildNumber);
+                }
+                continue;
+            }
+            final Run<?, ?> build = job.getBuildByNumber(buildNumber);
+            final HubReportV2Action reportAction = build == null ? null : build.getAction(HubReportV2Action.class);
+            if (reportAction == null || reportAction.isCompacted()) {
+                continue;
+            }
+            try {
+                HubReportRunListener.storeFullReportsBasedOn(build);
+                result[1] += reportAction.compact();
+                result[0]++;
+            } catch (final IOException e) {
+                listener.error("Could not compact the risk report of " + build.getFullDisplayName() + " : " + e.getMessage());
+                LOGGER.log(Level.WARNING, "Could not compact the risk report of " + build.getFullDisplayName(), e);
+            }
+        }
+        writeState(handledFile, new RetentionState(handledBuildNumber, keptReports));
+        return result;
+    }
+
+    /**
+     * Reads the newest build the policy went through and the builds whose report it kept, the file of older versions of the plugin only has the build number.
+     */
+    private RetentionState readState(final File handledFile) {
+        if (!handledFile.isFile()) {
+            return new RetentionState(0, Collections.<Integer> emptyList());
+        }
+        try {
+            final String[] lines = StringUtils.split(new String(Files.readAllBytes(handledFile.toPath()), StandardCharsets.UTF_8), '\n');
+            final int handledBuildNumber = lines.length == 0 ? 0 : NumberUtils.toInt(StringUtils.trim(lines[0]), 0);
+            final List<Integer> reports = new ArrayList<>();
+            if (lines.length > 1) {
+                for (final String buildNumber : StringUtils.split(lines[1], ',')) {
+                    final int number = NumberUtils.toInt(StringUtils.trim(buildNumber), 0);
+                    if (number > 0 && number <= handledBuildNumber) {
+                        reports.add(number);
+                    }
+                }
+            }
+            Collections.sort(reports, Collections.reverseOrder());
+            return new RetentionState(handledBuildNumber, reports);
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Could not read " + handledFile, e);
+            return new RetentionState(0, Collections.<Integer> emptyList());
+        }
+    }
+
+    private void writeState(final File handledFile, final RetentionState state) {
+        try {
+            Files.write(handledFile.toPath(), (state.handledBuildNumber + "\n" + StringUtils.join(state.reports, ',') + "\n").getBytes(StandardCharsets.UTF_8));
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Could not write " + handledFile, e);
+        }
+    }
+
+    private static class RetentionState {
+        private final int handledBuildNumber;
+
+        // newest first
+        private final List<Integer> reports;
+
+        private RetentionState(final int handledBuildNumber, final List<Integer> reports) {
+            this.handledBuildNumber = handledBuildNumber;
+            this.reports = reports;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.report;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.blackducksoftware.integration.hub.jenkins.action.HubReportV2Action;
+
+import hudson.Extension;
+import hudson.model.Run;
+import hudson.model.listeners.RunListener;
+
+/**
+ * Builds that only store the delta of their risk report need the report of their base build. Before a build is deleted or its report is compacted, the builds based on it get their full report back.
+ */
+@Extension
+public class HubReportRunListener extends RunListener<Run<?, ?>> {
+
+    private static final Logger LOGGER = Logger.getLogger(HubReportRunListener.class.getName());
+
+    @Override
+    public void onDeleted(final Run<?, ?> run) {
+        storeFullReportsBasedOn(run);
+    }
+
+    /**
+     * Gives the builds whose delta is based on the report of the run their full report back, used before that report goes away.
+     */
+    public static void storeFullReportsBasedOn(final Run<?, ?> run) {
+        if (run.getAction(HubReportV2Action.class) == null) {
+            return;
+        }
+        Run<?, ?> nextBuild = run.getNextBuild();
+        for (int i = 0; nextBuild != null && i < HubReportV2Action.FULL_REPORT_INTERVAL; i++) {
+            final HubReportV2Action nextAction = nextBuild.getAction(HubReportV2Action.class);
+            if (nextAction != null && nextAction.getBaseBuildNumber() == run.getNumber()) {
+                try {
+                    nextAction.storeFullReport();
+                } catch (final IOException e) {
+                    LOGGER.log(Level.WARNING, "Could not store the full risk report of " + nextBuild.getFullDisplayName(), e);
+                }
+            }
+            nextBuild = nextBuild.getNextBuild();
+        }
+    }
+
+}
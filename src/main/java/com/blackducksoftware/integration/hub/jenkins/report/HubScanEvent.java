@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.report;
+
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * One line of the {@link HubScanEventLog}. Only the time, the step, the type and the name are always set.
+ */
+@ExportedBean
+public class HubScanEvent {
+
+    public static final String PHASE_START = "phaseStart";
+
+    public static final String PHASE_END = "phaseEnd";
+
+    public static final String TARGET = "target";
+
+    public static final String HUB_REQUEST = "hubRequest";
+
+    public static final String POLICY_STATUS = "policyStatus";
+
+    public static final String RESULT = "result";
+
+    private final long time;
+
+    private final String step;
+
+    private final String type;
+
+    private final String name;
+
+    private Long duration;
+
+    private Long bytes;
+
+    private Integer attempts;
+
+    private Integer retries;
+
+    private Boolean success;
+
+    private String message;
+
+    public HubScanEvent(final long time, final String step, final String type, final String name) {
+        this.time = time;
+        this.step = step;
+        this.type = type;
+        this.name = name;
+    }
+
+    @Exported
+    public long getTime() {
+        return time;
+    }
+
+    @Exported
+    public String getStep() {
+        return step;
+    }
+
+    @Exported
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * The phase, the scan target path, the Hub request or the build result, depending on the type of the event.
+     */
+    @Exported
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Milliseconds, for the end of a phase and for a Hub request including its retries.
+     */
+    @Exported
+    public Long getDuration() {
+        return duration;
+    }
+
+    public void setDuration(final Long duration) {
+        this.duration = duration;
+    }
+
+    @Exported
+    public Long getBytes() {
+        return bytes;
+    }
+
+    public void setBytes(final Long bytes) {
+        this.bytes = bytes;
+    }
+
+    @Exported
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(final Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    @Exported
+    public Integer getRetries() {
+        return retries;
+    }
+
+    public void setRetries(final Integer retries) {
+        this.retries = retries;
+    }
+
+    @Exported
+    public Boolean getSuccess() {
+        return success;
+    }
+
+    public void setSuccess(final Boolean success) {
+        this.success = success;
+    }
+
+    @Exported
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(final String message) {
+        this.message = message;
+    }
+
+}
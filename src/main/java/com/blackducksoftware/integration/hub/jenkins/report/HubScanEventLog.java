@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.report;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * Machine readable record of what the Hub steps of a build did, kept in the build directory next to the build log as one json {@link HubScanEvent} per line. The scan and the failure conditions of a build append
+ * to the same file. Failing to write an event never fails the build.
+ */
+public class HubScanEventLog {
+
+    public static final String FILE_NAME = "blackduck-hub-events.jsonl";
+
+    private static final Logger LOGGER = Logger.getLogger(HubScanEventLog.class.getName());
+
+    private final Gson gson = new Gson();
+
+    private final File file;
+
+    private final String step;
+
+    public HubScanEventLog(final File buildDirectory, final String step) {
+        this.file = getFile(buildDirectory);
+        this.step = step;
+    }
+
+    public static File getFile(final File buildDirectory) {
+        return new File(buildDirectory, FILE_NAME);
+    }
+
+    public HubScanEvent createEvent(final String type, final String name) {
+        return new HubScanEvent(System.currentTimeMillis(), step, type, name);
+    }
+
+    /**
+     * @return the start of the phase, to pass to {@link #phaseEnd(String, long)}
+     */
+    public long phaseStart(final String phase) {
+        final HubScanEvent event = createEvent(HubScanEvent.PHASE_START, phase);
+        record(event);
+        return event.getTime();
+    }
+
+    public void phaseEnd(final String phase, final long start) {
+        record(createPhaseEnd(phase, start));
+    }
+
+    public HubScanEvent createPhaseEnd(final String phase, final long start) {
+        final HubScanEvent event = createEvent(HubScanEvent.PHASE_END, phase);
+        event.setDuration(event.getTime() - start);
+        return event;
+    }
+
+    public void hubRequest(final String description, final long start, final int attempts, final boolean success) {
+        final HubScanEvent event = createEvent(HubScanEvent.HUB_REQUEST, description);
+        event.setDuration(event.getTime() - start);
+        event.setAttempts(attempts);
+        event.setSuccess(success);
+        record(event);
+    }
+
+    public synchronized void record(final HubScanEvent event) {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8)) {
+            writer.write(gson.toJson(event));
+            writer.write('\n');
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Could not write the Hub event " + event.getType() + " " + event.getName() + " to " + file, e);
+        }
+    }
+
+    /**
+     * @return the events of the build, none if the Hub steps have not run. Lines that are not events, like the last line of a build that was killed while writing it, are skipped.
+     */
+    public static List<HubScanEvent> read(final File buildDirectory) throws IOException {
+        final File file = getFile(buildDirectory);
+        final List<HubScanEvent> events = new ArrayList<>();
+        if (!file.isFile()) {
+            return events;
+        }
+        final Gson gson = new Gson();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (StringUtils.isBlank(line)) {
+                    continue;
+                }
+                try {
+                    final HubScanEvent event = gson.fromJson(line, HubScanEvent.class);
+                    if (event != null) {
+                        events.add(event);
+                    }
+                } catch (final JsonParseException e) {
+                    LOGGER.log(Level.FINE, "Skipping a line of " + file + " that is not a Hub event", e);
+                }
+            }
+        }
+        return events;
+    }
+
+}
@@ -0,0 +1,260 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.report;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+/**
+ * Append only file in the job directory with one line of risk and policy counts per build, so that trends can be shown without loading the build records. The lines already read are kept in memory and only the lines
+ * appended since are read on the next request.
+ */
+public class HubTrendIndex {
+
+    public static final String FILE_NAME = "blackduck-hub-trend.csv";
+
+    // only the jobs whose trend was read or written, an entry is removed when its job is deleted or moved
+    private final static ConcurrentMap<String, HubTrendIndex> indexes = new ConcurrentHashMap<>();
+
+    private final File file;
+
+    // keyed by build number so that a build recorded twice only shows up once
+    private final TreeMap<Integer, HubTrendEntry> entries = new TreeMap<>();
+
+    private long readOffset;
+
+    private HubTrendIndex(final File file) {
+        this.file = file;
+    }
+
+    public static HubTrendIndex getIndex(final File jobDirectory) {
+        final File file = new File(jobDirectory, FILE_NAME);
+        final String key = file.getAbsolutePath();
+        HubTrendIndex index = indexes.get(key);
+        if (index == null) {
+            index = new HubTrendIndex(file);
+            final HubTrendIndex existing = indexes.putIfAbsent(key, index);
+            if (existing != null) {
+                index = existing;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @return true if the job has a trend index, checked without keeping an index in memory for it
+     */
+    public static boolean exists(final File jobDirectory) {
+        return new File(jobDirectory, FILE_NAME).isFile();
+    }
+
+    public static void removeIndex(final File jobDirectory) {
+        indexes.remove(new File(jobDirectory, FILE_NAME).getAbsolutePath());
+    }
+
+    /**
+     * Removes the indexes of the jobs whose directory is gone, like the old directory of a job that was renamed or moved.
+     */
+    public static void removeMissingIndexes() {
+        for (final Iterator<HubTrendIndex> iterator = indexes.values().iterator(); iterator.hasNext();) {
+            if (!iterator.next().file.getParentFile().isDirectory()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void append(final HubTrendEntry entry) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8)) {
+            writer.write(entry.toLine());
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * @return the entries of the index, ordered by build number
+     */
+    public synchronized List<HubTrendEntry> getEntries() throws IOException {
+        if (!file.isFile()) {
+            entries.clear();
+            readOffset = 0;
+            return Collections.emptyList();
+        }
+        if (file.length() < readOffset) {
+            // the file was replaced, read it again
+            entries.clear();
+            readOffset = 0;
+        }
+        if (file.length() > readOffset) {
+            try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+                final byte[] appended = new byte[(int) (input.length() - readOffset)];
+                input.seek(readOffset);
+                input.readFully(appended);
+                // only consume complete lines, a build may be appending right now
+                final int lastLineEnd = lastIndexOf(appended, (byte) '\n');
+                final String lines = new String(appended, 0, lastLineEnd + 1, StandardCharsets.UTF_8);
+                for (final String line : StringUtils.split(lines, '\n')) {
+                    final HubTrendEntry entry = HubTrendEntry.fromLine(line);
+                    if (entry != null) {
+                        entries.put(entry.getBuildNumber(), entry);
+                    }
+                }
+                readOffset += lastLineEnd + 1;
+            }
+        }
+        return new ArrayList<>(entries.values());
+    }
+
+    private int lastIndexOf(final byte[] bytes, final byte value) {
+        for (int i = bytes.length - 1; i >= 0; i--) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static class HubTrendEntry {
+        private final int buildNumber;
+
+        private final long timestamp;
+
+        // security, license and operational risk, each high, medium and low
+        private final int[] riskCounts;
+
+        private final int inViolation;
+
+        private final int overridden;
+
+        private final int notInViolation;
+
+        private final long scanDuration;
+
+        public HubTrendEntry(final int buildNumber, final long timestamp, final int[] riskCounts, final int inViolation, final int overridden, final int notInViolation, final long scanDuration) {
+            this.buildNumber = buildNumber;
+            this.timestamp = timestamp;
+            this.riskCounts = riskCounts;
+            this.inViolation = inViolation;
+            this.overridden = overridden;
+            this.notInViolation = notInViolation;
+            this.scanDuration = scanDuration;
+        }
+
+        private String toLine() {
+            final StringBuilder line = new StringBuilder();
+            line.append(buildNumber).append(',').append(timestamp);
+            for (final int riskCount : riskCounts) {
+                line.append(',').append(riskCount);
+            }
+            line.append(',').append(inViolation).append(',').append(overridden).append(',').append(notInViolation).append(',').append(scanDuration);
+            return line.toString();
+        }
+
+        private static HubTrendEntry fromLine(final String line) {
+            final String[] values = StringUtils.split(line.trim(), ',');
+            if (values.length != 15) {
+                return null;
+            }
+            final int[] riskCounts = new int[9];
+            for (int i = 0; i < riskCounts.length; i++) {
+                riskCounts[i] = NumberUtils.toInt(values[i + 2], -1);
+            }
+            return new HubTrendEntry(NumberUtils.toInt(values[0]), NumberUtils.toLong(values[1]), riskCounts, NumberUtils.toInt(values[11], -1), NumberUtils.toInt(values[12], -1), NumberUtils.toInt(values[13], -1),
+                    NumberUtils.toLong(values[14], -1));
+        }
+
+        public int getBuildNumber() {
+            return buildNumber;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public int getSecurityRiskHighCount() {
+            return riskCounts[0];
+        }
+
+        public int getSecurityRiskMediumCount() {
+            return riskCounts[1];
+        }
+
+        public int getSecurityRiskLowCount() {
+            return riskCounts[2];
+        }
+
+        public int getLicenseRiskHighCount() {
+            return riskCounts[3];
+        }
+
+        public int getLicenseRiskMediumCount() {
+            return riskCounts[4];
+        }
+
+        public int getLicenseRiskLowCount() {
+            return riskCounts[5];
+        }
+
+        public int getOperationalRiskHighCount() {
+            return riskCounts[6];
+        }
+
+        public int getOperationalRiskMediumCount() {
+            return riskCounts[7];
+        }
+
+        public int getOperationalRiskLowCount() {
+            return riskCounts[8];
+        }
+
+        public int getInViolation() {
+            return inViolation;
+        }
+
+        public int getOverridden() {
+            return overridden;
+        }
+
+        public int getNotInViolation() {
+            return notInViolation;
+        }
+
+        public long getScanDuration() {
+            return scanDuration;
+        }
+    }
+
+}
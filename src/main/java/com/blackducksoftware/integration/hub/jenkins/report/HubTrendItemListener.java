@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.report;
+
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.listeners.ItemListener;
+
+/**
+ * Drops the trend index kept in memory for a job once the job is deleted or moved, so the indexes of jobs that no longer exist do not pile up.
+ */
+@Extension
+public class HubTrendItemListener extends ItemListener {
+
+    @Override
+    public void onDeleted(final Item item) {
+        if (item instanceof Job) {
+            HubTrendIndex.removeIndex(((Job<?, ?>) item).getRootDir());
+        }
+        // a deleted folder takes its jobs with it
+        HubTrendIndex.removeMissingIndexes();
+    }
+
+    @Override
+    public void onLocationChanged(final Item item, final String oldFullName, final String newFullName) {
+        HubTrendIndex.removeMissingIndexes();
+    }
+
+}
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.report;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.blackducksoftware.integration.hub.jenkins.action.HubReportV2Action;
+import com.blackducksoftware.integration.hub.jenkins.action.HubScanFinishedAction;
+import com.blackducksoftware.integration.hub.jenkins.action.HubVariableContributor;
+import com.blackducksoftware.integration.hub.jenkins.report.HubTrendIndex.HubTrendEntry;
+
+import hudson.Extension;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+
+/**
+ * Adds a line to the trend index of the job when a build that ran the Hub scan completes.
+ */
+@Extension
+public class HubTrendRunListener extends RunListener<Run<?, ?>> {
+
+    private static final Logger LOGGER = Logger.getLogger(HubTrendRunListener.class.getName());
+
+    private static final String[] RISK_COUNTS = new String[] { "vulnerabilityRiskHighCount", "vulnerabilityRiskMediumCount", "vulnerabilityRiskLowCount", "licenseRiskHighCount", "licenseRiskMediumCount",
+            "licenseRiskLowCount", "operationalRiskHighCount", "operationalRiskMediumCount", "operationalRiskLowCount" };
+
+    @Override
+    public void onCompleted(final Run<?, ?> run, final TaskListener listener) {
+        final HubScanFinishedAction scanFinishedAction = run.getAction(HubScanFinishedAction.class);
+        if (scanFinishedAction == null) {
+            return;
+        }
+        try {
+            HubTrendIndex.getIndex(run.getParent().getRootDir()).append(createEntry(run, scanFinishedAction));
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Could not add " + run.getFullDisplayName() + " to the Hub trend", e);
+        }
+    }
+
+    public static HubTrendEntry createEntry(final Run<?, ?> run, final HubScanFinishedAction scanFinishedAction) {
+        final int[] riskCounts = new int[RISK_COUNTS.length];
+        Arrays.fill(riskCounts, -1);
+        final HubReportV2Action reportAction = run.getAction(HubReportV2Action.class);
+        if (reportAction != null) {
+            final int[] summary = reportAction.getSummary();
+            final List<String> summaryCounts = Arrays.asList(HubReportFile.SUMMARY_COUNTS);
+            for (int i = 0; i < RISK_COUNTS.length; i++) {
+                riskCounts[i] = Math.max(-1, summary[summaryCounts.indexOf(RISK_COUNTS[i])]);
+            }
+        }
+
+        int inViolation = -1;
+        int overridden = -1;
+        int notInViolation = -1;
+        final HubVariableContributor variableContributor = run.getAction(HubVariableContributor.class);
+        if (variableContributor != null) {
+            inViolation = getCount(variableContributor.getBomEntriesInViolation());
+            overridden = getCount(variableContributor.getViolationsOverriden());
+            notInViolation = getCount(variableContributor.getBomEntriesNotInViolation());
+        }
+        return new HubTrendEntry(run.getNumber(), run.getTimeInMillis(), riskCounts, inViolation, overridden, notInViolation, scanFinishedAction.getScanDuration());
+    }
+
+    private static int getCount(final Integer count) {
+        if (count == null) {
+            return -1;
+        }
+        return count;
+    }
+
+}
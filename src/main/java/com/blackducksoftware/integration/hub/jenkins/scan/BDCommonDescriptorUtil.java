@@ -30,21 +30,25 @@ import javax.servlet.ServletException;
 
 import org.apache.commons.lang.StringUtils;
 
+import com.blackducksoftware.integration.exception.EncryptionException;
+import com.blackducksoftware.integration.exception.IntegrationException;
 import com.blackducksoftware.integration.hub.api.item.HubViewFilter;
 import com.blackducksoftware.integration.hub.api.item.MetaService;
 import com.blackducksoftware.integration.hub.api.project.ProjectRequestService;
 import com.blackducksoftware.integration.hub.api.project.version.ProjectVersionRequestService;
 import com.blackducksoftware.integration.hub.exception.DoesNotExistException;
 import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.jenkins.HubConnectionCache;
 import com.blackducksoftware.integration.hub.jenkins.HubServerInfo;
 import com.blackducksoftware.integration.hub.jenkins.Messages;
 import com.blackducksoftware.integration.hub.jenkins.PostBuildScanDescriptor;
 import com.blackducksoftware.integration.hub.jenkins.failure.FailureConditionBuildStateEnum;
-import com.blackducksoftware.integration.hub.jenkins.helper.BuildHelper;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRetryPolicy;
 import com.blackducksoftware.integration.hub.model.enumeration.ProjectVersionDistributionEnum;
 import com.blackducksoftware.integration.hub.model.enumeration.ProjectVersionPhaseEnum;
 import com.blackducksoftware.integration.hub.model.view.ProjectVersionView;
 import com.blackducksoftware.integration.hub.model.view.ProjectView;
+import com.blackducksoftware.integration.hub.rest.RestConnection;
 import com.blackducksoftware.integration.hub.scan.HubScanConfigFieldEnum;
 import com.blackducksoftware.integration.hub.service.HubServicesFactory;
 import com.blackducksoftware.integration.hub.validator.HubScanConfigValidator;
@@ -161,11 +165,17 @@ public class BDCommonDescriptorUtil {
                     return potentialMatches;
                 }
 
-                final HubServicesFactory service = BuildHelper.getHubServicesFactory(null, serverInfo.getServerUrl(), serverInfo.getUsername(), serverInfo.getPassword(), serverInfo.getTimeout(), serverInfo.shouldTrustSSLCerts());
+                final HubRetryPolicy retryPolicy = createRetryPolicy();
+                final HubServicesFactory service = getHubServices(serverInfo, retryPolicy);
                 final MetaService metaService = service.createMetaService();
                 final ProjectRequestService projectService = service.createProjectRequestService();
 
-                final List<ProjectView> suggestions = projectService.getAllProjectMatches(hubProjectName);
+                final List<ProjectView> suggestions = retryPolicy.execute("get project matches", new HubRetryPolicy.HubRequest<List<ProjectView>>() {
+                    @Override
+                    public List<ProjectView> execute() throws Exception {
+                        return projectService.getAllProjectMatches(hubProjectName);
+                    }
+                });
 
                 final HubViewFilter<ProjectView> filter = new HubViewFilter<>();
                 final List<ProjectView> accessibleSuggestions = filter.getAccessibleItems(metaService, suggestions);
@@ -203,10 +213,16 @@ public class BDCommonDescriptorUtil {
                     return FormValidation.warning(Messages.HubBuildScan_getProjectNameContainsVariable());
                 }
 
-                final HubServicesFactory service = BuildHelper.getHubServicesFactory(null, serverInfo.getServerUrl(), serverInfo.getUsername(), serverInfo.getPassword(), serverInfo.getTimeout(), serverInfo.shouldTrustSSLCerts());
+                final HubRetryPolicy retryPolicy = createRetryPolicy();
+                final HubServicesFactory service = getHubServices(serverInfo, retryPolicy);
                 final MetaService metaService = service.createMetaService();
                 final ProjectRequestService projectService = service.createProjectRequestService();
-                final ProjectView project = projectService.getProjectByName(hubProjectName);
+                final ProjectView project = retryPolicy.execute("get project", new HubRetryPolicy.HubRequest<ProjectView>() {
+                    @Override
+                    public ProjectView execute() throws Exception {
+                        return projectService.getProjectByName(hubProjectName);
+                    }
+                });
                 final List<ProjectView> projectList = new ArrayList<>();
                 projectList.add(project);
                 final HubViewFilter<ProjectView> filter = new HubViewFilter<>();
@@ -274,17 +290,29 @@ public class BDCommonDescriptorUtil {
                     return FormValidation.ok();
                 }
 
-                final HubServicesFactory service = BuildHelper.getHubServicesFactory(null, serverInfo.getServerUrl(), serverInfo.getUsername(), serverInfo.getPassword(), serverInfo.getTimeout(), serverInfo.shouldTrustSSLCerts());
+                final HubRetryPolicy retryPolicy = createRetryPolicy();
+                final HubServicesFactory service = getHubServices(serverInfo, retryPolicy);
                 final ProjectRequestService projectService = service.createProjectRequestService();
-                ProjectView project = null;
+                ProjectView found = null;
                 try {
-                    project = projectService.getProjectByName(hubProjectName);
+                    found = retryPolicy.execute("get project", new HubRetryPolicy.HubRequest<ProjectView>() {
+                        @Override
+                        public ProjectView execute() throws Exception {
+                            return projectService.getProjectByName(hubProjectName);
+                        }
+                    });
                 } catch (final Exception e) {
                     // This error will already show up for the project name field
                     return FormValidation.ok();
                 }
+                final ProjectView project = found;
                 final ProjectVersionRequestService projectVersionService = service.createProjectVersionRequestService();
-                final List<ProjectVersionView> releases = projectVersionService.getAllProjectVersions(project);
+                final List<ProjectVersionView> releases = retryPolicy.execute("get project versions", new HubRetryPolicy.HubRequest<List<ProjectVersionView>>() {
+                    @Override
+                    public List<ProjectVersionView> execute() throws Exception {
+                        return projectVersionService.getAllProjectVersions(project);
+                    }
+                });
 
                 final StringBuilder projectVersions = new StringBuilder();
                 for (final ProjectVersionView release : releases) {
@@ -389,4 +417,22 @@ public class BDCommonDescriptorUtil {
         }
         return boxModel;
     }
+
+    /**
+     * The form checks answer while the user types, so they do not wait for retries. A request the Hub rejects as unauthorized still logs in again once.
+     */
+    private static HubRetryPolicy createRetryPolicy() {
+        return new HubRetryPolicy(null, 0);
+    }
+
+    /**
+     * @return the services of the shared connection to the Hub, logged in like the connection of the scan
+     */
+    private static HubServicesFactory getHubServices(final HubServerInfo serverInfo, final HubRetryPolicy retryPolicy) throws IOException, EncryptionException, IntegrationException, InterruptedException {
+        final RestConnection restConnection = HubConnectionCache.getInstance().getConnection(null, serverInfo.getServerUrl(), serverInfo.getUsername(), serverInfo.getPassword(), serverInfo.getTimeout(),
+                serverInfo.shouldTrustSSLCerts());
+        HubConnectionCache.getInstance().connect(restConnection, retryPolicy);
+        return new HubServicesFactory(restConnection);
+    }
+
 }
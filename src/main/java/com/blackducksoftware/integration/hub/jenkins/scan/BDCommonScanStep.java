@@ -21,40 +21,64 @@
  *******************************************************************************/
 package com.blackducksoftware.integration.hub.jenkins.scan;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 
 import com.blackducksoftware.integration.exception.IntegrationException;
-import com.blackducksoftware.integration.hub.api.item.MetaService;
-import com.blackducksoftware.integration.hub.api.project.ProjectRequestService;
 import com.blackducksoftware.integration.hub.builder.HubServerConfigBuilder;
 import com.blackducksoftware.integration.hub.dataservice.report.RiskReportDataService;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
 import com.blackducksoftware.integration.hub.global.HubServerConfig;
+import com.blackducksoftware.integration.hub.jenkins.HubCapabilityCache;
+import com.blackducksoftware.integration.hub.jenkins.HubCapabilityCache.HubCapabilities;
+import com.blackducksoftware.integration.hub.jenkins.HubConnectionCache;
 import com.blackducksoftware.integration.hub.jenkins.HubJenkinsLogger;
 import com.blackducksoftware.integration.hub.jenkins.HubServerInfo;
 import com.blackducksoftware.integration.hub.jenkins.HubServerInfoSingleton;
+import com.blackducksoftware.integration.hub.jenkins.HubSystemLogger;
 import com.blackducksoftware.integration.hub.jenkins.Messages;
 import com.blackducksoftware.integration.hub.jenkins.ScanJobs;
 import com.blackducksoftware.integration.hub.jenkins.action.BomUpToDateAction;
 import com.blackducksoftware.integration.hub.jenkins.action.HubReportV2Action;
+import com.blackducksoftware.integration.hub.jenkins.action.HubScanEventsAction;
 import com.blackducksoftware.integration.hub.jenkins.action.HubScanFinishedAction;
+import com.blackducksoftware.integration.hub.jenkins.action.HubScanLogAction;
 import com.blackducksoftware.integration.hub.jenkins.cli.DummyToolInstallation;
 import com.blackducksoftware.integration.hub.jenkins.cli.DummyToolInstaller;
+import com.blackducksoftware.integration.hub.jenkins.cli.HubCLIInstallationManager;
 import com.blackducksoftware.integration.hub.jenkins.exceptions.BDJenkinsHubPluginException;
 import com.blackducksoftware.integration.hub.jenkins.exceptions.HubConfigurationException;
 import com.blackducksoftware.integration.hub.jenkins.helper.BuildHelper;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRequestExecutor;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRetryPolicy;
 import com.blackducksoftware.integration.hub.jenkins.helper.JenkinsProxyHelper;
 import com.blackducksoftware.integration.hub.jenkins.helper.PluginHelper;
+import com.blackducksoftware.integration.hub.jenkins.notification.HubNotificationFeed;
+import com.blackducksoftware.integration.hub.jenkins.notification.HubScanStatusSource;
+import com.blackducksoftware.integration.hub.jenkins.notification.HubServicesNotificationSource;
+import com.blackducksoftware.integration.hub.jenkins.notification.HubServicesScanStatusSource;
 import com.blackducksoftware.integration.hub.jenkins.remote.DetermineTargetPath;
 import com.blackducksoftware.integration.hub.jenkins.remote.RemoteScan;
+import com.blackducksoftware.integration.hub.jenkins.remote.RemoteScanResult;
+import com.blackducksoftware.integration.hub.jenkins.report.HubReportGenerator;
+import com.blackducksoftware.integration.hub.jenkins.report.HubScanEvent;
+import com.blackducksoftware.integration.hub.jenkins.report.HubScanEventLog;
 import com.blackducksoftware.integration.hub.model.enumeration.ProjectVersionDistributionEnum;
 import com.blackducksoftware.integration.hub.model.enumeration.ProjectVersionPhaseEnum;
 import com.blackducksoftware.integration.hub.model.view.ProjectVersionView;
 import com.blackducksoftware.integration.hub.model.view.ProjectView;
+import com.blackducksoftware.integration.hub.model.view.VersionBomPolicyStatusView;
 import com.blackducksoftware.integration.hub.report.api.ReportData;
 import com.blackducksoftware.integration.hub.rest.RestConnection;
 import com.blackducksoftware.integration.hub.service.HubServicesFactory;
@@ -73,6 +97,8 @@ import jenkins.model.Jenkins;
 
 public class BDCommonScanStep {
 
+    private static final Logger LOGGER = Logger.getLogger(BDCommonScanStep.class.getName());
+
     private final ScanJobs[] scans;
 
     private final String hubProjectName;
@@ -226,6 +252,10 @@ public class BDCommonScanStep {
     public void runScan(final Run run, final Node builtOn, final EnvVars envVars, final FilePath workspace, final HubJenkinsLogger logger, final Launcher launcher, final TaskListener listener, final String buildDisplayName,
             final String buildIdentifier) throws InterruptedException, IOException {
 
+        final HubScanEventLog events = new HubScanEventLog(run.getRootDir(), "scan");
+        final long scanStart = events.phaseStart("scan");
+        int hubRetries = 0;
+        String failure = null;
         final CIEnvironmentVariables variables = new CIEnvironmentVariables();
         variables.putAll(envVars);
         logger.setLogLevel(variables);
@@ -245,6 +275,9 @@ public class BDCommonScanStep {
                     final String toolsDirectory = dummyInstaller.getToolDir(new DummyToolInstallation(), builtOn).getRemote();
                     final String workingDirectory = workspace.getRemote();
                     final List<String> scanTargetPaths = getScanTargets(logger, builtOn, envVars, workingDirectory);
+                    for (final String scanTargetPath : scanTargetPaths) {
+                        events.record(events.createEvent(HubScanEvent.TARGET, scanTargetPath));
+                    }
 
                     String projectName = null;
                     String projectVersion = null;
@@ -264,17 +297,12 @@ public class BDCommonScanStep {
                     hubServerConfigBuilder.setTimeout(getHubServerInfo().getTimeout());
                     hubServerConfigBuilder.setAlwaysTrustServerCertificate(getHubServerInfo().shouldTrustSSLCerts());
 
-                    final Jenkins jenkins = Jenkins.getInstance();
-                    if (jenkins != null) {
-                        final ProxyConfiguration proxyConfig = jenkins.proxy;
-                        if (proxyConfig != null) {
-                            if (JenkinsProxyHelper.shouldUseProxy(getHubServerInfo().getServerUrl(), proxyConfig.noProxyHost)) {
-                                hubServerConfigBuilder.setProxyHost(proxyConfig.name);
-                                hubServerConfigBuilder.setProxyPort(proxyConfig.port);
-                                hubServerConfigBuilder.setProxyUsername(proxyConfig.getUserName());
-                                hubServerConfigBuilder.setProxyPassword(proxyConfig.getPassword());
-                            }
-                        }
+                    final ProxyConfiguration proxyConfig = JenkinsProxyHelper.getProxyConfiguration(getHubServerInfo().getServerUrl());
+                    if (proxyConfig != null) {
+                        hubServerConfigBuilder.setProxyHost(proxyConfig.name);
+                        hubServerConfigBuilder.setProxyPort(proxyConfig.port);
+                        hubServerConfigBuilder.setProxyUsername(proxyConfig.getUserName());
+                        hubServerConfigBuilder.setProxyPassword(proxyConfig.getPassword());
                     }
 
                     final HubServerConfig hubServerConfig = hubServerConfigBuilder.build();
@@ -283,28 +311,56 @@ public class BDCommonScanStep {
                     final String thirdPartyVersion = Jenkins.getVersion().toString();
                     final String pluginVersion = PluginHelper.getPluginVersion();
 
+                    // the controller waits for the code location of the scan instead of the scan itself, woken up early by the notifications of the Hub
+                    final boolean waitWithNotifications = isShouldWaitForBomNotification() && StringUtils.isNotBlank(projectName) && StringUtils.isNotBlank(projectVersion)
+                            && StringUtils.isNotBlank(codeLocationName);
                     final RemoteScan scan = new RemoteScan(logger, codeLocationName, projectName, projectVersion, getPhase(), getDistribution(), getScanMemoryInteger(), isProjectLevelAdjustments(), workingDirectory, scanTargetPaths,
                             isDryRun(), isCleanupOnSuccessfulScan(), toolsDirectory, thirdPartyVersion, pluginVersion, hubServerConfig, getHubServerInfo().isPerformWorkspaceCheck(), getExcludePatterns(), envVars, unmapPreviousCodeLocations,
-                            deletePreviousCodeLocations, isShouldWaitForScansFinished());
+                            deletePreviousCodeLocations, isShouldWaitForScansFinished() && !waitWithNotifications);
+
+                    final HubRetryPolicy retryPolicy = new HubRetryPolicy(logger, getHubServerInfo().getRetryCount());
+                    retryPolicy.setEventLog(events);
+
+                    // only the installation of the CLI from Jenkins needs the version, the scan finds it out itself otherwise. A dry run does not log in to the Hub for it.
+                    final boolean cliFromController = getHubServerInfo().isCliFromController() && !isDryRun();
+                    final String hubVersion = cliFromController ? getHubVersion(logger, retryPolicy) : getCachedHubVersion();
+                    scan.setHubVersion(hubVersion);
+                    if (cliFromController && hubVersion != null) {
+                        installCLI(logger, events, retryPolicy, builtOn, toolsDirectory, hubVersion);
+                    }
+
+                    FilePath scanLog = null;
+                    if (getHubServerInfo().getScanLogLines() > 0) {
+                        scanLog = new FilePath(builtOn.getChannel(), toolsDirectory).child("scanLogs").child(UUID.randomUUID().toString() + ".log.gz");
+                        scan.setScanLog(scanLog.getRemote(), getHubServerInfo().getScanLogLines());
+                    }
 
-                    final String projectVersionViewJson = builtOn.getChannel().call(scan);
+                    final long remoteScanStart = events.phaseStart("remoteScan");
+                    final RemoteScanResult scanResult;
+                    long scanLogBytes = 0;
+                    try {
+                        scanResult = runRemoteScan(builtOn, scan);
+                    } finally {
+                        if (scanLog != null) {
+                            scanLogBytes = archiveScanLog(logger, run, scanLog);
+                        }
+                    }
+                    final HubScanEvent remoteScanEvent = events.createPhaseEnd("remoteScan", remoteScanStart);
+                    if (scanLog != null) {
+                        remoteScanEvent.setBytes(scanLogBytes);
+                    }
+                    events.record(remoteScanEvent);
 
                     bomUpToDateAction.setDryRun(isDryRun());
 
                     Long bomWait = 300000l;
                     if (!isDryRun()) {
 
-                        final RestConnection restConnection = BuildHelper.getRestConnection(logger, hubServerConfig);
-                        restConnection.connect();
-
-                        final HubServicesFactory services = new HubServicesFactory(restConnection);
-                        final MetaService metaService = services.createMetaService();
+                        final HubServicesFactory services = getHubServices(logger, retryPolicy);
 
-                        ProjectVersionView version = null;
-                        ProjectView project = null;
-                        if (StringUtils.isNotBlank(projectName) && StringUtils.isNotBlank(projectVersion) && StringUtils.isNotBlank(projectVersionViewJson)) {
-                            version = services.createHubResponseService().getItemAs(projectVersionViewJson, ProjectVersionView.class);
-                            project = getProjectFromVersion(services.createProjectRequestService(), metaService, version);
+                        RemoteScanResult mappedVersion = null;
+                        if (StringUtils.isNotBlank(projectName) && StringUtils.isNotBlank(projectVersion) && scanResult != null) {
+                            mappedVersion = scanResult;
                         }
 
                         try {
@@ -317,48 +373,147 @@ public class BDCommonScanStep {
                         logger.alwaysLog("--> Bom wait time : " + bomWait / 60 / 1000 + "m");
                         logger.alwaysLog("--> Generate Report : " + isShouldGenerateHubReport());
 
+                        if (mappedVersion != null && waitWithNotifications) {
+                            // the scan did not wait for its code location, the Hub notifications wake the build up to look at it again
+                            logger.alwaysLog("--> Waiting for the Hub to process the scans");
+                            final long notificationWaitStart = events.phaseStart("bomNotification");
+                            final HubNotificationFeed notificationFeed = HubNotificationFeed.getFeed(getHubServerInfo().getServerUrl());
+                            final HubScanStatusSource scanStatus = new HubServicesScanStatusSource(services, codeLocationName, scanTargetPaths.size());
+                            final boolean processed = notificationFeed.awaitScan(new HubServicesNotificationSource(services), new HubScanStatusSource() {
+                                @Override
+                                public boolean isScanFinished() throws IntegrationException {
+                                    try {
+                                        return retryPolicy.execute("get scan status", new HubRetryPolicy.HubRequest<Boolean>() {
+                                            @Override
+                                            public Boolean execute() throws Exception {
+                                                return scanStatus.isScanFinished();
+                                            }
+                                        });
+                                    } catch (final InterruptedException e) {
+                                        Thread.currentThread().interrupt();
+                                        throw new HubIntegrationException("Interrupted while reading the scan status", e);
+                                    }
+                                }
+                            }, mappedVersion.getProjectVersionUrl(), remoteScanStart, bomWait);
+                            final HubScanEvent notificationEvent = events.createPhaseEnd("bomNotification", notificationWaitStart);
+                            notificationEvent.setSuccess(processed);
+                            events.record(notificationEvent);
+                            if (!processed) {
+                                throw new HubIntegrationException("The Hub did not finish processing the scans of " + codeLocationName + " within the BOM wait time.");
+                            }
+                            logger.alwaysLog("--> The Hub processed the scans after " + notificationEvent.getDuration() + "ms");
+                        }
+
+                        String policyStatusLink = null;
+                        if (mappedVersion != null) {
+                            policyStatusLink = mappedVersion.getPolicyStatusUrl();
+                            bomUpToDateAction.setPolicyStatusUrl(policyStatusLink);
+                        }
+
+                        // The report and the policy status do not depend on each other, so they are requested in parallel
+                        Future<VersionBomPolicyStatusView> policyStatusFuture = null;
+                        if (policyStatusLink != null && isFailureConditionsConfigured()) {
+                            // Fetch the policy status while we are connected so the failure conditions do not need their own connection
+                            final String policyStatusUrl = policyStatusLink;
+                            policyStatusFuture = HubRequestExecutor.submit(logger, "Policy status", new Callable<VersionBomPolicyStatusView>() {
+                                @Override
+                                public VersionBomPolicyStatusView call() throws Exception {
+                                    return retryPolicy.execute("get policy status", new HubRetryPolicy.HubRequest<VersionBomPolicyStatusView>() {
+                                        @Override
+                                        public VersionBomPolicyStatusView execute() throws Exception {
+                                            return services.createHubResponseService().getItem(policyStatusUrl, VersionBomPolicyStatusView.class);
+                                        }
+                                    });
+                                }
+                            });
+                        }
+
                         if (run.getResult().equals(Result.SUCCESS) && isShouldGenerateHubReport()) {
-                            if (project != null && version != null) {
+                            if (mappedVersion != null) {
                                 final HubReportV2Action reportAction = new HubReportV2Action(run);
 
                                 final RiskReportDataService reportService = services.createRiskReportDataService(bomWait);
 
                                 logger.debug("Generating the Risk Report.");
-                                final ReportData reportData = reportService.getRiskReportData(project, version);
-                                reportAction.setReportData(reportData);
-
-                                run.addAction(reportAction);
-                                bomUpToDateAction.setHasBomBeenUdpated(true);
+                                final String projectUrl = mappedVersion.getProjectUrl();
+                                final String projectVersionUrl = mappedVersion.getProjectVersionUrl();
+                                final boolean backgroundReport = getHubServerInfo().isBackgroundReportGeneration() && !isFailureConditionsConfigured();
+                                // a report generated after the build logs to the Jenkins log and has its own retries, the build log and the retries of the build are done with by then
+                                final HubRetryPolicy reportRetryPolicy = backgroundReport ? new HubRetryPolicy(new HubSystemLogger(LOGGER), getHubServerInfo().getRetryCount()) : retryPolicy;
+                                final Callable<ReportData> reportRequest = new Callable<ReportData>() {
+                                    @Override
+                                    public ReportData call() throws Exception {
+                                        // only the report needs the full views of the project and the version
+                                        final ProjectView reportProject = reportRetryPolicy.execute("get project", new HubRetryPolicy.HubRequest<ProjectView>() {
+                                            @Override
+                                            public ProjectView execute() throws Exception {
+                                                return services.createHubResponseService().getItem(projectUrl, ProjectView.class);
+                                            }
+                                        });
+                                        final ProjectVersionView reportVersion = reportRetryPolicy.execute("get project version", new HubRetryPolicy.HubRequest<ProjectVersionView>() {
+                                            @Override
+                                            public ProjectVersionView execute() throws Exception {
+                                                return services.createHubResponseService().getItem(projectVersionUrl, ProjectVersionView.class);
+                                            }
+                                        });
+                                        // the report makes many requests, retrying all of them for one failure would only add to the load of the Hub
+                                        return reportService.getRiskReportData(reportProject, reportVersion);
+                                    }
+                                };
+                                if (backgroundReport) {
+                                    // nothing in the build depends on the report, so the build does not wait for it
+                                    logger.alwaysLog("--> The Risk Report will be attached to the build once the Hub has generated it");
+                                    // the action is part of the build before the generation saves it
+                                    run.addAction(reportAction);
+                                    HubReportGenerator.submit(run, reportAction, reportRequest, events);
+                                    bomUpToDateAction.setHasBomBeenUdpated(false);
+                                    bomUpToDateAction.setMaxWaitTime(bomWait);
+                                } else {
+                                    final long reportStart = events.phaseStart("riskReport");
+                                    // the report waits for the BOM, so it runs on the thread of the build while the shared pool only fetches the policy status
+                                    final ReportData reportData = HubRequestExecutor.call(logger, "Risk report", reportRequest);
+                                    reportAction.setReportData(reportData);
+                                    final HubScanEvent reportEvent = events.createPhaseEnd("riskReport", reportStart);
+                                    reportEvent.setBytes(reportAction.getReportFile().length());
+                                    events.record(reportEvent);
+
+                                    run.addAction(reportAction);
+                                    bomUpToDateAction.setHasBomBeenUdpated(true);
+                                }
                             } else {
                                 logger.error("Could not find the Hub Project or Version for this scan. Check that the status directory exists.");
                                 run.setResult(Result.UNSTABLE);
+                                recordResult(events, run, scanStart, retryPolicy.getRetryCount(), "Could not find the Hub Project or Version for this scan.");
+                                HubScanEventsAction.attach(run);
                                 return;
                             }
                         } else {
                             bomUpToDateAction.setHasBomBeenUdpated(false);
                             bomUpToDateAction.setMaxWaitTime(bomWait);
                         }
-                        if (version != null) {
-                            String policyStatusLink = null;
+                        if (policyStatusFuture != null) {
                             try {
-                                // not all HUB users have the policy module enabled
-                                // so there will be no policy status link
-                                policyStatusLink = metaService.getFirstLink(version, MetaService.POLICY_STATUS_LINK);
-                            } catch (final Exception e) {
-                                logger.debug("Could not get the policy status link, the Hub policy module is not enabled");
+                                bomUpToDateAction.setPolicyStatus(HubRequestExecutor.get(policyStatusFuture));
+                            } catch (final IntegrationException e) {
+                                logger.debug("Could not get the policy status, the failure conditions will try again : " + e.getMessage());
                             }
-                            bomUpToDateAction.setPolicyStatusUrl(policyStatusLink);
                         }
 
                     }
+                    hubRetries = retryPolicy.getRetryCount();
+                    if (hubRetries > 0) {
+                        logger.alwaysLog("--> Hub requests retried : " + hubRetries);
+                    }
 
                 }
             } catch (final BDJenkinsHubPluginException e) {
                 logger.error(e.getMessage(), e);
                 run.setResult(Result.UNSTABLE);
+                failure = e.getMessage();
             } catch (final IntegrationException e) {
                 logger.error(e.getMessage(), e);
                 run.setResult(Result.UNSTABLE);
+                failure = e.getMessage();
             } catch (final Exception e) {
                 String message;
                 if (e.getMessage() != null && e.getMessage().contains("Project could not be found")) {
@@ -380,23 +535,119 @@ public class BDCommonScanStep {
                 }
                 logger.error(message, e);
                 run.setResult(Result.UNSTABLE);
+                failure = message;
             }
         }
         logger.alwaysLog("Finished running Black Duck Scans.");
+        final long scanDuration = recordResult(events, run, scanStart, hubRetries, failure);
         run.addAction(bomUpToDateAction);
-        run.addAction(new HubScanFinishedAction());
+        run.addAction(new HubScanFinishedAction(scanDuration));
+        HubScanEventsAction.attach(run);
     }
 
-    private ProjectView getProjectFromVersion(final ProjectRequestService projectRequestService, final MetaService metaService, final ProjectVersionView version) throws IntegrationException {
-        final String projectURL = metaService.getFirstLink(version, MetaService.PROJECT_LINK);
-        final ProjectView projectVersion = projectRequestService.getItem(projectURL, ProjectView.class);
-        return projectVersion;
+    /**
+     * Runs the scan CLI on the node.
+     */
+    protected RemoteScanResult runRemoteScan(final Node builtOn, final RemoteScan scan) throws IOException, InterruptedException, IntegrationException {
+        return builtOn.getChannel().call(scan);
+    }
+
+    private HubServicesFactory getHubServices(final IntLogger logger, final HubRetryPolicy retryPolicy) throws IOException, IntegrationException, InterruptedException {
+        return new HubServicesFactory(getRestConnection(logger, retryPolicy));
+    }
+
+    /**
+     * @return the connection to the configured Hub server, logged in
+     */
+    private RestConnection getRestConnection(final IntLogger logger, final HubRetryPolicy retryPolicy) throws IOException, IntegrationException, InterruptedException {
+        final RestConnection restConnection = HubConnectionCache.getInstance().getConnection(logger, getHubServerInfo().getServerUrl(), getHubServerInfo().getUsername(), getHubServerInfo().getPassword(),
+                getHubServerInfo().getTimeout(), getHubServerInfo().shouldTrustSSLCerts());
+        HubConnectionCache.getInstance().connect(restConnection, retryPolicy);
+        return restConnection;
+    }
+
+    /**
+     * @return the version of the Hub the CLI is installed from, null if the Hub could not be asked. The scan then finds it out itself.
+     */
+    private String getHubVersion(final IntLogger logger, final HubRetryPolicy retryPolicy) throws InterruptedException {
+        try {
+            return HubCapabilityCache.getInstance().getCapabilities(getHubServerInfo().getServerUrl(), getHubServices(logger, retryPolicy), retryPolicy).getHubVersion();
+        } catch (final IOException | IntegrationException e) {
+            logger.warn("Could not get the version of the Hub, the scan will install the scan CLI from the Hub : " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return the version of the Hub if a step asked for it recently, null otherwise. The Hub is not asked.
+     */
+    private String getCachedHubVersion() {
+        final HubCapabilities capabilities = HubCapabilityCache.getInstance().getCachedCapabilities(getHubServerInfo().getServerUrl());
+        return capabilities == null ? null : capabilities.getHubVersion();
+    }
+
+    /**
+     * Installs the CLI of the Hub on the node from Jenkins. If that fails the scan installs the CLI from the Hub itself.
+     */
+    private void installCLI(final IntLogger logger, final HubScanEventLog events, final HubRetryPolicy retryPolicy, final Node builtOn, final String toolsDirectory, final String hubVersion)
+            throws InterruptedException {
+        final long installStart = events.phaseStart("cliInstallation");
+        boolean installed = false;
+        try {
+            installed = HubCLIInstallationManager.getInstance().install(logger, builtOn.getChannel(), toolsDirectory, getRestConnection(logger, retryPolicy), getHubServerInfo().getServerUrl(), hubVersion);
+        } catch (final IOException | IntegrationException e) {
+            logger.warn("Could not install the scan CLI from Jenkins, the scan will install it from the Hub : " + e.getMessage());
+        }
+        final HubScanEvent installEvent = events.createPhaseEnd("cliInstallation", installStart);
+        installEvent.setSuccess(installed);
+        events.record(installEvent);
+    }
+
+    /**
+     * Moves the scan log from the node to the build. The log of every scan of the build is added to the same file.
+     *
+     * @return the number of bytes this scan added to the log of the build
+     */
+    private long archiveScanLog(final IntLogger logger, final Run run, final FilePath scanLog) throws InterruptedException {
+        final File buildLog = HubScanLogAction.getFile(run);
+        final long previousLength = buildLog.length();
+        try {
+            if (!scanLog.exists()) {
+                return 0;
+            }
+            try (OutputStream output = new FileOutputStream(buildLog, true)) {
+                scanLog.copyTo(output);
+            }
+            scanLog.delete();
+            HubScanLogAction.attach(run);
+        } catch (final IOException e) {
+            logger.warn("Could not attach the scan log " + scanLog.getRemote() + " to the build : " + e.getMessage());
+        }
+        return Math.max(0, buildLog.length() - previousLength);
+    }
+
+    /**
+     * @return the duration of the scan step
+     */
+    private long recordResult(final HubScanEventLog events, final Run run, final long scanStart, final int hubRetries, final String failure) {
+        final HubScanEvent resultEvent = events.createEvent(HubScanEvent.RESULT, String.valueOf(run.getResult()));
+        resultEvent.setDuration(resultEvent.getTime() - scanStart);
+        resultEvent.setRetries(hubRetries);
+        resultEvent.setSuccess(failure == null);
+        resultEvent.setMessage(failure);
+        events.record(resultEvent);
+        events.phaseEnd("scan", scanStart);
+        return resultEvent.getDuration();
     }
 
     private boolean isShouldWaitForScansFinished() {
         return !isDryRun() && (isShouldGenerateHubReport() || isFailureConditionsConfigured());
     }
 
+    private boolean isShouldWaitForBomNotification() {
+        return isShouldWaitForScansFinished() && getHubServerInfo().isBomNotifications();
+    }
+
     public List<String> getScanTargets(final IntLogger logger, final Node builtOn, final EnvVars variables, final String workingDirectory) throws BDJenkinsHubPluginException, InterruptedException {
         final List<String> scanTargetPaths = new ArrayList<>();
         final ScanJobs[] scans = getScans();
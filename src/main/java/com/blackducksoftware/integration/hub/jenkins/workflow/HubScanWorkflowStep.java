@@ -311,6 +311,7 @@ public class HubScanWorkflowStep extends AbstractStepImpl {
         @Override
         protected Void run() {
             final HubJenkinsLogger logger = new HubJenkinsLogger(listener);
+            logger.setBufferSize(HubServerInfoSingleton.getInstance().getServerInfo().getLogBuffer());
             try {
                 final Node node = computer.getNode();
                 final BDCommonScanStep scanStep = new BDCommonScanStep(hubScanStep.getScans(), hubScanStep.getHubProjectName(), hubScanStep.getHubProjectVersion(), hubScanStep.getHubVersionPhase(), hubScanStep.getHubVersionDist(),
@@ -323,6 +324,8 @@ public class HubScanWorkflowStep extends AbstractStepImpl {
             } catch (final Exception e) {
                 logger.error(e);
                 run.setResult(Result.UNSTABLE);
+            } finally {
+                logger.flush();
             }
             return null;
         }
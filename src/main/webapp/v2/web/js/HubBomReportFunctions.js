@@ -21,10 +21,6 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-var filteredSecurityClassName = " rowFilteredSecurity";
-var filteredLicenseClassName = " rowFilteredLicense";
-var filteredOperationalClassName = " rowFilteredOperational";
-
 var tableId = "hubBomReport";
 
 
@@ -35,7 +31,8 @@ var lowSecurityColumnNum = 6;
 var licenseRiskColumnNum = 7;
 var operationRiskColumnNum = 8;
 
-var sortTableInitialized=false;
+// the BomTable of the report on the page
+var bomTable = null;
 
 function adjustWidth(object) {
 	var percentageSpan = object.getElementsByTagName("SPAN")[0];
@@ -44,29 +41,6 @@ function adjustWidth(object) {
 	object.style.width = percent;
 }
 
-function adjustTable() {
-	var riskReportTable = document.getElementById(tableId).tBodies[0];
-	var odd = true;
-	for (var i = 0; i < riskReportTable.rows.length; i++) {
-		if (riskReportTable.rows[i].className
-				.indexOf(filteredSecurityClassName) != -1) {
-			continue;
-		}
-		if (riskReportTable.rows[i].className.indexOf(filteredLicenseClassName) != -1) {
-			continue;
-		}
-		if (riskReportTable.rows[i].className
-				.indexOf(filteredOperationalClassName) != -1) {
-			continue;
-		}
-		adjustTableRow(riskReportTable.rows[i], odd);
-		adjustSecurityRisks(riskReportTable.rows[i]);
-		adjustOtherRisks(riskReportTable.rows[i], licenseRiskColumnNum);
-		adjustOtherRisks(riskReportTable.rows[i], operationRiskColumnNum);
-		odd = !odd;
-	}
-}
-
 function adjustTableRow(row, odd) {
 	var className = row.className;
 
@@ -155,173 +129,45 @@ function adjustOtherRisks(row, riskColumnNum) {
 
 function filterTableByVulnerabilityRisk(risk) {
 	filterTableByRisk(risk, 'highSecurityRiskLabel', 'mediumSecurityRiskLabel',
-			'lowSecurityRiskLabel', 'noneSecurityRiskLabel',
-			filteredSecurityClassName);
+			'lowSecurityRiskLabel', 'noneSecurityRiskLabel', 'security');
 }
 
 function filterTableByLicenseRisk(risk) {
 	filterTableByRisk(risk, 'highLicenseRiskLabel', 'mediumLicenseRiskLabel',
-			'lowLicenseRiskLabel', 'noneLicenseRiskLabel',
-			filteredLicenseClassName);
+			'lowLicenseRiskLabel', 'noneLicenseRiskLabel', 'license');
 }
 
 function filterTableByOperationalRisk(risk) {
 	filterTableByRisk(risk, 'highOperationalRiskLabel',
 			'mediumOperationalRiskLabel', 'lowOperationalRiskLabel',
-			'noneOperationalRiskLabel', filteredOperationalClassName);
+			'noneOperationalRiskLabel', 'operational');
 }
 
+/*
+ * Clicking the selected risk label removes the filter of its category, clicking another label of the category filters the table by that risk.
+ */
 function filterTableByRisk(risk, highRiskId, mediumRiskId, lowRiskId,
-		noneRiskId, filterClassName) {
-	if (removeFilter(highRiskId, risk, filterClassName)) {
-		return;
-	}
-	if (removeFilter(mediumRiskId, risk, filterClassName)) {
-		return;
-	}
-	if (removeFilter(lowRiskId, risk, filterClassName)) {
-		return;
-	}
-	if (removeFilter(noneRiskId, risk, filterClassName)) {
+		noneRiskId, category) {
+	var riskIds = [ highRiskId, mediumRiskId, lowRiskId, noneRiskId ];
+	var wasSelected = risk.className.indexOf(" filterSelected") != -1;
+	for (var i = 0; i < riskIds.length; i++) {
+		var riskLabel = document.getElementById(riskIds[i]);
+		riskLabel.className = riskLabel.className.replace(' filterSelected', '');
+	}
+	if (wasSelected) {
+		bomTable.setFilter(category, null);
 		return;
 	}
 	risk.className += " filterSelected";
-	filterTable(document.getElementById(tableId).tBodies[0], risk, false,
-			filterClassName);
-	adjustTable();
-}
-
-function removeFilter(id, currRisk, filterClassName) {
-	var riskLabel = document.getElementById(id);
-	if (riskLabel.className.indexOf(" filterSelected") != -1) {
-		filterTable(document.getElementById(tableId).tBodies[0], null, true,
-				filterClassName);
-		document.getElementById(id).className = document.getElementById(id).className
-				.replace(' filterSelected', '');
-
-		adjustTable();
-		if (id == currRisk.id) {
-			return true;
-		}
-	}
-
-}
-
-function filterTable(riskReportTable, riskToFilter, shouldRemoveFilter,
-		filterClassName) {
-	var odd = true;
-	for (var i = 0; i < riskReportTable.rows.length; i++) {
-		if (shouldRemoveFilter) {
-			removeFilterFromRow(riskReportTable.rows[i], filterClassName);
-		} else {
-			if (filterClassName == filteredSecurityClassName) {
-				filterRowBySecurity(riskReportTable.rows[i], riskToFilter,
-						filterClassName);
-			} else if (filterClassName == filteredLicenseClassName) {
-				filterRowByOtherRisk(riskReportTable.rows[i], riskToFilter,
-						filterClassName, licenseRiskColumnNum);
-			} else if (filterClassName == filteredOperationalClassName) {
-				filterRowByOtherRisk(riskReportTable.rows[i], riskToFilter,
-						filterClassName, operationRiskColumnNum);
-			}
-		}
-		adjustTableRow(riskReportTable.rows[i], odd);
-		odd = !odd;
-	}
+	bomTable.setFilter(category, getRiskLevel(risk.id));
 }
 
-function filterRowBySecurity(row, riskToFilter, filterClassName) {
-	if (riskToFilter.id.indexOf("none") != -1) {
-		// only show the rows that have no security risks
-		if (row.cells[highSecurityColumnNum].children[0].innerHTML != 0
-				|| row.cells[mediumSecurityColumnNum].children[0].innerHTML != 0
-				|| row.cells[lowSecurityColumnNum].children[0].innerHTML != 0) {
-			filterRowByRisk(row, filterClassName);
+function getRiskLevel(riskId) {
+	var levels = [ "high", "medium", "low", "none" ];
+	for (var i = 0; i < levels.length; i++) {
+		if (riskId.indexOf(levels[i]) == 0) {
+			return levels[i];
 		}
-	} else if (riskToFilter.id.indexOf("high") > -1) {
-		// only show the rows that have high security risks
-		if (row.cells[highSecurityColumnNum].children[0].innerHTML == 0) {
-			filterRowByRisk(row, filterClassName);
-		}
-	} else if (riskToFilter.id.indexOf("medium") > -1) {
-		// only show the rows that have medium security risks without high risks
-		// if the component has a high security risk then it is not included in
-		// the medium risk components
-		if (row.cells[highSecurityColumnNum].children[0].innerHTML != 0
-				|| row.cells[mediumSecurityColumnNum].children[0].innerHTML == 0) {
-			filterRowByRisk(row, filterClassName);
-		}
-	} else if (riskToFilter.id.indexOf("low") > -1) {
-		// only show the rows that have low security risks without high or
-		// medium risks
-		// if the component has a high or medium security risk then it is not
-		// included in the low risk components
-		if ((row.cells[highSecurityColumnNum].children[0].innerHTML != 0 && row.cells[mediumSecurityColumnNum].children[0].innerHTML != 0)
-				|| row.cells[lowSecurityColumnNum].children[0].innerHTML == 0) {
-			filterRowByRisk(row, filterClassName);
-		}
-	}
-}
-
-function filterRowByRisk(row, filterClassName) {
-	if (row.className.indexOf(filterClassName) == -1) {
-		row.className += filterClassName;
-	}
-}
-
-function filterRowByOtherRisk(row, riskToFilter, filterClassName, riskColumnNum) {
-	if (riskToFilter.id.indexOf("none") != -1) {
-		if (row.cells[riskColumnNum].children[0].innerHTML.indexOf("H") != -1) {
-			if (row.className.indexOf(filterClassName) == -1) {
-				row.className += filterClassName;
-			}
-		}
-		if (row.cells[riskColumnNum].children[0].innerHTML.indexOf("M") != -1) {
-			if (row.className.indexOf(filterClassName) == -1) {
-				row.className += filterClassName;
-			}
-		}
-		if (row.cells[riskColumnNum].children[0].innerHTML.indexOf("L") != -1) {
-			if (row.className.indexOf(filterClassName) == -1) {
-				row.className += filterClassName;
-			}
-		}
-	} else if (riskToFilter.id.indexOf("high") > -1) {
-		if (row.cells[riskColumnNum].children[0].innerHTML.indexOf("H") == -1) {
-			if (row.className.indexOf(filterClassName) == -1) {
-				row.className += filterClassName;
-			}
-		}
-	} else if (riskToFilter.id.indexOf("medium") > -1) {
-		if (row.cells[riskColumnNum].children[0].innerHTML.indexOf("M") == -1) {
-			if (row.className.indexOf(filterClassName) == -1) {
-				row.className += filterClassName;
-			}
-		}
-	} else if (riskToFilter.id.indexOf("low") > -1) {
-		if (row.cells[riskColumnNum].children[0].innerHTML.indexOf("L") == -1) {
-			if (row.className.indexOf(filterClassName) == -1) {
-				row.className += filterClassName;
-			}
-		}
-	}
-}
-
-function removeFilterFromRow(row, filterClassName) {
-	if (row.className.indexOf(filterClassName) != -1) {
-		row.className = row.className.replace(filterClassName, "");
-	}
-}
-
-function initSortTable() {
-	if(sortTableInitialized == false) {
-		sortTableInitialized = true;
-		console.log("initializing sort table");
-		var table = document.getElementById(tableId);
-		sorttable.makeSortable(document.getElementById(tableId));
-		// this is needed to initialize the risk report on Bamboo
-		// this should work on other browsers as well.  Bamboo doesn't fire a document onload or JQuery ready event.
-		console.log("table sortable initialization performed removing event to prevent re-initialization");
-		table.removeEventListener('mouseentered',initSortTable);
 	}
+	return null;
 }
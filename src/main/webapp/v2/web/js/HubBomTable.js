@@ -0,0 +1,235 @@
+/*
+ * Hub Common Reporting
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/*
+ * Table of the BOM components that only creates the rows that are scrolled into view.
+ * Sorting and filtering work on columns of plain values, the rows are created from them when they become visible.
+ */
+var BomTable = function (myJQuery, riskReport) {
+	this.myJQuery = myJQuery;
+	this.riskReport = riskReport;
+	this.components = [];
+	// one array per column, indexed like the components
+	this.columns = [[], [], [], [], [], [], [], [], []];
+	this.securityLevels = [];
+	// the indexes of the components that pass the filters, in display order
+	this.order = [];
+	this.filters = { security : null, license : null, operational : null };
+	this.sortColumn = -1;
+	this.sortAscending = true;
+	this.rowHeight = 30;
+	this.rowHeightMeasured = false;
+	this.overscan = 10;
+	this.renderedFirst = -1;
+	this.renderedLast = -1;
+	this.scrollPending = false;
+};
+
+	BomTable.prototype.levelOf = function (riskString) {
+		if (riskString == "H") {
+			return 3;
+		} else if (riskString == "M") {
+			return 2;
+		} else if (riskString == "L") {
+			return 1;
+		}
+		return 0;
+	};
+
+	BomTable.prototype.securityLevelOf = function (entry) {
+		if (entry.securityRiskHighCount > 0) {
+			return 3;
+		} else if (entry.securityRiskMediumCount > 0) {
+			return 2;
+		} else if (entry.securityRiskLowCount > 0) {
+			return 1;
+		}
+		return 0;
+	};
+
+	BomTable.prototype.appendComponents = function (components) {
+		for (var i = 0; i < components.length; i++) {
+			var entry = components[i];
+			var index = this.components.length;
+			this.components.push(entry);
+			this.columns[0][index] = entry.policyStatus || "";
+			this.columns[1][index] = (entry.componentName || "").toLowerCase();
+			this.columns[2][index] = (entry.componentVersion || "").toLowerCase();
+			this.columns[3][index] = (entry.license || "").toLowerCase();
+			this.columns[4][index] = entry.securityRiskHighCount || 0;
+			this.columns[5][index] = entry.securityRiskMediumCount || 0;
+			this.columns[6][index] = entry.securityRiskLowCount || 0;
+			this.columns[7][index] = this.levelOf(this.riskReport.createRiskString(entry.licenseRiskHighCount, entry.licenseRiskMediumCount, entry.licenseRiskLowCount));
+			this.columns[8][index] = this.levelOf(this.riskReport.createRiskString(entry.operationalRiskHighCount, entry.operationalRiskMediumCount, entry.operationalRiskLowCount));
+			this.securityLevels[index] = this.securityLevelOf(entry);
+		}
+		this.refresh();
+	};
+
+	BomTable.prototype.clear = function () {
+		this.components = [];
+		this.columns = [[], [], [], [], [], [], [], [], []];
+		this.securityLevels = [];
+		this.refresh();
+	};
+
+	BomTable.prototype.matches = function (level, filter) {
+		return filter == null || level == filter;
+	};
+
+	BomTable.prototype.refresh = function () {
+		var order = [];
+		for (var index = 0; index < this.components.length; index++) {
+			if (this.matches(this.securityLevels[index], this.filters.security) && this.matches(this.columns[7][index], this.filters.license)
+					&& this.matches(this.columns[8][index], this.filters.operational)) {
+				order.push(index);
+			}
+		}
+		this.order = order;
+		this.sortOrder();
+		this.renderWindow(true);
+	};
+
+	BomTable.prototype.sortOrder = function () {
+		if (this.sortColumn < 0) {
+			return;
+		}
+		var column = this.columns[this.sortColumn];
+		var direction = this.sortAscending ? 1 : -1;
+		this.order.sort(function (first, second) {
+			var firstValue = column[first];
+			var secondValue = column[second];
+			if (firstValue < secondValue) {
+				return -direction;
+			} else if (firstValue > secondValue) {
+				return direction;
+			}
+			// keep the original order for equal values
+			return first - second;
+		});
+	};
+
+	BomTable.prototype.sortBy = function (columnNum, header) {
+		if (this.sortColumn == columnNum) {
+			this.sortAscending = !this.sortAscending;
+		} else {
+			this.sortColumn = columnNum;
+			this.sortAscending = true;
+		}
+		this.myJQuery(this.table).find(".sortIndicator").remove();
+		this.myJQuery(header).append(this.myJQuery('<span class="sortIndicator"></span>').html(this.sortAscending ? "&nbsp;&#x25B4;" : "&nbsp;&#x25BE;"));
+		this.sortOrder();
+		this.renderWindow(true);
+	};
+
+	/*
+	 * level is "high", "medium", "low", "none" or null to remove the filter of the category
+	 */
+	BomTable.prototype.setFilter = function (category, level) {
+		var levels = { high : 3, medium : 2, low : 1, none : 0 };
+		this.filters[category] = level == null ? null : levels[level];
+		this.refresh();
+		this.container.scrollTop = 0;
+	};
+
+	BomTable.prototype.create = function () {
+		var bomTable = this;
+		this.container = document.createElement("div");
+		this.myJQuery(this.container).addClass("bomTableContainer");
+		this.table = document.createElement("table");
+		this.myJQuery(this.table).attr("id", tableId);
+		this.myJQuery(this.table).addClass("table");
+		var tableHead = this.riskReport.createComponentTableHead();
+		this.myJQuery(tableHead).find("th").each(function (columnNum, header) {
+			if (columnNum > 0) {
+				bomTable.myJQuery(header).on("click", function () {
+					bomTable.sortBy(columnNum, header);
+				});
+			}
+		});
+		this.myJQuery(this.table).append(tableHead);
+		this.tableBody = document.createElement("tbody");
+		this.myJQuery(this.tableBody).attr("id", "hubBomReportBody");
+		this.myJQuery(this.table).append(this.tableBody);
+		this.myJQuery(this.container).append(this.table);
+		this.myJQuery(this.container).on("scroll", function () {
+			if (!bomTable.scrollPending) {
+				bomTable.scrollPending = true;
+				window.requestAnimationFrame(function () {
+					bomTable.scrollPending = false;
+					bomTable.renderWindow(false);
+				});
+			}
+		});
+		return this.container;
+	};
+
+	BomTable.prototype.createSpacer = function (height) {
+		var spacer = document.createElement("tr");
+		this.myJQuery(spacer).css({ "height" : height + "px" });
+		return spacer;
+	};
+
+	BomTable.prototype.renderWindow = function (force) {
+		if (!this.container) {
+			return;
+		}
+		var visibleHeight = this.container.clientHeight || 600;
+		var first = Math.max(0, Math.floor(this.container.scrollTop / this.rowHeight) - this.overscan);
+		var last = Math.min(this.order.length, Math.ceil((this.container.scrollTop + visibleHeight) / this.rowHeight) + this.overscan);
+		if (!force && first == this.renderedFirst && last == this.renderedLast) {
+			return;
+		}
+		this.renderedFirst = first;
+		this.renderedLast = last;
+
+		var rows = document.createDocumentFragment();
+		rows.appendChild(this.createSpacer(first * this.rowHeight));
+		for (var position = first; position < last; position++) {
+			try {
+				var tableRow = this.riskReport.createComponentTableRow(this.components[this.order[position]]);
+				adjustTableRow(tableRow, position % 2 == 0);
+				adjustSecurityRisks(tableRow);
+				adjustOtherRisks(tableRow, licenseRiskColumnNum);
+				adjustOtherRisks(tableRow, operationRiskColumnNum);
+				rows.appendChild(tableRow);
+			} catch (ex) {
+				console.log("Exception creating table row in Component Table" + ex);
+			}
+		}
+		rows.appendChild(this.createSpacer((this.order.length - last) * this.rowHeight));
+		this.myJQuery(this.tableBody).empty();
+		this.tableBody.appendChild(rows);
+
+		// the spacers assume every row has the same height, measure it once the first rows are shown
+		if (!this.rowHeightMeasured && last > first && this.tableBody.rows.length > 2) {
+			var measuredHeight = this.tableBody.rows[1].offsetHeight;
+			if (measuredHeight > 0) {
+				this.rowHeightMeasured = true;
+				if (measuredHeight != this.rowHeight) {
+					this.rowHeight = measuredHeight;
+					this.renderWindow(true);
+				}
+			}
+		}
+	};
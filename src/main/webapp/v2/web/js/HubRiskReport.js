@@ -222,15 +222,6 @@ var RiskReport = function (myJQuery, jsonData) {
 		return table;
 	};
 	
-	RiskReport.prototype.columnClickEvent = function () {
-		if(this.initSortTable == false) {
-			console.log("init sorttable");
-			sorttable.makeSortable(document.getElementById('hubBomReport'));
-		} else {
-			console.log("sortable table inited");
-		}
-	};
-	
 	RiskReport.prototype.createComponentTableHead = function () {
 		var compStyleClass = "clickable componentColumn columnLabel evenPadding";
 		var licenseStyleClass = "clickable columnLabel evenPadding";
@@ -374,34 +365,6 @@ var RiskReport = function (myJQuery, jsonData) {
 		return tableRow;
 	};
 	
-	RiskReport.prototype.createComponentTable = function () {
-		var table = document.createElement("table");
-		this.myJQuery(table).attr("id","hubBomReport");
-		this.myJQuery(table).addClass("table sortable");
-		this.myJQuery(table).attr("onmouseenter","initSortTable();");
-		
-		this.myJQuery(table).append(this.createComponentTableHead());
-		var tableBody = document.createElement("tbody");
-		this.myJQuery(tableBody).attr("id","hubBomReportBody");
-		var entryArray = this.rawdata.components;
-		var odd = true;
-		for (var index = 0; index < entryArray.length; index++) { 
-			try {
-				var tableRow = this.createComponentTableRow(entryArray[index]);
-				adjustTableRow(tableRow, odd);
-				adjustSecurityRisks(tableRow);
-				adjustOtherRisks(tableRow, licenseRiskColumnNum);
-				adjustOtherRisks(tableRow, operationRiskColumnNum);
-				odd = !odd;
-				this.myJQuery(tableBody).append(tableRow);
-			} catch (ex) {
-				console.log("Exception creating table row in Component Table" + ex);
-			}
-		}
-		this.myJQuery(table).append(tableBody);
-		return table;
-	};
-	
 	RiskReport.prototype.createReport = function () {
 		var report = document.createElement("div")
 		this.myJQuery(report).addClass("riskReportBackgroundColor");
@@ -411,7 +374,68 @@ var RiskReport = function (myJQuery, jsonData) {
 		this.myJQuery(report).append(this.createLicenseRiskContainer());
 		this.myJQuery(report).append(this.createOperationalRiskContainer());
 		this.myJQuery(report).append(this.createSummaryTable());
-		var table = this.createComponentTable();
-		this.myJQuery(report).append(table);
-		this.myJQuery("#riskReportDiv").html(this.myJQuery(report).html());
-	};
\ No newline at end of file
+		this.bomTable = new BomTable(this.myJQuery, this);
+		bomTable = this.bomTable;
+		this.myJQuery(report).append(this.bomTable.create());
+		this.myJQuery("#riskReportDiv").empty().append(report);
+		if (this.rawdata.components) {
+			this.bomTable.appendComponents(this.rawdata.components);
+		}
+	};
+
+	RiskReport.prototype.createSearchField = function () {
+		var riskReport = this;
+		var searchField = this.myJQuery('<input type="text" class="bomSearchField" placeholder="Search components..."/>');
+		var searchTimer = null;
+		searchField.on("input", function () {
+			clearTimeout(searchTimer);
+			searchTimer = setTimeout(function () {
+				riskReport.search(searchField.val());
+			}, 300);
+		});
+		return searchField;
+	};
+
+	/*
+	 * Loads the report a page of components at a time, the first page is shown while the next ones are loading.
+	 */
+	RiskReport.load = function (myJQuery, reportUrl, pageSize) {
+		myJQuery.getJSON(reportUrl + "/components?start=0&count=" + pageSize, function (page) {
+			var riskReport = new RiskReport(myJQuery, page.report);
+			riskReport.reportUrl = reportUrl;
+			riskReport.pageSize = pageSize;
+			riskReport.query = "";
+			riskReport.createReport();
+			riskReport.bomTable.container.parentNode.insertBefore(riskReport.createSearchField()[0], riskReport.bomTable.container);
+			riskReport.bomTable.appendComponents(page.components);
+			riskReport.loadComponents("", page.components.length, page.total);
+		});
+	};
+
+	/*
+	 * The search runs on the server, the table is loaded again with the matching components only.
+	 */
+	RiskReport.prototype.search = function (text) {
+		var query = text ? "&name=" + encodeURIComponent(text) : "";
+		if (query == this.query) {
+			return;
+		}
+		this.query = query;
+		this.bomTable.clear();
+		this.loadComponents(query, 0, 1);
+	};
+
+	RiskReport.prototype.loadComponents = function (query, start, total) {
+		if (start >= total || query != this.query) {
+			return;
+		}
+		var riskReport = this;
+		this.myJQuery.getJSON(this.reportUrl + "/components?start=" + start + "&count=" + this.pageSize + query, function (page) {
+			// a newer search replaced this one
+			if (page.components.length == 0 || query != riskReport.query) {
+				return;
+			}
+			riskReport.bomTable.appendComponents(page.components);
+			riskReport.loadComponents(query, start + page.components.length, page.total);
+		});
+	};
@@ -0,0 +1,97 @@
+/*
+ * Hub Common Reporting
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+var TrendChart = function (myJQuery, jsonData) {
+	this.myJQuery = myJQuery;
+	this.rawdata = jsonData;
+	this.width = 800;
+	this.height = 250;
+	this.margin = 40;
+};
+
+	TrendChart.prototype.createSvgElement = function (name, attributes) {
+		var element = document.createElementNS("http://www.w3.org/2000/svg", name);
+		for (var attribute in attributes) {
+			element.setAttribute(attribute, attributes[attribute]);
+		}
+		return element;
+	};
+
+	TrendChart.prototype.createChart = function (divId, series) {
+		var div = document.getElementById(divId);
+		var entries = this.rawdata;
+		if (entries.length == 0) {
+			return;
+		}
+		var maxValue = 1;
+		for (var i = 0; i < entries.length; i++) {
+			for (var j = 0; j < series.length; j++) {
+				maxValue = Math.max(maxValue, series[j].value(entries[i]));
+			}
+		}
+		var plotWidth = this.width - 2 * this.margin;
+		var plotHeight = this.height - 2 * this.margin;
+		var xStep = entries.length > 1 ? plotWidth / (entries.length - 1) : 0;
+		var chart = this;
+		var x = function (index) {
+			return chart.margin + index * xStep;
+		};
+		var y = function (value) {
+			return chart.margin + plotHeight - (value / maxValue) * plotHeight;
+		};
+
+		var svg = this.createSvgElement("svg", { width : this.width, height : this.height });
+		svg.appendChild(this.createSvgElement("line", { x1 : this.margin, y1 : y(0), x2 : this.width - this.margin, y2 : y(0), stroke : "#999999" }));
+		svg.appendChild(this.createSvgElement("line", { x1 : this.margin, y1 : y(0), x2 : this.margin, y2 : y(maxValue), stroke : "#999999" }));
+		var maxLabel = this.createSvgElement("text", { x : 2, y : y(maxValue) + 4, "font-size" : 10 });
+		maxLabel.textContent = maxValue;
+		svg.appendChild(maxLabel);
+		var firstBuild = this.createSvgElement("text", { x : x(0), y : this.height - this.margin / 2, "font-size" : 10 });
+		firstBuild.textContent = "#" + entries[0].buildNumber;
+		svg.appendChild(firstBuild);
+		var lastBuild = this.createSvgElement("text", { x : x(entries.length - 1), y : this.height - this.margin / 2, "font-size" : 10, "text-anchor" : "end" });
+		lastBuild.textContent = "#" + entries[entries.length - 1].buildNumber;
+		svg.appendChild(lastBuild);
+
+		for (var j = 0; j < series.length; j++) {
+			var points = [];
+			for (var i = 0; i < entries.length; i++) {
+				var value = series[j].value(entries[i]);
+				// -1 means the build did not record the value
+				if (value >= 0) {
+					points.push(x(i) + "," + y(value));
+				}
+			}
+			svg.appendChild(this.createSvgElement("polyline", { points : points.join(" "), fill : "none", stroke : series[j].color, "stroke-width" : 2 }));
+		}
+		div.appendChild(svg);
+
+		var legend = this.myJQuery("<div></div>");
+		for (var j = 0; j < series.length; j++) {
+			var item = this.myJQuery("<span style='margin-right:15px'></span>");
+			item.append(this.myJQuery("<span style='display:inline-block;width:10px;height:10px;margin-right:4px'></span>").css("background-color", series[j].color));
+			item.append(document.createTextNode(series[j].label));
+			legend.append(item);
+		}
+		this.myJQuery(div).append(legend);
+	};
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.jenkins.action.BomUpToDateAction;
+import com.blackducksoftware.integration.hub.model.view.VersionBomPolicyStatusView;
+
+public class BomUpToDateActionTest {
+
+    @Test
+    public void testNoPolicyStatus() {
+        final BomUpToDateAction action = new BomUpToDateAction();
+        assertNull(action.getPolicyStatus());
+        assertNull(action.getCurrentPolicyStatus());
+    }
+
+    @Test
+    public void testReusesPolicyStatus() {
+        final BomUpToDateAction action = new BomUpToDateAction();
+        final long before = System.currentTimeMillis();
+        final VersionBomPolicyStatusView policyStatus = new VersionBomPolicyStatusView();
+        action.setPolicyStatus(policyStatus);
+
+        assertTrue(action.getPolicyStatusTimestamp() >= before);
+        assertSame(policyStatus, action.getCurrentPolicyStatus());
+        assertSame(policyStatus, action.getPolicyStatusAt(action.getPolicyStatusTimestamp() + BomUpToDateAction.POLICY_STATUS_MAX_AGE));
+    }
+
+    @Test
+    public void testPolicyStatusExpires() {
+        final BomUpToDateAction action = new BomUpToDateAction();
+        final VersionBomPolicyStatusView policyStatus = new VersionBomPolicyStatusView();
+        action.setPolicyStatus(policyStatus);
+
+        assertNull(action.getPolicyStatusAt(action.getPolicyStatusTimestamp() + BomUpToDateAction.POLICY_STATUS_MAX_AGE + 1));
+        // the failure conditions still see the status the scan step fetched, they only fetch it again
+        assertSame(policyStatus, action.getPolicyStatus());
+    }
+
+    @Test
+    public void testNewPolicyStatusReplacesExpiredOne() {
+        final BomUpToDateAction action = new BomUpToDateAction();
+        action.setPolicyStatus(new VersionBomPolicyStatusView());
+        final long expired = action.getPolicyStatusTimestamp() + BomUpToDateAction.POLICY_STATUS_MAX_AGE + 1;
+        assertNull(action.getPolicyStatusAt(expired));
+
+        final VersionBomPolicyStatusView fetchedAgain = new VersionBomPolicyStatusView();
+        action.setPolicyStatus(fetchedAgain);
+        assertSame(fetchedAgain, action.getCurrentPolicyStatus());
+    }
+
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.jenkins.remote.HubCLIInstallLock;
+import com.blackducksoftware.integration.hub.jenkins.remote.HubCLIInstallation;
+import com.blackducksoftware.integration.hub.jenkins.remote.InstallCLIArchive;
+
+import hudson.FilePath;
+
+public class HubCLIInstallLockTest {
+
+    private File toolsDirectory;
+
+    @Before
+    public void setUp() throws Exception {
+        toolsDirectory = Files.createTempDirectory("hubTools").toFile();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        new FilePath(toolsDirectory).deleteRecursive();
+    }
+
+    @Test
+    public void testSecondInstallerWaits() throws Exception {
+        final AtomicBoolean acquired = new AtomicBoolean();
+        final CountDownLatch released = new CountDownLatch(1);
+        final Thread installer;
+        try (HubCLIInstallLock installLock = HubCLIInstallLock.acquire(toolsDirectory)) {
+            assertTrue(new File(toolsDirectory, HubCLIInstallLock.LOCK_FILE).isFile());
+            installer = new Thread() {
+                @Override
+                public void run() {
+                    try (HubCLIInstallLock secondLock = HubCLIInstallLock.acquire(toolsDirectory)) {
+                        acquired.set(true);
+                    } catch (final Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    released.countDown();
+                }
+            };
+            installer.start();
+            Thread.sleep(200);
+            assertFalse(acquired.get());
+
+            // the thread holding the lock may take it again
+            try (HubCLIInstallLock sameThreadLock = HubCLIInstallLock.acquire(toolsDirectory)) {
+                assertFalse(acquired.get());
+            }
+            Thread.sleep(100);
+            assertFalse(acquired.get());
+        }
+        assertTrue(released.await(5, TimeUnit.SECONDS));
+        assertTrue(acquired.get());
+        installer.join();
+    }
+
+    @Test
+    public void testInstallOnlyOnce() throws Exception {
+        final File archive = createArchive();
+        assertTrue(new InstallCLIArchive(toolsDirectory.getAbsolutePath(), archive.getAbsolutePath(), HubCLIInstallation.checksum(archive), "3.7.0").call());
+        assertFalse(archive.exists());
+        assertTrue(HubCLIInstallation.read(toolsDirectory).isInstalled("3.7.0"));
+        assertEquals("3.7.0", HubCLIInstallation.readInstalledVersion(toolsDirectory));
+
+        // an executor that waited for the first one finds the CLI installed
+        final File secondArchive = createArchive();
+        assertFalse(new InstallCLIArchive(toolsDirectory.getAbsolutePath(), secondArchive.getAbsolutePath(), HubCLIInstallation.checksum(secondArchive), "3.7.0").call());
+        assertFalse(secondArchive.exists());
+    }
+
+    private File createArchive() throws Exception {
+        final File archive = File.createTempFile("scan.cli", ".zip", toolsDirectory);
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(archive))) {
+            zip.putNextEntry(new ZipEntry("scan.cli-2.1.2/lib/scan.cli-2.1.2-standalone.jar"));
+            zip.write("cli".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        return archive;
+    }
+
+}
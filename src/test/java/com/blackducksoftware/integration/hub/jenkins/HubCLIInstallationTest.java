@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.jenkins.remote.HubCLIInstallation;
+
+import hudson.FilePath;
+
+public class HubCLIInstallationTest {
+
+    private File toolsDirectory;
+
+    @Before
+    public void setUp() throws Exception {
+        toolsDirectory = Files.createTempDirectory("hubTools").toFile();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        new FilePath(toolsDirectory).deleteRecursive();
+    }
+
+    @Test
+    public void testInstallAndVerify() throws Exception {
+        HubCLIInstallation installation = HubCLIInstallation.read(toolsDirectory);
+        assertNull(installation.getInstalledVersion());
+        assertFalse(installation.isInstalled("3.7.0"));
+
+        final File archive = createArchive("scan.cli-2.1.2/lib/scan.cli-2.1.2-standalone.jar", "cli version 1");
+        HubCLIInstallation.install(toolsDirectory, archive, HubCLIInstallation.checksum(archive), "3.7.0");
+        installation = HubCLIInstallation.read(toolsDirectory);
+        assertEquals("3.7.0", installation.getInstalledVersion());
+        assertTrue(installation.isInstalled("3.7.0"));
+        assertFalse(installation.isInstalled("4.0.0"));
+
+        // an upgrade replaces the whole installation
+        final File upgrade = createArchive("scan.cli-2.2.0/lib/scan.cli-2.2.0-standalone.jar", "cli version 2");
+        HubCLIInstallation.install(toolsDirectory, upgrade, HubCLIInstallation.checksum(upgrade), "4.0.0");
+        assertTrue(HubCLIInstallation.read(toolsDirectory).isInstalled("4.0.0"));
+        final File installDirectory = new File(toolsDirectory, HubCLIInstallation.INSTALL_DIRECTORY);
+        assertFalse(new File(installDirectory, "scan.cli-2.1.2").exists());
+        for (final File file : toolsDirectory.listFiles()) {
+            assertFalse("Left over " + file, file.getName().endsWith(".old") || file.getName().endsWith(".tmp"));
+        }
+
+        // a jar changed after the installation no longer matches the checksum
+        Files.write(new File(installDirectory, "scan.cli-2.2.0/lib/scan.cli-2.2.0-standalone.jar").toPath(), "changed".getBytes(StandardCharsets.UTF_8));
+        assertFalse(HubCLIInstallation.read(toolsDirectory).isInstalled("4.0.0"));
+    }
+
+    @Test
+    public void testRejectsCorruptArchive() throws Exception {
+        final File archive = createArchive("scan.cli-2.1.2/lib/scan.cli-2.1.2-standalone.jar", "cli version 1");
+        try {
+            HubCLIInstallation.install(toolsDirectory, archive, "0000", "3.7.0");
+            fail("The archive should not have been installed");
+        } catch (final IOException e) {
+            assertTrue(e.getMessage().contains("does not match its checksum"));
+        }
+        assertNull(HubCLIInstallation.read(toolsDirectory).getInstalledVersion());
+    }
+
+    @Test
+    public void testArchiveNames() {
+        assertEquals("scan.cli.zip", HubCLIInstallation.getArchiveName(HubCLIInstallation.getPlatform("Linux")));
+        assertEquals("scan.cli-windows.zip", HubCLIInstallation.getArchiveName(HubCLIInstallation.getPlatform("Windows Server 2012")));
+        assertEquals("scan.cli-macosx.zip", HubCLIInstallation.getArchiveName(HubCLIInstallation.getPlatform("Mac OS X")));
+    }
+
+    private File createArchive(final String jarPath, final String content) throws Exception {
+        final File archive = new File(toolsDirectory, "archive-" + System.nanoTime() + ".zip");
+        try (ZipOutputStream output = new ZipOutputStream(new FileOutputStream(archive))) {
+            output.putNextEntry(new ZipEntry(jarPath));
+            output.write(content.getBytes(StandardCharsets.UTF_8));
+            output.closeEntry();
+            output.putNextEntry(new ZipEntry("scan.cli-x/bin/scan.cli.sh"));
+            output.write("#!/bin/sh".getBytes(StandardCharsets.UTF_8));
+            output.closeEntry();
+        }
+        return archive;
+    }
+
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.jenkins.cli.HubCLIProvisioner;
+
+public class HubCLIProvisionerTest {
+
+    private ThreadPoolExecutor pool;
+
+    @Before
+    public void setUp() {
+        pool = new ThreadPoolExecutor(2, 2, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        pool.allowCoreThreadTimeOut(true);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testGrow() {
+        HubCLIProvisioner.resize(pool, 5);
+        assertEquals(5, pool.getCorePoolSize());
+        assertEquals(5, pool.getMaximumPoolSize());
+    }
+
+    @Test
+    public void testShrink() {
+        HubCLIProvisioner.resize(pool, 1);
+        assertEquals(1, pool.getCorePoolSize());
+        assertEquals(1, pool.getMaximumPoolSize());
+    }
+
+    @Test
+    public void testSameSize() {
+        HubCLIProvisioner.resize(pool, 2);
+        assertEquals(2, pool.getCorePoolSize());
+        assertEquals(2, pool.getMaximumPoolSize());
+    }
+
+    @Test
+    public void testGrownPoolRunsMoreInstallations() throws Exception {
+        HubCLIProvisioner.resize(pool, 4);
+        assertEquals(4, runConcurrently(4));
+    }
+
+    @Test
+    public void testShrunkPoolQueuesInstallations() throws Exception {
+        HubCLIProvisioner.resize(pool, 1);
+        assertEquals(1, runConcurrently(3));
+    }
+
+    /**
+     * @return the number of the tasks that run at the same time once the pool is full
+     */
+    private int runConcurrently(final int tasks) throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(tasks);
+        final int[] running = new int[2];
+        for (int i = 0; i < tasks; i++) {
+            pool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    synchronized (running) {
+                        running[0]++;
+                        running[1] = Math.max(running[1], running[0]);
+                    }
+                    try {
+                        release.await();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    synchronized (running) {
+                        running[0]--;
+                    }
+                    finished.countDown();
+                }
+            });
+        }
+        // give the pool the time to start the threads it is allowed
+        Thread.sleep(200L);
+        release.countDown();
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        return running[1];
+    }
+
+}
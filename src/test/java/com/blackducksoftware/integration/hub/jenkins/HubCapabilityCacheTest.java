@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import com.blackducksoftware.integration.hub.jenkins.HubCapabilityCache.HubCapabilities;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRetryPolicy;
+import com.blackducksoftware.integration.hub.jenkins.mock.StubHubServer;
+import com.blackducksoftware.integration.hub.jenkins.utils.StoredPrintStream;
+import com.blackducksoftware.integration.hub.jenkins.utils.TestBuildListener;
+import com.blackducksoftware.integration.hub.rest.RestConnection;
+import com.blackducksoftware.integration.hub.service.HubServicesFactory;
+
+import net.sf.json.JSONObject;
+
+public class HubCapabilityCacheTest {
+
+    private static final String CURRENT_VERSION = "GET /api/current-version";
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    private StubHubServer stubHub;
+
+    private HubJenkinsLogger logger;
+
+    private HubRetryPolicy retryPolicy;
+
+    @Before
+    public void setUp() throws Exception {
+        stubHub = StubHubServer.start();
+        HubServerInfoSingleton.getInstance().setServerInfo(new HubServerInfo(stubHub.getUrl(), null, HubServerInfo.getDefaultTimeout(), false, false));
+        HubCapabilityCache.getInstance().invalidateAll();
+        HubConnectionCache.getInstance().invalidateAll();
+        logger = new HubJenkinsLogger(new TestBuildListener(new StoredPrintStream()));
+        retryPolicy = new HubRetryPolicy(logger, 0);
+    }
+
+    @After
+    public void tearDown() {
+        HubCapabilityCache.getInstance().invalidateAll();
+        HubConnectionCache.getInstance().invalidateAll();
+        stubHub.close();
+    }
+
+    @Test
+    public void testReusesCapabilities() throws Exception {
+        final HubCapabilities capabilities = HubCapabilityCache.getInstance().getCapabilities(stubHub.getUrl(), getServices(), retryPolicy);
+        assertEquals(StubHubServer.HUB_VERSION, capabilities.getHubVersion());
+        assertEquals(1, stubHub.getRequestCount(CURRENT_VERSION));
+
+        // the same server with a different spelling of its URL
+        assertSame(capabilities, HubCapabilityCache.getInstance().getCapabilities(stubHub.getUrl() + "/", getServices(), retryPolicy));
+        assertSame(capabilities, HubCapabilityCache.getInstance().getCapabilities(stubHub.getUrl().toUpperCase(), getServices(), retryPolicy));
+        assertEquals(1, stubHub.getRequestCount(CURRENT_VERSION));
+    }
+
+    @Test
+    public void testRefreshesExpiredCapabilities() throws Exception {
+        final HubCapabilities capabilities = HubCapabilityCache.getInstance().getCapabilities(stubHub.getUrl(), getServices(), retryPolicy);
+        final long lastValidTime = capabilities.getCheckedAt() + HubCapabilityCache.TIME_TO_LIVE;
+
+        assertSame(capabilities, HubCapabilityCache.getInstance().getCapabilities(stubHub.getUrl(), getServices(), retryPolicy, lastValidTime));
+        assertEquals(1, stubHub.getRequestCount(CURRENT_VERSION));
+
+        final HubCapabilities refreshed = HubCapabilityCache.getInstance().getCapabilities(stubHub.getUrl(), getServices(), retryPolicy, lastValidTime + 1);
+        assertNotSame(capabilities, refreshed);
+        assertEquals(StubHubServer.HUB_VERSION, refreshed.getHubVersion());
+        // a refresh is a single version request
+        assertEquals(2, stubHub.getRequestCount(CURRENT_VERSION));
+    }
+
+    @Test
+    public void testCachedCapabilitiesDoNotAskTheHub() throws Exception {
+        assertNull(HubCapabilityCache.getInstance().getCachedCapabilities(stubHub.getUrl()));
+        final HubCapabilities capabilities = HubCapabilityCache.getInstance().getCapabilities(stubHub.getUrl(), getServices(), retryPolicy);
+
+        assertSame(capabilities, HubCapabilityCache.getInstance().getCachedCapabilities(stubHub.getUrl() + "/"));
+        assertNull(HubCapabilityCache.getInstance().getCachedCapabilities(stubHub.getUrl(), capabilities.getCheckedAt() + HubCapabilityCache.TIME_TO_LIVE + 1));
+        assertEquals(1, stubHub.getRequestCount(CURRENT_VERSION));
+    }
+
+    @Test
+    public void testInvalidatedWhenConfigured() throws Exception {
+        final HubCapabilities capabilities = HubCapabilityCache.getInstance().getCapabilities(stubHub.getUrl(), getServices(), retryPolicy);
+
+        final JSONObject formData = new JSONObject();
+        formData.put("hubServerUrl", stubHub.getUrl());
+        formData.put("hubCredentialsId", "");
+        formData.put("hubTimeout", String.valueOf(HubServerInfo.getDefaultTimeout()));
+        formData.put("trustSSLCertificates", false);
+        formData.put("hubWorkspaceCheck", false);
+        j.jenkins.getDescriptorByType(PostBuildScanDescriptor.class).configure(null, formData);
+
+        assertNotSame(capabilities, HubCapabilityCache.getInstance().getCapabilities(stubHub.getUrl(), getServices(), retryPolicy));
+        assertEquals(2, stubHub.getRequestCount(CURRENT_VERSION));
+    }
+
+    private HubServicesFactory getServices() throws Exception {
+        final RestConnection restConnection = HubConnectionCache.getInstance().getConnection(logger, stubHub.getUrl(), "sysadmin", "blackduck", HubServerInfo.getDefaultTimeout(), false);
+        HubConnectionCache.getInstance().connect(restConnection, retryPolicy);
+        return new HubServicesFactory(restConnection);
+    }
+
+}
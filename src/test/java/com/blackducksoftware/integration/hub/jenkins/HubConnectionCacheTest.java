@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRetryPolicy;
+import com.blackducksoftware.integration.hub.jenkins.mock.StubHubServer;
+import com.blackducksoftware.integration.hub.jenkins.utils.StoredPrintStream;
+import com.blackducksoftware.integration.hub.jenkins.utils.TestBuildListener;
+import com.blackducksoftware.integration.hub.rest.RestConnection;
+import com.blackducksoftware.integration.hub.service.HubServicesFactory;
+
+import net.sf.json.JSONObject;
+
+public class HubConnectionCacheTest {
+
+    private static final String LOGIN = "POST /j_spring_security_check";
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    private StubHubServer stubHub;
+
+    private HubServerInfo serverInfo;
+
+    private HubJenkinsLogger logger;
+
+    private HubRetryPolicy retryPolicy;
+
+    @Before
+    public void setUp() throws Exception {
+        stubHub = StubHubServer.start();
+        serverInfo = new HubServerInfo(stubHub.getUrl(), null, HubServerInfo.getDefaultTimeout(), false, false);
+        HubServerInfoSingleton.getInstance().setServerInfo(serverInfo);
+        HubConnectionCache.getInstance().invalidateAll();
+        logger = new HubJenkinsLogger(new TestBuildListener(new StoredPrintStream()));
+        retryPolicy = new HubRetryPolicy(logger, 0);
+    }
+
+    @After
+    public void tearDown() {
+        HubConnectionCache.getInstance().invalidateAll();
+        stubHub.close();
+    }
+
+    @Test
+    public void testSharesLoggedInConnection() throws Exception {
+        final RestConnection connection = connect("blackduck");
+        assertSame(connection, connect("blackduck"));
+        assertEquals(1, stubHub.getRequestCount(LOGIN));
+    }
+
+    @Test
+    public void testConnectionPerCredentials() throws Exception {
+        final RestConnection connection = connect("blackduck");
+        assertNotSame(connection, connect("other"));
+        assertEquals(2, stubHub.getRequestCount(LOGIN));
+    }
+
+    @Test
+    public void testNoSharingWithoutReuse() throws Exception {
+        serverInfo.setConnectionReuse(0);
+
+        final RestConnection connection = connect("blackduck");
+        assertNotSame(connection, connect("blackduck"));
+        assertEquals(2, stubHub.getRequestCount(LOGIN));
+    }
+
+    @Test
+    public void testReplacesExpiredConnection() throws Exception {
+        serverInfo.setConnectionReuse(1);
+        final RestConnection connection = connect("blackduck");
+
+        final long expired = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1) + 1000L;
+        final RestConnection replaced = HubConnectionCache.getInstance().getConnection(logger, stubHub.getUrl(), "sysadmin", "blackduck", HubServerInfo.getDefaultTimeout(), false, expired);
+        assertNotSame(connection, replaced);
+        HubConnectionCache.getInstance().connect(replaced, retryPolicy);
+        // the new connection logs in again, and is then shared
+        assertEquals(2, stubHub.getRequestCount(LOGIN));
+        assertSame(replaced, connect("blackduck"));
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        final RestConnection connection = connect("blackduck");
+
+        HubConnectionCache.getInstance().invalidate("http://other.example.com");
+        assertSame(connection, connect("blackduck"));
+
+        HubConnectionCache.getInstance().invalidate(stubHub.getUrl() + "/");
+        final RestConnection afterInvalidate = connect("blackduck");
+        assertNotSame(connection, afterInvalidate);
+
+        HubConnectionCache.getInstance().invalidateAll();
+        assertNotSame(afterInvalidate, connect("blackduck"));
+        assertEquals(3, stubHub.getRequestCount(LOGIN));
+    }
+
+    @Test
+    public void testInvalidatedWhenConfigured() throws Exception {
+        final RestConnection connection = connect("blackduck");
+
+        final JSONObject formData = new JSONObject();
+        formData.put("hubServerUrl", stubHub.getUrl());
+        formData.put("hubCredentialsId", "");
+        formData.put("hubTimeout", String.valueOf(HubServerInfo.getDefaultTimeout()));
+        formData.put("trustSSLCertificates", false);
+        formData.put("hubWorkspaceCheck", false);
+        j.jenkins.getDescriptorByType(PostBuildScanDescriptor.class).configure(null, formData);
+
+        assertNotSame(connection, connect("blackduck"));
+        assertEquals(2, stubHub.getRequestCount(LOGIN));
+    }
+
+    @Test
+    public void testLogsInAgainWhenUnauthorized() throws Exception {
+        // the second request of the version is rejected like after a restart of the Hub
+        stubHub.setFailureEndpoint("GET /api/current-version");
+        stubHub.setFailureInterval(2, 401);
+        final RestConnection connection = connect("blackduck");
+
+        assertEquals(StubHubServer.HUB_VERSION, getHubVersion(connection));
+        assertEquals(StubHubServer.HUB_VERSION, getHubVersion(connection));
+        assertEquals(3, stubHub.getRequestCount("GET /api/current-version"));
+        assertEquals(2, stubHub.getRequestCount(LOGIN));
+
+        // the shared connection stays logged in for the next step
+        assertSame(connection, connect("blackduck"));
+        assertEquals(2, stubHub.getRequestCount(LOGIN));
+    }
+
+    private String getHubVersion(final RestConnection connection) throws Exception {
+        return retryPolicy.execute("get Hub version", new HubRetryPolicy.HubRequest<String>() {
+            @Override
+            public String execute() throws Exception {
+                return new HubServicesFactory(connection).createHubVersionRequestService().getHubVersion();
+            }
+        });
+    }
+
+    private RestConnection connect(final String password) throws Exception {
+        final RestConnection connection = HubConnectionCache.getInstance().getConnection(logger, stubHub.getUrl(), "sysadmin", password, HubServerInfo.getDefaultTimeout(), false);
+        HubConnectionCache.getInstance().connect(connection, retryPolicy);
+        return connection;
+    }
+
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import com.blackducksoftware.integration.hub.jenkins.mock.StubHubServer;
+import com.blackducksoftware.integration.hub.jenkins.utils.HubFlowHarness;
+import com.blackducksoftware.integration.hub.jenkins.utils.HubFlowHarness.HubFlowResult;
+
+public class HubFlowHarnessTest {
+
+    private static final int BUILDS = 8;
+
+    private static final String POLICY_STATUS = "GET /api/projects/{id}/versions/{id}/policy-status";
+
+    private static final String SCAN_SUMMARIES = "GET /api/codelocations/{id}/scan-summaries";
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    private StubHubServer stubHub;
+
+    private HubFlowHarness harness;
+
+    @Before
+    public void setUp() throws Exception {
+        stubHub = StubHubServer.start();
+        stubHub.setProcessingTime(100L);
+        stubHub.setComponentCount(250);
+        harness = new HubFlowHarness(j, stubHub);
+        harness.setBuilds(BUILDS);
+        harness.setConcurrency(4);
+        harness.setPollInterval(50L);
+    }
+
+    @After
+    public void tearDown() {
+        stubHub.close();
+    }
+
+    @Test
+    public void testPollingFlows() throws Exception {
+        final HubFlowResult result = harness.run();
+
+        assertTrue(result.toString(), result.getFailures().isEmpty());
+        assertEquals(BUILDS, result.getSucceededFlows());
+        assertEquals(BUILDS, result.getStepCount("riskReport"));
+        assertEquals(BUILDS, result.getStepCount("failureConditions"));
+        assertEquals(0, result.getStepCount("bomNotification"));
+        assertEquals(0, result.getRetries());
+        assertTrue(stubHub.getRequestCount(SCAN_SUMMARIES) >= BUILDS);
+        // the failure conditions reuse the policy status the scan step read
+        assertEquals(BUILDS, stubHub.getRequestCount(POLICY_STATUS));
+    }
+
+    @Test
+    public void testNotificationFlows() throws Exception {
+        harness.setNotifications(true);
+
+        final HubFlowResult result = harness.run();
+
+        assertTrue(result.toString(), result.getFailures().isEmpty());
+        assertEquals(BUILDS, result.getSucceededFlows());
+        assertEquals(BUILDS, result.getStepCount("bomNotification"));
+        // the first scan of every version changes its violations
+        assertEquals(BUILDS, stubHub.getNotificationCount());
+        assertTrue(stubHub.getRequestCount("GET /api/notifications") > 0);
+    }
+
+    @Test
+    public void testBomWithoutNotification() throws Exception {
+        stubHub.setComponentsInViolation(0);
+        harness.setNotifications(true);
+
+        final HubFlowResult result = harness.run();
+
+        assertTrue(result.toString(), result.getFailures().isEmpty());
+        assertEquals(BUILDS, result.getSucceededFlows());
+        assertEquals(0, stubHub.getNotificationCount());
+        // the builds found out from the scan status that their BOM was ready
+        assertEquals(BUILDS, result.getStepCount("bomNotification"));
+        assertTrue(stubHub.getRequestCount(SCAN_SUMMARIES) >= BUILDS);
+    }
+
+    @Test
+    public void testRetriesFailedRequests() throws Exception {
+        stubHub.setFailureInterval(3, 503);
+        stubHub.setFailureEndpoint(POLICY_STATUS);
+
+        final HubFlowResult result = harness.run();
+
+        assertTrue(result.toString(), result.getFailures().isEmpty());
+        assertEquals(BUILDS, result.getSucceededFlows());
+        assertTrue(stubHub.getFailedRequests() > 0);
+        assertEquals(stubHub.getFailedRequests(), result.getRetries());
+    }
+
+}
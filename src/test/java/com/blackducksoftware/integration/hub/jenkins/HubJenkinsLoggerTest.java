@@ -22,8 +22,11 @@
 package com.blackducksoftware.integration.hub.jenkins;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -188,4 +191,46 @@ public class HubJenkinsLoggerTest {
         logger.trace("TRACE Test 2", new Exception("TRACE EXCEPTION Test 1"));
     }
 
+    @Test
+    public void testBufferedFlush() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final HubJenkinsLogger bufferedLogger = new HubJenkinsLogger(new TestBuildListener(new PrintStream(output, true, "UTF-8")));
+        bufferedLogger.setBufferSize(100);
+        bufferedLogger.info("INFO Test 1");
+        bufferedLogger.error("ERROR Test 2", new Exception("ERROR EXCEPTION Test 1"));
+        assertEquals("", output.toString("UTF-8"));
+
+        bufferedLogger.flush();
+        final String outputString = output.toString("UTF-8");
+        assertTrue(outputString.indexOf("INFO Test 1") < outputString.indexOf("ERROR Test 2"));
+        assertTrue(outputString.contains("ERROR EXCEPTION Test 1"));
+
+        bufferedLogger.warn("WARN Test 1");
+        final long timeout = System.currentTimeMillis() + 10000;
+        while (!output.toString("UTF-8").contains("WARN Test 1") && System.currentTimeMillis() < timeout) {
+            Thread.sleep(50);
+        }
+        assertTrue("The background thread did not write the buffered line", output.toString("UTF-8").contains("WARN Test 1"));
+    }
+
+    @Test
+    public void testBufferedOverflow() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final HubJenkinsLogger bufferedLogger = new HubJenkinsLogger(new TestBuildListener(new PrintStream(output, true, "UTF-8")));
+        bufferedLogger.setBufferSize(2);
+        bufferedLogger.info("INFO Test 1");
+        bufferedLogger.info("INFO Test 2");
+        bufferedLogger.info("INFO Test 3");
+        bufferedLogger.debug("DEBUG Test 1");
+        bufferedLogger.error("ERROR Test 1");
+        bufferedLogger.flush();
+
+        final String outputString = output.toString("UTF-8");
+        assertTrue(outputString.contains("INFO Test 1"));
+        assertTrue(outputString.contains("INFO Test 2"));
+        assertFalse(outputString.contains("INFO Test 3"));
+        assertTrue(outputString.contains("ERROR Test 1"));
+        assertTrue(outputString.contains("[1 log lines were dropped"));
+    }
+
 }
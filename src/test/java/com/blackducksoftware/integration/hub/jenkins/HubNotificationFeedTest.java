@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.jenkins.notification.HubNotificationFeed;
+import com.blackducksoftware.integration.hub.jenkins.notification.HubNotificationSource;
+import com.blackducksoftware.integration.hub.jenkins.notification.HubScanStatusSource;
+
+public class HubNotificationFeedTest {
+
+    private static final String VERSION_URL = "https://hub.example.com/api/projects/1/versions/2";
+
+    @Test
+    public void testWakesUpOnNotificationAboutTheVersion() throws Exception {
+        final StubNotificationSource source = new StubNotificationSource();
+        source.notifications.add("{\"type\":\"RULE_VIOLATION\",\"content\":{\"projectVersionLink\":\"https://hub.example.com/api/projects/1/versions/3\"}}");
+        source.notifications.add("{\"type\":\"RULE_VIOLATION\",\"content\":{\"affectedProjectVersions\":[{\"projectVersion\":\"" + VERSION_URL + "/\"}]}}");
+        final HubNotificationFeed feed = new HubNotificationFeed(50L);
+
+        final long since = System.currentTimeMillis();
+        assertTrue(feed.awaitNotification(source, VERSION_URL, since, 5000L));
+        assertEquals(since - HubNotificationFeed.CURSOR_OVERLAP, source.getFirstStartDate().getTime());
+    }
+
+    @Test
+    public void testTimesOutWithoutNotification() throws Exception {
+        final StubNotificationSource source = new StubNotificationSource();
+        source.notifications.add("{\"type\":\"VULNERABILITY\",\"content\":{\"projectVersionLink\":\"https://hub.example.com/api/projects/1/versions/3\"}}");
+        final HubNotificationFeed feed = new HubNotificationFeed(50L);
+
+        assertFalse(feed.awaitNotification(source, VERSION_URL, System.currentTimeMillis(), 300L));
+        // let a request that was already running finish
+        Thread.sleep(100L);
+        final int requests = source.getRequestCount();
+        assertTrue(requests > 1);
+
+        // nothing is asked for once no build is waiting
+        Thread.sleep(300L);
+        assertEquals(requests, source.getRequestCount());
+    }
+
+    @Test
+    public void testScanFinishedWithoutNotification() throws Exception {
+        final StubNotificationSource source = new StubNotificationSource();
+        final StubScanStatusSource scanStatus = new StubScanStatusSource(3);
+        final HubNotificationFeed feed = new HubNotificationFeed(50L, 50L);
+
+        final long start = System.currentTimeMillis();
+        assertTrue(feed.awaitScan(source, scanStatus, VERSION_URL, start, 5000L));
+        assertEquals(3, scanStatus.checks.get());
+        assertTrue(System.currentTimeMillis() - start < 2000L);
+    }
+
+    @Test
+    public void testNotificationWakesUpTheStatusCheck() throws Exception {
+        final StubNotificationSource source = new StubNotificationSource();
+        source.notifications.add("{\"type\":\"RULE_VIOLATION\",\"content\":{\"projectVersionLink\":\"" + VERSION_URL + "\"}}");
+        final StubScanStatusSource scanStatus = new StubScanStatusSource(2);
+        // without the notification the status would only be checked again after a minute
+        final HubNotificationFeed feed = new HubNotificationFeed(50L, 60000L);
+
+        final long start = System.currentTimeMillis();
+        assertTrue(feed.awaitScan(source, scanStatus, VERSION_URL, start, 30000L));
+        assertTrue(System.currentTimeMillis() - start < 5000L);
+    }
+
+    @Test
+    public void testNotificationIsNoProofOfTheScan() throws Exception {
+        final StubNotificationSource source = new StubNotificationSource();
+        // a notification from before the scan, or about another code location of the version
+        source.notifications.add("{\"type\":\"VULNERABILITY\",\"content\":{\"projectVersionLink\":\"" + VERSION_URL + "\"}}");
+        final StubScanStatusSource scanStatus = new StubScanStatusSource(Integer.MAX_VALUE);
+        final HubNotificationFeed feed = new HubNotificationFeed(50L, 50L);
+
+        assertFalse(feed.awaitScan(source, scanStatus, VERSION_URL, System.currentTimeMillis(), 300L));
+        assertTrue(scanStatus.checks.get() > 1);
+    }
+
+    @Test
+    public void testUsesTheSourceOfAWaitingBuild() throws Exception {
+        final StubNotificationSource firstSource = new StubNotificationSource();
+        final StubNotificationSource secondSource = new StubNotificationSource();
+        secondSource.notifications.add("{\"type\":\"RULE_VIOLATION\",\"content\":{\"projectVersionLink\":\"" + VERSION_URL + "\"}}");
+        final HubNotificationFeed feed = new HubNotificationFeed(50L);
+        final long since = System.currentTimeMillis();
+        final Thread firstBuild = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    feed.awaitNotification(firstSource, "https://hub.example.com/api/projects/1/versions/3", since, 200L);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        firstBuild.start();
+        Thread.sleep(20L);
+
+        // once the first build stops waiting its connection is not used anymore
+        assertTrue(feed.awaitNotification(secondSource, VERSION_URL, since, 5000L));
+        firstBuild.join();
+        assertTrue(secondSource.getRequestCount() > 0);
+    }
+
+    private static class StubScanStatusSource implements HubScanStatusSource {
+        private final int finishedAfter;
+
+        private final AtomicInteger checks = new AtomicInteger();
+
+        private StubScanStatusSource(final int finishedAfter) {
+            this.finishedAfter = finishedAfter;
+        }
+
+        @Override
+        public boolean isScanFinished() {
+            return checks.incrementAndGet() >= finishedAfter;
+        }
+    }
+
+    private static class StubNotificationSource implements HubNotificationSource {
+        private final List<String> notifications = Collections.synchronizedList(new ArrayList<String>());
+
+        private final List<Date> startDates = new ArrayList<>();
+
+        @Override
+        public synchronized List<String> getNotifications(final Date startDate, final Date endDate) {
+            startDates.add(startDate);
+            return new ArrayList<>(notifications);
+        }
+
+        public synchronized Date getFirstStartDate() {
+            return startDates.get(0);
+        }
+
+        public synchronized int getRequestCount() {
+            return startDates.size();
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.jenkins.report.HubReportDelta;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+public class HubReportDeltaTest {
+
+    private static final String BASE_REPORT = "{\"projectName\":\"project\",\"projectVersion\":\"1.0\",\"totalComponents\":3,\"components\":["
+            + "{\"componentName\":\"commons-io\",\"componentVersion\":\"2.4\",\"securityRiskHighCount\":0},"
+            + "{\"componentName\":\"guava\",\"componentVersion\":\"18.0\",\"securityRiskHighCount\":0},"
+            + "{\"componentName\":\"log4j\",\"componentVersion\":\"1.2.17\",\"securityRiskHighCount\":1}]}";
+
+    private static final String CURRENT_REPORT = "{\"projectName\":\"project\",\"projectVersion\":\"1.0\",\"totalComponents\":3,\"components\":["
+            + "{\"componentName\":\"commons-io\",\"componentVersion\":\"2.4\",\"securityRiskHighCount\":0},"
+            + "{\"componentName\":\"guava\",\"componentVersion\":\"18.0\",\"securityRiskHighCount\":2},"
+            + "{\"componentName\":\"jackson\",\"componentVersion\":\"2.4.1\",\"securityRiskHighCount\":0}]}";
+
+    @Test
+    public void testCompute() {
+        final HubReportDelta delta = HubReportDelta.compute(4, BASE_REPORT, CURRENT_REPORT);
+        assertEquals(4, delta.getBaseBuildNumber());
+        assertEquals("[jackson 2.4.1]", delta.getAddedComponents().toString());
+        assertEquals("[guava 18.0]", delta.getChangedComponents().toString());
+        assertEquals("[log4j 1.2.17]", delta.getRemovedComponents().toString());
+        assertTrue(delta.getSize() < CURRENT_REPORT.length());
+    }
+
+    @Test
+    public void testApplyRebuildsTheReport() {
+        final HubReportDelta delta = HubReportDelta.compute(4, BASE_REPORT, CURRENT_REPORT);
+        final JsonParser parser = new JsonParser();
+        final JsonObject expected = parser.parse(CURRENT_REPORT).getAsJsonObject();
+        assertEquals(expected, parser.parse(delta.apply(BASE_REPORT)).getAsJsonObject());
+    }
+
+    @Test
+    public void testSameReportIsEmpty() {
+        assertTrue(HubReportDelta.compute(1, BASE_REPORT, BASE_REPORT).isEmpty());
+    }
+
+    @Test
+    public void testDuplicateComponents() {
+        final String duplicates = "{\"components\":[{\"componentName\":\"guava\",\"componentVersion\":\"18.0\"},{\"componentName\":\"guava\",\"componentVersion\":\"18.0\"}]}";
+        assertNull(HubReportDelta.compute(1, BASE_REPORT, duplicates));
+    }
+
+}
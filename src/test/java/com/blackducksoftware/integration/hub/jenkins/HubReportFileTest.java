@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.jenkins.report.HubReportDelta;
+import com.blackducksoftware.integration.hub.jenkins.report.HubReportFile;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+public class HubReportFileTest {
+
+    private static final String REPORT = "{\"projectName\":\"project\",\"projectVersion\":\"1.0\",\"phase\":\"DEVELOPMENT\",\"totalComponents\":2,\"vulnerabilityRiskHighCount\":1,"
+            + "\"licenseRiskLowCount\":2,\"components\":["
+            + "{\"componentName\":\"guava\",\"componentVersion\":\"18.0\",\"license\":\"Apache License 2.0\",\"securityRiskHighCount\":1,\"securityRiskMediumCount\":0},"
+            + "{\"componentName\":\"jackson \\u00e9\",\"componentVersion\":\"2.4.1\",\"license\":\"Apache License 2.0\",\"securityRiskHighCount\":0,\"unknownField\":{\"nested\":true}}]}";
+
+    private static final String NEXT_REPORT = "{\"projectName\":\"project\",\"projectVersion\":\"1.0\",\"phase\":\"DEVELOPMENT\",\"totalComponents\":2,\"components\":["
+            + "{\"componentName\":\"commons-io\",\"componentVersion\":\"2.4\",\"license\":\"Apache License 2.0\"},"
+            + "{\"componentName\":\"guava\",\"componentVersion\":\"18.0\",\"license\":\"Apache License 2.0\",\"securityRiskHighCount\":0,\"securityRiskMediumCount\":0}]}";
+
+    private File reportFile;
+
+    private File nextReportFile;
+
+    @Before
+    public void setUp() throws Exception {
+        reportFile = File.createTempFile("hubReport", ".bin");
+        nextReportFile = File.createTempFile("hubReport", ".bin");
+    }
+
+    @After
+    public void tearDown() {
+        reportFile.delete();
+        nextReportFile.delete();
+    }
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        HubReportFile.write(reportFile, REPORT);
+        final JsonParser parser = new JsonParser();
+        assertEquals(parser.parse(REPORT), parser.parse(HubReportFile.read(reportFile)));
+    }
+
+    @Test
+    public void testWriteAndReadParsedReport() throws Exception {
+        final JsonObject report = new JsonParser().parse(REPORT).getAsJsonObject();
+        HubReportFile.write(reportFile, report);
+        assertEquals(new JsonParser().parse(REPORT), report);
+        assertEquals(report, HubReportFile.readReport(reportFile));
+    }
+
+    @Test
+    public void testReadSummary() throws Exception {
+        HubReportFile.write(reportFile, REPORT);
+        final int[] summary = HubReportFile.readSummary(reportFile);
+        assertEquals(2, summary[0]);
+        assertEquals(1, summary[1]);
+        assertEquals(2, summary[7]);
+        assertEquals(Integer.MIN_VALUE, summary[2]);
+    }
+
+    @Test
+    public void testCompare() throws Exception {
+        HubReportFile.write(reportFile, REPORT);
+        HubReportFile.write(nextReportFile, NEXT_REPORT);
+
+        final HubReportDelta changes = HubReportFile.compare(7, reportFile, nextReportFile);
+
+        assertEquals(7, changes.getBaseBuildNumber());
+        assertEquals(Arrays.asList("commons-io 2.4"), changes.getAddedComponents());
+        assertEquals(Arrays.asList("guava 18.0"), changes.getChangedComponents());
+        assertEquals(Arrays.asList("jackson \u00e9 2.4.1"), changes.getRemovedComponents());
+        // the same changes as the ones computed from the json of the reports
+        final HubReportDelta jsonChanges = HubReportDelta.compute(7, REPORT, NEXT_REPORT);
+        assertEquals(jsonChanges.getAddedComponents(), changes.getAddedComponents());
+        assertEquals(jsonChanges.getChangedComponents(), changes.getChangedComponents());
+        assertEquals(jsonChanges.getRemovedComponents(), changes.getRemovedComponents());
+        assertEquals(new JsonParser().parse(NEXT_REPORT), new JsonParser().parse(changes.apply(REPORT)));
+    }
+
+    @Test
+    public void testCompareUnchangedReport() throws Exception {
+        HubReportFile.write(reportFile, REPORT);
+        HubReportFile.write(nextReportFile, REPORT);
+
+        final HubReportDelta changes = HubReportFile.compare(7, reportFile, nextReportFile);
+
+        assertTrue(changes.isEmpty());
+        assertEquals(Collections.<String> emptyList(), changes.getChangedComponents());
+    }
+
+    @Test
+    public void testCompareComponentsThatCanNotBeToldApart() throws Exception {
+        HubReportFile.write(reportFile, REPORT);
+        HubReportFile.write(nextReportFile, "{\"components\":[{\"componentName\":\"guava\"},{\"componentName\":\"guava\"}]}");
+
+        assertNull(HubReportFile.compare(7, reportFile, nextReportFile));
+    }
+
+}
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.jenkins.action.HubReportV2Action;
+import com.blackducksoftware.integration.hub.jenkins.report.HubReportGenerator;
+import com.blackducksoftware.integration.hub.jenkins.report.HubScanEvent;
+import com.blackducksoftware.integration.hub.jenkins.report.HubScanEventLog;
+import com.blackducksoftware.integration.hub.report.api.ReportData;
+import com.google.gson.GsonBuilder;
+
+import hudson.model.FreeStyleBuild;
+
+public class HubReportGeneratorTest {
+
+    private static final String REPORT = "{\"projectName\":\"project\",\"projectVersion\":\"1.0\",\"totalComponents\":1,\"components\":[{\"componentName\":\"guava\",\"componentVersion\":\"18.0\"}]}";
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    private FreeStyleBuild build;
+
+    private HubReportV2Action action;
+
+    private HubScanEventLog events;
+
+    @Before
+    public void setUp() throws Exception {
+        build = j.buildAndAssertSuccess(j.createFreeStyleProject());
+        action = new HubReportV2Action(build);
+        build.addAction(action);
+        events = new HubScanEventLog(build.getRootDir(), "scan");
+    }
+
+    @Test
+    public void testAttachesReport() throws Exception {
+        final CountDownLatch hubDone = new CountDownLatch(1);
+        final Future<?> done = HubReportGenerator.submit(build, action, new Callable<ReportData>() {
+            @Override
+            public ReportData call() throws Exception {
+                hubDone.await();
+                return new GsonBuilder().create().fromJson(REPORT, ReportData.class);
+            }
+        }, events);
+        // the report page shows the progress while the Hub generates the report
+        assertTrue(action.isPending());
+        assertNull(action.getJsonReportData());
+
+        hubDone.countDown();
+        done.get(30, TimeUnit.SECONDS);
+
+        assertFalse(action.isPending());
+        assertNull(action.getGenerationFailure());
+        assertNotNull(action.getJsonReportData());
+
+        // the generation is a phase of the scan like the report generated during the build
+        final HubScanEvent reportEvent = getReportEvent();
+        assertEquals(Long.valueOf(action.getReportFile().length()), reportEvent.getBytes());
+        assertNull(reportEvent.getSuccess());
+    }
+
+    @Test
+    public void testRecordsFailure() throws Exception {
+        final Future<?> done = HubReportGenerator.submit(build, action, new Callable<ReportData>() {
+            @Override
+            public ReportData call() throws Exception {
+                throw new HubIntegrationException("The Hub could not generate the report");
+            }
+        }, events);
+        done.get(30, TimeUnit.SECONDS);
+
+        assertFalse(action.isPending());
+        assertEquals("The Hub could not generate the report", action.getGenerationFailure());
+        assertNull(action.getJsonReportData());
+
+        // the failure was saved with the build
+        build.reload();
+        final HubReportV2Action reloaded = build.getAction(HubReportV2Action.class);
+        assertFalse(reloaded.isPending());
+        assertEquals("The Hub could not generate the report", reloaded.getGenerationFailure());
+
+        final HubScanEvent reportEvent = getReportEvent();
+        assertEquals(Boolean.FALSE, reportEvent.getSuccess());
+        assertEquals("The Hub could not generate the report", reportEvent.getMessage());
+    }
+
+    @Test
+    public void testRecordsFailureWithoutMessage() throws Exception {
+        final Future<?> done = HubReportGenerator.submit(build, action, new Callable<ReportData>() {
+            @Override
+            public ReportData call() throws Exception {
+                throw new IllegalStateException();
+            }
+        }, events);
+        done.get(30, TimeUnit.SECONDS);
+
+        assertFalse(action.isPending());
+        assertEquals(IllegalStateException.class.getName(), action.getGenerationFailure());
+    }
+
+    @Test
+    public void testNewGenerationClearsFailure() throws Exception {
+        action.setGenerationFailure("The Hub could not generate the report");
+
+        HubReportGenerator.submit(build, action, new Callable<ReportData>() {
+            @Override
+            public ReportData call() throws Exception {
+                return new GsonBuilder().create().fromJson(REPORT, ReportData.class);
+            }
+        }, events).get(30, TimeUnit.SECONDS);
+
+        assertNull(action.getGenerationFailure());
+        assertNotNull(action.getJsonReportData());
+    }
+
+    private HubScanEvent getReportEvent() throws Exception {
+        final List<HubScanEvent> read = HubScanEventLog.read(build.getRootDir());
+        assertEquals(2, read.size());
+        assertEquals(HubScanEvent.PHASE_START, read.get(0).getType());
+        assertEquals("riskReport", read.get(0).getName());
+        assertEquals(HubScanEvent.PHASE_END, read.get(1).getType());
+        assertEquals("riskReport", read.get(1).getName());
+        return read.get(1);
+    }
+
+}
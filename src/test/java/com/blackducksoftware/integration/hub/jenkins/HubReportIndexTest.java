@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.BitSet;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.jenkins.report.HubReportIndex;
+import com.google.gson.JsonParser;
+
+public class HubReportIndexTest {
+
+    private static final String REPORT = "{\"projectName\":\"project\",\"components\":["
+            + "{\"componentName\":\"Guava\",\"componentVersion\":\"18.0\",\"license\":\"Apache License 2.0\",\"policyStatus\":\"IN_VIOLATION\",\"securityRiskHighCount\":1,\"licenseRiskLowCount\":1},"
+            + "{\"componentName\":\"jackson-databind\",\"componentVersion\":\"2.4.1\",\"license\":\"Apache License 2.0\",\"policyStatus\":\"NOT_IN_VIOLATION\",\"securityRiskMediumCount\":2},"
+            + "{\"componentName\":\"mysql-connector\",\"componentVersion\":\"5.1\",\"license\":\"GPL 2.0\",\"policyStatus\":\"IN_VIOLATION\"}]}";
+
+    private final HubReportIndex index = new HubReportIndex(new JsonParser().parse(REPORT).getAsJsonObject());
+
+    @Test
+    public void testSearch() {
+        assertEquals("{0, 1, 2}", search(null, null, null, null, null).toString());
+        assertEquals("{0}", search("guava", null, null, null, null).toString());
+        assertEquals("{0, 1}", search(null, "apache", null, null, null).toString());
+        assertEquals("{0, 2}", search(null, null, "in_violation", null, null).toString());
+        assertEquals("{1}", search(null, null, null, "medium", null).toString());
+        assertEquals("{2}", search(null, "gpl", "IN_VIOLATION", "none", "none").toString());
+        assertEquals("{}", search("guava", null, "UNKNOWN", null, null).toString());
+        assertEquals("project", index.getReportFields().get("projectName").getAsString());
+    }
+
+    @Test
+    public void testPolicyStatusCounts() {
+        assertEquals("{IN_VIOLATION=2, NOT_IN_VIOLATION=1}", index.getPolicyStatusCounts().toString());
+    }
+
+    @Test
+    public void testInvalidRiskLevel() {
+        try {
+            search(null, null, null, "critical", null);
+            fail("Expected the risk level to be rejected");
+        } catch (final IllegalArgumentException e) {
+        }
+    }
+
+    private BitSet search(final String name, final String license, final String policyStatus, final String securityRisk, final String licenseRisk) {
+        return index.search(new HubReportIndex.Query(name, license, policyStatus, securityRisk, licenseRisk, null));
+    }
+
+}
@@ -0,0 +1,341 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import com.blackducksoftware.integration.hub.jenkins.action.HubReportV2Action;
+import com.blackducksoftware.integration.hub.jenkins.report.HubReportRetentionWork;
+import com.blackducksoftware.integration.hub.jenkins.report.HubTrendIndex;
+import com.blackducksoftware.integration.hub.jenkins.report.HubTrendIndex.HubTrendEntry;
+import com.blackducksoftware.integration.hub.report.api.ReportData;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.TaskListener;
+import hudson.util.IOUtils;
+
+public class HubReportV2ActionTest {
+
+    private static final String REPORT = "{\"projectName\":\"project\",\"projectVersion\":\"1.0\",\"phase\":\"DEVELOPMENT\",\"totalComponents\":2,\"vulnerabilityRiskHighCount\":1,\"components\":["
+            + "{\"componentName\":\"guava\",\"componentVersion\":\"18.0\",\"license\":\"Apache License 2.0\",\"policyStatus\":\"IN_VIOLATION\",\"securityRiskHighCount\":1},"
+            + "{\"componentName\":\"jackson-databind\",\"componentVersion\":\"2.4.1\",\"license\":\"Apache License 2.0\",\"policyStatus\":\"NOT_IN_VIOLATION\"}]}";
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    private FreeStyleProject project;
+
+    @Before
+    public void setUp() throws Exception {
+        project = j.createFreeStyleProject();
+    }
+
+    @Test
+    public void testServesGzippedJson() throws Exception {
+        final HubReportV2Action action = attachReport(j.buildAndAssertSuccess(project));
+
+        final HttpURLConnection connection = open(action);
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        assertEquals(HttpURLConnection.HTTP_OK, connection.getResponseCode());
+        assertEquals("gzip", connection.getHeaderField("Content-Encoding"));
+        assertEquals(action.getJsonFile().length(), connection.getContentLength());
+        // the file is sent as it is stored
+        assertEquals(parse(action.getJsonReportData()), parse(read(new GZIPInputStream(connection.getInputStream()))));
+    }
+
+    @Test
+    public void testServesPlainJson() throws Exception {
+        final HubReportV2Action action = attachReport(j.buildAndAssertSuccess(project));
+
+        final HttpURLConnection connection = open(action);
+        connection.setRequestProperty("Accept-Encoding", "identity");
+        assertEquals(HttpURLConnection.HTTP_OK, connection.getResponseCode());
+        assertNull(connection.getHeaderField("Content-Encoding"));
+        assertEquals("Accept-Encoding", connection.getHeaderField("Vary"));
+        assertEquals(parse(action.getJsonReportData()), parse(read(connection.getInputStream())));
+    }
+
+    @Test
+    public void testNotModified() throws Exception {
+        final HubReportV2Action action = attachReport(j.buildAndAssertSuccess(project));
+
+        final HttpURLConnection first = open(action);
+        assertEquals(HttpURLConnection.HTTP_OK, first.getResponseCode());
+        final String etag = first.getHeaderField("ETag");
+        final long lastModified = first.getLastModified();
+        read(first.getInputStream());
+
+        final HttpURLConnection sameEtag = open(action);
+        sameEtag.setRequestProperty("If-None-Match", etag);
+        assertEquals(HttpURLConnection.HTTP_NOT_MODIFIED, sameEtag.getResponseCode());
+
+        final HttpURLConnection otherEtag = open(action);
+        otherEtag.setRequestProperty("If-None-Match", "\"0-0\"");
+        // the ETag decides even if the date would match
+        otherEtag.setIfModifiedSince(lastModified);
+        assertEquals(HttpURLConnection.HTTP_OK, otherEtag.getResponseCode());
+        read(otherEtag.getInputStream());
+
+        final HttpURLConnection sameDate = open(action);
+        sameDate.setIfModifiedSince(lastModified);
+        assertEquals(HttpURLConnection.HTTP_NOT_MODIFIED, sameDate.getResponseCode());
+
+        final HttpURLConnection olderDate = open(action);
+        olderDate.setIfModifiedSince(lastModified - 2000L);
+        assertEquals(HttpURLConnection.HTTP_OK, olderDate.getResponseCode());
+        read(olderDate.getInputStream());
+    }
+
+    @Test
+    public void testNewReportChangesEtag() throws Exception {
+        final FreeStyleBuild build = j.buildAndAssertSuccess(project);
+        final HubReportV2Action action = attachReport(build);
+        final HttpURLConnection first = open(action);
+        final String etag = first.getHeaderField("ETag");
+        read(first.getInputStream());
+
+        action.setReportData(new GsonBuilder().create().fromJson(REPORT.replace("\"1.0\"", "\"1.0.1\""), ReportData.class));
+
+        final HttpURLConnection second = open(action);
+        second.setRequestProperty("If-None-Match", etag);
+        assertEquals(HttpURLConnection.HTTP_OK, second.getResponseCode());
+        assertEquals("1.0.1", parse(read(second.getInputStream())).getAsJsonObject().get("projectVersion").getAsString());
+    }
+
+    @Test
+    public void testRebuildsDeltaAfterReload() throws Exception {
+        final FreeStyleBuild first = j.buildAndAssertSuccess(project);
+        final HubReportV2Action firstAction = new HubReportV2Action(first);
+        firstAction.setReportData(new GsonBuilder().create().fromJson(createReport("18.0"), ReportData.class));
+        first.addAction(firstAction);
+        first.save();
+        final FreeStyleBuild second = j.buildAndAssertSuccess(project);
+        final HubReportV2Action secondAction = new HubReportV2Action(second);
+        secondAction.setReportData(new GsonBuilder().create().fromJson(createReport("19.0"), ReportData.class));
+        second.addAction(secondAction);
+        second.save();
+        assertTrue(secondAction.isDelta());
+        final JsonElement firstReport = parse(firstAction.getJsonReportData());
+        final JsonElement secondReport = parse(secondAction.getJsonReportData());
+        assertEquals("19.0", secondReport.getAsJsonObject().get("components").getAsJsonArray().get(0).getAsJsonObject().get("componentVersion").getAsString());
+
+        // nothing of the reports is left in memory, the delta is applied to the report read from the base build
+        first.reload();
+        second.reload();
+        assertEquals(secondReport, parse(second.getAction(HubReportV2Action.class).getJsonReportData()));
+        assertEquals(firstReport, parse(first.getAction(HubReportV2Action.class).getJsonReportData()));
+    }
+
+    @Test
+    public void testCompact() throws Exception {
+        final HubReportV2Action action = attachReport(j.buildAndAssertSuccess(project));
+        final int[] summary = action.getSummary();
+        open(action).getInputStream().close();
+        assertTrue(action.getReportFile().isFile());
+        assertTrue(action.getJsonFile().isFile());
+
+        assertTrue(action.compact() > 0);
+
+        assertTrue(action.isCompacted());
+        assertFalse(action.getReportFile().exists());
+        assertFalse(action.getJsonFile().exists());
+        assertNull(action.getJsonReportData());
+        assertArrayEquals(summary, action.getSummary());
+        assertEquals("{IN_VIOLATION=1, NOT_IN_VIOLATION=1}", action.getPolicyStatusCounts().toString());
+        assertEquals(HttpURLConnection.HTTP_NOT_FOUND, open(action).getResponseCode());
+        assertEquals(0, action.compact());
+    }
+
+    @Test
+    public void testReloadCompactedReport() throws Exception {
+        final FreeStyleBuild build = j.buildAndAssertSuccess(project);
+        final HubReportV2Action action = attachReport(build);
+        final int[] summary = action.getSummary();
+        action.compact();
+
+        build.reload();
+
+        final HubReportV2Action reloaded = build.getAction(HubReportV2Action.class);
+        assertTrue(reloaded.isCompacted());
+        assertFalse(reloaded.isPending());
+        assertNull(reloaded.getGenerationFailure());
+        assertArrayEquals(summary, reloaded.getSummary());
+        assertEquals("{IN_VIOLATION=1, NOT_IN_VIOLATION=1}", reloaded.getPolicyStatusCounts().toString());
+    }
+
+    @Test
+    public void testReloadPendingReport() throws Exception {
+        final FreeStyleBuild build = j.buildAndAssertSuccess(project);
+        final HubReportV2Action action = new HubReportV2Action(build);
+        action.setPending();
+        build.addAction(action);
+        build.save();
+
+        build.reload();
+
+        // the generation that was running is gone with the restart
+        final HubReportV2Action reloaded = build.getAction(HubReportV2Action.class);
+        assertFalse(reloaded.isPending());
+        assertNotNull(reloaded.getGenerationFailure());
+        assertNull(reloaded.getJsonReportData());
+    }
+
+    @Test
+    public void testRetentionCountsReports() throws Exception {
+        final HubServerInfo serverInfo = new HubServerInfo(j.getURL().toString(), null, HubServerInfo.getDefaultTimeout(), false, false);
+        serverInfo.setReportRetention(2);
+        HubServerInfoSingleton.getInstance().setServerInfo(serverInfo);
+        // only every other build has a report
+        final HubReportV2Action[] actions = new HubReportV2Action[7];
+        for (int i = 1; i <= 6; i++) {
+            final FreeStyleBuild build = j.buildAndAssertSuccess(project);
+            if (i % 2 == 1) {
+                actions[i] = attachReport(build);
+            }
+        }
+        addToTrend(project);
+
+        new RetentionWork().run();
+
+        assertTrue(actions[1].isCompacted());
+        assertFalse(actions[3].isCompacted());
+        assertFalse(actions[5].isCompacted());
+        // the report based on the compacted one was given its full report first
+        assertEquals(parse(REPORT).getAsJsonObject().get("projectName"), parse(actions[3].getJsonReportData()).getAsJsonObject().get("projectName"));
+
+        j.buildAndAssertSuccess(project);
+        new RetentionWork().run();
+        assertFalse(actions[3].isCompacted());
+
+        final HubReportV2Action newest = attachReport(j.buildAndAssertSuccess(project));
+        new RetentionWork().run();
+        assertTrue(actions[3].isCompacted());
+        assertFalse(actions[5].isCompacted());
+        assertFalse(newest.isCompacted());
+    }
+
+    @Test
+    public void testRetentionSkipsJobsWithoutTrend() throws Exception {
+        final HubServerInfo serverInfo = new HubServerInfo(j.getURL().toString(), null, HubServerInfo.getDefaultTimeout(), false, false);
+        serverInfo.setReportRetention(1);
+        HubServerInfoSingleton.getInstance().setServerInfo(serverInfo);
+        final HubReportV2Action first = attachReport(j.buildAndAssertSuccess(project));
+        attachReport(j.buildAndAssertSuccess(project));
+
+        new RetentionWork().run();
+        assertFalse(first.isCompacted());
+        assertFalse(new File(project.getRootDir(), HubReportRetentionWork.FILE_NAME).exists());
+
+        addToTrend(project);
+        new RetentionWork().run();
+        assertTrue(first.isCompacted());
+    }
+
+    @Test
+    public void testRetentionRemembersKeptReports() throws Exception {
+        final HubServerInfo serverInfo = new HubServerInfo(j.getURL().toString(), null, HubServerInfo.getDefaultTimeout(), false, false);
+        serverInfo.setReportRetention(3);
+        HubServerInfoSingleton.getInstance().setServerInfo(serverInfo);
+        addToTrend(project);
+        attachReport(j.buildAndAssertSuccess(project));
+        j.buildAndAssertSuccess(project);
+        attachReport(j.buildAndAssertSuccess(project));
+
+        new RetentionWork().run();
+        // the builds already gone through are not loaded again, their reports are remembered by number
+        assertEquals("3\n3,1\n", new String(Files.readAllBytes(new File(project.getRootDir(), HubReportRetentionWork.FILE_NAME).toPath()), StandardCharsets.UTF_8));
+
+        j.buildAndAssertSuccess(project);
+        new RetentionWork().run();
+        assertEquals("4\n3,1\n", new String(Files.readAllBytes(new File(project.getRootDir(), HubReportRetentionWork.FILE_NAME).toPath()), StandardCharsets.UTF_8));
+    }
+
+    private void addToTrend(final FreeStyleProject job) throws IOException {
+        HubTrendIndex.getIndex(job.getRootDir()).append(new HubTrendEntry(1, System.currentTimeMillis(), new int[9], -1, -1, -1, -1L));
+    }
+
+    private String createReport(final String guavaVersion) {
+        final StringBuilder components = new StringBuilder();
+        components.append("{\"componentName\":\"guava\",\"componentVersion\":\"").append(guavaVersion).append("\",\"license\":\"Apache License 2.0\",\"policyStatus\":\"NOT_IN_VIOLATION\"}");
+        for (int i = 0; i < 20; i++) {
+            components.append(",{\"componentName\":\"component-").append(i).append("\",\"componentVersion\":\"1.0\",\"license\":\"Apache License 2.0\",\"policyStatus\":\"NOT_IN_VIOLATION\"}");
+        }
+        return "{\"projectName\":\"project\",\"projectVersion\":\"1.0\",\"phase\":\"DEVELOPMENT\",\"totalComponents\":21,\"components\":[" + components + "]}";
+    }
+
+    private HubReportV2Action attachReport(final FreeStyleBuild build) throws IOException {
+        final HubReportV2Action action = new HubReportV2Action(build);
+        action.setReportData(new GsonBuilder().create().fromJson(REPORT, ReportData.class));
+        build.addAction(action);
+        build.save();
+        return action;
+    }
+
+    private HttpURLConnection open(final HubReportV2Action action) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(j.getURL(), action.getBuild().getUrl() + action.getUrlName() + "/json").openConnection();
+        connection.setUseCaches(false);
+        return connection;
+    }
+
+    private String read(final InputStream input) throws IOException {
+        try (InputStream in = input) {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            IOUtils.copy(in, output);
+            return new String(output.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private JsonElement parse(final String json) {
+        return new JsonParser().parse(json);
+    }
+
+    private static class RetentionWork extends HubReportRetentionWork {
+        private void run() throws Exception {
+            execute(TaskListener.NULL);
+        }
+    }
+
+}
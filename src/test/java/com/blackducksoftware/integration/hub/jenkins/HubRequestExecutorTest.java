@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRequestExecutor;
+import com.blackducksoftware.integration.hub.jenkins.utils.StoredPrintStream;
+import com.blackducksoftware.integration.hub.jenkins.utils.TestBuildListener;
+
+public class HubRequestExecutorTest {
+
+    private StoredPrintStream storedStream;
+
+    private HubJenkinsLogger logger;
+
+    @Before
+    public void setUp() throws Exception {
+        storedStream = new StoredPrintStream();
+        logger = new HubJenkinsLogger(new TestBuildListener(storedStream));
+    }
+
+    @Test
+    public void testGetReturnsTheResultOfEachRequest() throws Exception {
+        final CountDownLatch secondDone = new CountDownLatch(1);
+        final Future<String> first = HubRequestExecutor.submit(logger, "First", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                // finishes after the request submitted after it
+                assertTrue(secondDone.await(10, TimeUnit.SECONDS));
+                return "first";
+            }
+        });
+        final Future<String> second = HubRequestExecutor.submit(logger, "Second", new Callable<String>() {
+            @Override
+            public String call() {
+                secondDone.countDown();
+                return "second";
+            }
+        });
+
+        assertEquals("second", HubRequestExecutor.get(second));
+        assertEquals("first", HubRequestExecutor.get(first));
+        assertTrue(storedStream.getOutputString(), storedStream.getOutputString().contains("--> First took "));
+        assertTrue(storedStream.getOutputString(), storedStream.getOutputString().contains("--> Second took "));
+    }
+
+    @Test
+    public void testGetRethrowsTheFailureOfTheRequest() throws Exception {
+        final HubIntegrationException failure = new HubIntegrationException("policy status");
+        final Future<String> future = HubRequestExecutor.submit(logger, "Policy status", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                throw failure;
+            }
+        });
+
+        try {
+            HubRequestExecutor.get(future);
+            fail("The failure of the request was not rethrown");
+        } catch (final IntegrationException e) {
+            assertSame(failure, e);
+        }
+        assertTrue(storedStream.getOutputString(), storedStream.getOutputString().contains("--> Policy status took "));
+    }
+
+    @Test
+    public void testGetWrapsCheckedFailures() throws Exception {
+        final IOException failure = new IOException("connection reset");
+        final Future<String> future = HubRequestExecutor.submit(logger, "Policy status", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                throw failure;
+            }
+        });
+
+        try {
+            HubRequestExecutor.get(future);
+            fail("The failure of the request was not rethrown");
+        } catch (final IntegrationException e) {
+            assertSame(failure, e.getCause());
+        }
+    }
+
+    @Test
+    public void testCallRunsOnTheCallingThread() throws Exception {
+        final Thread caller = Thread.currentThread();
+        final Thread worker = HubRequestExecutor.call(logger, "Risk report", new Callable<Thread>() {
+            @Override
+            public Thread call() {
+                return Thread.currentThread();
+            }
+        });
+
+        assertSame(caller, worker);
+        assertTrue(storedStream.getOutputString(), storedStream.getOutputString().contains("--> Risk report took "));
+    }
+
+    @Test
+    public void testCallRethrowsTheFailureOfTheRequest() throws Exception {
+        final HubIntegrationException failure = new HubIntegrationException("risk report");
+        try {
+            HubRequestExecutor.call(logger, "Risk report", new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    throw failure;
+                }
+            });
+            fail("The failure of the request was not rethrown");
+        } catch (final IntegrationException e) {
+            assertSame(failure, e);
+        }
+
+        final IOException checked = new IOException("connection reset");
+        try {
+            HubRequestExecutor.call(logger, "Risk report", new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    throw checked;
+                }
+            });
+            fail("The failure of the request was not rethrown");
+        } catch (final IntegrationException e) {
+            assertSame(checked, e.getCause());
+        }
+    }
+
+}
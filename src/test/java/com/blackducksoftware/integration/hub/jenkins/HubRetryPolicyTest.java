@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRetryPolicy;
+import com.blackducksoftware.integration.hub.rest.exception.IntegrationRestException;
+
+public class HubRetryPolicyTest {
+
+    @Test
+    public void testIsTransient() {
+        assertTrue(HubRetryPolicy.isTransient(new IntegrationRestException(503, "Service Unavailable", "There was a problem")));
+        assertTrue(HubRetryPolicy.isTransient(new HubIntegrationException("wrapped", new IntegrationRestException(504, "Gateway Timeout", "There was a problem"))));
+        assertTrue(HubRetryPolicy.isTransient(new HubIntegrationException("wrapped", new SocketTimeoutException("Read timed out"))));
+        assertTrue(HubRetryPolicy.isTransient(new ConnectException("Connection refused")));
+        assertTrue(HubRetryPolicy.isTransient(new SocketException("Connection reset")));
+        assertFalse(HubRetryPolicy.isTransient(new IntegrationRestException(401, "Unauthorized", "There was a problem")));
+        assertFalse(HubRetryPolicy.isTransient(new IntegrationRestException(500, "Internal Server Error", "The report of version 503 failed")));
+        // only the status code counts, not a status code in a message
+        assertFalse(HubRetryPolicy.isTransient(new HubIntegrationException("Project 503 could not be found")));
+        assertFalse(HubRetryPolicy.isTransient(null));
+    }
+
+    @Test
+    public void testRetriesTransientFailures() throws Exception {
+        final HubRetryPolicy retryPolicy = new HubRetryPolicy(null, 3, 1, 2, 10);
+        final int[] attempts = new int[1];
+        final String result = retryPolicy.execute("test", new HubRetryPolicy.HubRequest<String>() {
+            @Override
+            public String execute() throws Exception {
+                attempts[0]++;
+                if (attempts[0] < 3) {
+                    throw new IntegrationRestException(502, "Bad Gateway", "There was a problem");
+                }
+                return "done";
+            }
+        });
+        assertEquals("done", result);
+        assertEquals(3, attempts[0]);
+        assertEquals(2, retryPolicy.getRetryCount());
+        assertEquals(8, retryPolicy.getRemainingBudget());
+    }
+
+    @Test
+    public void testDoesNotRetryPermanentFailures() throws Exception {
+        final HubRetryPolicy retryPolicy = new HubRetryPolicy(null, 3, 1, 2, 10);
+        final int[] attempts = new int[1];
+        try {
+            retryPolicy.execute("test", new HubRetryPolicy.HubRequest<String>() {
+                @Override
+                public String execute() throws Exception {
+                    attempts[0]++;
+                    throw new IntegrationRestException(404, "Not Found", "404 Not Found");
+                }
+            });
+            fail("Expected the exception to be rethrown");
+        } catch (final IntegrationException e) {
+            assertEquals("404 Not Found", e.getMessage());
+        }
+        assertEquals(1, attempts[0]);
+        assertEquals(0, retryPolicy.getRetryCount());
+    }
+
+    @Test
+    public void testStopsWhenBudgetIsSpent() throws Exception {
+        final HubRetryPolicy retryPolicy = new HubRetryPolicy(null, 5, 1, 2, 2);
+        final int[] attempts = new int[1];
+        try {
+            retryPolicy.execute("test", new HubRetryPolicy.HubRequest<String>() {
+                @Override
+                public String execute() throws Exception {
+                    attempts[0]++;
+                    throw new IntegrationRestException(503, "Service Unavailable", "There was a problem");
+                }
+            });
+            fail("Expected the exception to be rethrown");
+        } catch (final IntegrationException e) {
+            assertEquals(3, attempts[0]);
+        }
+        assertEquals(0, retryPolicy.getRemainingBudget());
+    }
+
+    @Test
+    public void testLogsInAgainWhenUnauthorized() throws Exception {
+        final HubRetryPolicy retryPolicy = new HubRetryPolicy(null, 0, 1, 2, 10);
+        final int[] logins = new int[1];
+        retryPolicy.setReauthentication(new HubRetryPolicy.Reauthentication() {
+            @Override
+            public void reauthenticate(final long since) {
+                logins[0]++;
+            }
+        });
+        final int[] attempts = new int[1];
+        final String result = retryPolicy.execute("test", new HubRetryPolicy.HubRequest<String>() {
+            @Override
+            public String execute() throws Exception {
+                attempts[0]++;
+                if (logins[0] == 0) {
+                    throw new HubIntegrationException("wrapped", new IntegrationRestException(401, "Unauthorized", "The session expired"));
+                }
+                return "done";
+            }
+        });
+        assertEquals("done", result);
+        assertEquals(2, attempts[0]);
+        assertEquals(1, logins[0]);
+        // logging in again is not a retry of a transient failure
+        assertEquals(0, retryPolicy.getRetryCount());
+    }
+
+    @Test
+    public void testLogsInAgainOnlyOnce() throws Exception {
+        final HubRetryPolicy retryPolicy = new HubRetryPolicy(null, 3, 1, 2, 10);
+        final int[] logins = new int[1];
+        retryPolicy.setReauthentication(new HubRetryPolicy.Reauthentication() {
+            @Override
+            public void reauthenticate(final long since) {
+                logins[0]++;
+            }
+        });
+        final int[] attempts = new int[1];
+        try {
+            retryPolicy.execute("test", new HubRetryPolicy.HubRequest<String>() {
+                @Override
+                public String execute() throws Exception {
+                    attempts[0]++;
+                    throw new IntegrationRestException(401, "Unauthorized", "The credentials are wrong");
+                }
+            });
+            fail("Expected the exception to be rethrown");
+        } catch (final IntegrationException e) {
+            assertEquals("The credentials are wrong", e.getMessage());
+        }
+        assertEquals(2, attempts[0]);
+        assertEquals(1, logins[0]);
+    }
+
+    @Test
+    public void testBackoffIsCapped() {
+        final HubRetryPolicy retryPolicy = new HubRetryPolicy(null, 10, 1000, 4000, 10);
+        for (int attempt = 1; attempt <= 10; attempt++) {
+            final long backoff = retryPolicy.getBackoff(attempt);
+            assertTrue(backoff <= 4000);
+            assertTrue(backoff >= 500);
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.jenkins.helper.HubRetryPolicy;
+import com.blackducksoftware.integration.hub.jenkins.report.HubScanEvent;
+import com.blackducksoftware.integration.hub.jenkins.report.HubScanEventLog;
+
+public class HubScanEventLogTest {
+
+    private File buildDirectory;
+
+    @Before
+    public void setUp() throws Exception {
+        buildDirectory = Files.createTempDirectory("hubEvents").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        HubScanEventLog.getFile(buildDirectory).delete();
+        buildDirectory.delete();
+    }
+
+    @Test
+    public void testRecordAndRead() throws Exception {
+        assertTrue(HubScanEventLog.read(buildDirectory).isEmpty());
+
+        final HubScanEventLog events = new HubScanEventLog(buildDirectory, "scan");
+        final long start = events.phaseStart("remoteScan");
+        final HubScanEvent end = events.createPhaseEnd("remoteScan", start);
+        end.setBytes(2048L);
+        events.record(end);
+        new HubScanEventLog(buildDirectory, "failureConditions").record(new HubScanEvent(start, "failureConditions", HubScanEvent.RESULT, "SUCCESS"));
+        // a line cut short by a killed build
+        try (FileOutputStream output = new FileOutputStream(HubScanEventLog.getFile(buildDirectory), true)) {
+            output.write("{\"time\":1,\"step\":".getBytes(StandardCharsets.UTF_8));
+        }
+
+        final List<HubScanEvent> read = HubScanEventLog.read(buildDirectory);
+        assertEquals(3, read.size());
+        assertEquals(HubScanEvent.PHASE_START, read.get(0).getType());
+        assertEquals("remoteScan", read.get(0).getName());
+        assertNull(read.get(0).getDuration());
+        assertEquals(HubScanEvent.PHASE_END, read.get(1).getType());
+        assertEquals(Long.valueOf(2048L), read.get(1).getBytes());
+        assertTrue(read.get(1).getDuration() >= 0);
+        assertEquals("failureConditions", read.get(2).getStep());
+        assertEquals("SUCCESS", read.get(2).getName());
+    }
+
+    @Test
+    public void testHubRequestsRecorded() throws Exception {
+        final HubRetryPolicy retryPolicy = new HubRetryPolicy(null, 3, 1, 2, 10);
+        retryPolicy.setEventLog(new HubScanEventLog(buildDirectory, "scan"));
+        final int[] calls = new int[1];
+        retryPolicy.execute("get policy status", new HubRetryPolicy.HubRequest<String>() {
+            @Override
+            public String execute() throws Exception {
+                calls[0]++;
+                if (calls[0] < 3) {
+                    throw new SocketTimeoutException("Read timed out");
+                }
+                return "OK";
+            }
+        });
+        try {
+            retryPolicy.execute("get project", new HubRetryPolicy.HubRequest<String>() {
+                @Override
+                public String execute() throws Exception {
+                    throw new IOException("Not Found");
+                }
+            });
+        } catch (final Exception e) {
+            // expected, the failed request is still recorded
+        }
+
+        final List<HubScanEvent> read = HubScanEventLog.read(buildDirectory);
+        assertEquals(2, read.size());
+        assertEquals(HubScanEvent.HUB_REQUEST, read.get(0).getType());
+        assertEquals("get policy status", read.get(0).getName());
+        assertEquals(Integer.valueOf(3), read.get(0).getAttempts());
+        assertEquals(Boolean.TRUE, read.get(0).getSuccess());
+        assertEquals("get project", read.get(1).getName());
+        assertEquals(Integer.valueOf(1), read.get(1).getAttempts());
+        assertEquals(Boolean.FALSE, read.get(1).getSuccess());
+    }
+
+}
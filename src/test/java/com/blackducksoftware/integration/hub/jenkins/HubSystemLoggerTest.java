@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.blackducksoftware.integration.log.LogLevel;
+
+public class HubSystemLoggerTest {
+
+    private final Logger julLogger = Logger.getLogger(HubSystemLoggerTest.class.getName());
+
+    private final List<LogRecord> records = new ArrayList<>();
+
+    private final Handler handler = new Handler() {
+        @Override
+        public void publish(final LogRecord record) {
+            records.add(record);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @Before
+    public void setUp() {
+        julLogger.setUseParentHandlers(false);
+        julLogger.addHandler(handler);
+        handler.setLevel(Level.ALL);
+    }
+
+    @After
+    public void tearDown() {
+        julLogger.removeHandler(handler);
+        julLogger.setUseParentHandlers(true);
+        julLogger.setLevel(null);
+    }
+
+    @Test
+    public void testLogLevelFollowsLogger() {
+        final HubSystemLogger logger = new HubSystemLogger(julLogger);
+        julLogger.setLevel(Level.ALL);
+        assertEquals(LogLevel.TRACE, logger.getLogLevel());
+        julLogger.setLevel(Level.FINE);
+        assertEquals(LogLevel.DEBUG, logger.getLogLevel());
+        julLogger.setLevel(Level.INFO);
+        assertEquals(LogLevel.INFO, logger.getLogLevel());
+        julLogger.setLevel(Level.WARNING);
+        assertEquals(LogLevel.WARN, logger.getLogLevel());
+        julLogger.setLevel(Level.SEVERE);
+        assertEquals(LogLevel.ERROR, logger.getLogLevel());
+        julLogger.setLevel(Level.OFF);
+        assertEquals(LogLevel.OFF, logger.getLogLevel());
+
+        // the level is set in the Jenkins logging configuration only
+        logger.setLogLevel(LogLevel.TRACE);
+        assertEquals(LogLevel.OFF, logger.getLogLevel());
+    }
+
+    @Test
+    public void testLogsAtMatchingLevels() {
+        final HubSystemLogger logger = new HubSystemLogger(julLogger);
+        julLogger.setLevel(Level.INFO);
+        final Exception exception = new Exception("failure");
+
+        logger.trace("trace");
+        logger.debug("debug");
+        logger.info("info");
+        logger.alwaysLog("always");
+        logger.warn("warn");
+        logger.error("error", exception);
+
+        assertEquals(4, records.size());
+        assertRecord(records.get(0), Level.INFO, "info");
+        assertRecord(records.get(1), Level.INFO, "always");
+        assertRecord(records.get(2), Level.WARNING, "warn");
+        assertRecord(records.get(3), Level.SEVERE, "error");
+        assertNull(records.get(0).getThrown());
+        assertSame(exception, records.get(3).getThrown());
+    }
+
+    private void assertRecord(final LogRecord record, final Level level, final String message) {
+        assertEquals(level, record.getLevel());
+        assertEquals(message, record.getMessage());
+    }
+
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.jenkins.report.HubTrendIndex;
+import com.blackducksoftware.integration.hub.jenkins.report.HubTrendIndex.HubTrendEntry;
+
+public class HubTrendIndexTest {
+
+    private File jobDirectory;
+
+    @Before
+    public void setUp() throws Exception {
+        jobDirectory = Files.createTempDirectory("hubTrend").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        new File(jobDirectory, HubTrendIndex.FILE_NAME).delete();
+        jobDirectory.delete();
+    }
+
+    @Test
+    public void testAppendAndRead() throws Exception {
+        final HubTrendIndex index = HubTrendIndex.getIndex(jobDirectory);
+        index.append(createEntry(1, 5));
+        index.append(createEntry(2, 3));
+        List<HubTrendEntry> entries = index.getEntries();
+        assertEquals(2, entries.size());
+        assertEquals(5, entries.get(0).getSecurityRiskHighCount());
+        assertEquals(-1, entries.get(0).getLicenseRiskHighCount());
+
+        // only the new line is read, a build recorded twice keeps the last line
+        index.append(createEntry(2, 7));
+        index.append(createEntry(3, 1));
+        entries = index.getEntries();
+        assertEquals(3, entries.size());
+        assertEquals(7, entries.get(1).getSecurityRiskHighCount());
+        assertEquals(1200L, entries.get(2).getScanDuration());
+    }
+
+    private HubTrendEntry createEntry(final int buildNumber, final int securityRiskHighCount) {
+        final int[] riskCounts = new int[] { securityRiskHighCount, 0, 0, -1, -1, -1, -1, -1, -1 };
+        return new HubTrendEntry(buildNumber, 1000L * buildNumber, riskCounts, 2, 0, 10, 1200L);
+    }
+
+    @Test
+    public void testExists() throws Exception {
+        assertFalse(HubTrendIndex.exists(jobDirectory));
+        HubTrendIndex.getIndex(jobDirectory).append(createEntry(1, 5));
+        assertTrue(HubTrendIndex.exists(jobDirectory));
+    }
+
+    @Test
+    public void testRemoveIndex() throws Exception {
+        final HubTrendIndex index = HubTrendIndex.getIndex(jobDirectory);
+        assertSame(index, HubTrendIndex.getIndex(jobDirectory));
+
+        HubTrendIndex.removeIndex(jobDirectory);
+
+        assertNotSame(index, HubTrendIndex.getIndex(jobDirectory));
+    }
+
+    @Test
+    public void testRemoveMissingIndexes() throws Exception {
+        final File movedJobDirectory = Files.createTempDirectory("hubTrend").toFile();
+        final HubTrendIndex movedIndex = HubTrendIndex.getIndex(movedJobDirectory);
+        final HubTrendIndex index = HubTrendIndex.getIndex(jobDirectory);
+        assertTrue(movedJobDirectory.delete());
+
+        HubTrendIndex.removeMissingIndexes();
+
+        assertSame(index, HubTrendIndex.getIndex(jobDirectory));
+        assertNotSame(movedIndex, HubTrendIndex.getIndex(movedJobDirectory));
+    }
+
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URL;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.jenkins.helper.JenkinsProxyHelper;
+import com.blackducksoftware.integration.hub.jenkins.helper.NoProxyHostMatcher;
+
+public class JenkinsProxyHelperTest {
+
+    private static final String NO_PROXY_HOSTS = "localhost\n127.0.0.1, *.internal.example.com | build-*.example.com\t10.*";
+
+    @Test
+    public void testShouldUseProxy() {
+        assertTrue(JenkinsProxyHelper.shouldUseProxy("https://hub.example.com/api", NO_PROXY_HOSTS));
+        assertTrue(JenkinsProxyHelper.shouldUseProxy("https://hub.example.com/api", null));
+        assertTrue(JenkinsProxyHelper.shouldUseProxy("https://hub.example.com/api", " "));
+        assertFalse(JenkinsProxyHelper.shouldUseProxy("http://localhost:8080", NO_PROXY_HOSTS));
+        assertFalse(JenkinsProxyHelper.shouldUseProxy("https://hub.Internal.Example.com", NO_PROXY_HOSTS));
+        assertFalse(JenkinsProxyHelper.shouldUseProxy("https://build-12.example.com", NO_PROXY_HOSTS));
+        assertFalse(JenkinsProxyHelper.shouldUseProxy("https://10.0.0.12", NO_PROXY_HOSTS));
+        assertFalse(JenkinsProxyHelper.shouldUseProxy("not a url", NO_PROXY_HOSTS));
+        assertFalse(JenkinsProxyHelper.shouldUseProxy("", NO_PROXY_HOSTS));
+        assertFalse(JenkinsProxyHelper.shouldUseProxy((URL) null, NO_PROXY_HOSTS));
+    }
+
+    @Test
+    public void testNoProxyHostMatcher() {
+        final NoProxyHostMatcher matcher = new NoProxyHostMatcher(NO_PROXY_HOSTS);
+        assertTrue(matcher.isNoProxyHost("LOCALHOST"));
+        assertTrue(matcher.isNoProxyHost("a.b.internal.example.com"));
+        assertTrue(matcher.isNoProxyHost("build-.example.com"));
+        assertTrue(matcher.isNoProxyHost("10.1.2.3"));
+        assertFalse(matcher.isNoProxyHost("internal.example.com"));
+        assertFalse(matcher.isNoProxyHost("localhost.example.com"));
+        assertFalse(matcher.isNoProxyHost("build-1.example.com.evil.com"));
+        assertFalse(matcher.isNoProxyHost("110.1.2.3"));
+        assertFalse(matcher.isNoProxyHost(null));
+        // cached decisions do not change
+        assertTrue(matcher.isNoProxyHost("a.b.internal.example.com"));
+        assertFalse(matcher.isNoProxyHost("110.1.2.3"));
+
+        assertTrue(new NoProxyHostMatcher("*").isNoProxyHost("hub.example.com"));
+        assertFalse(new NoProxyHostMatcher("").isNoProxyHost("hub.example.com"));
+    }
+
+    @Test
+    public void testMatcherCompiledAgainOnlyWhenTheHostsChange() {
+        final NoProxyHostMatcher matcher = JenkinsProxyHelper.getNoProxyHostMatcher(NO_PROXY_HOSTS);
+        assertSame(matcher, JenkinsProxyHelper.getNoProxyHostMatcher(NO_PROXY_HOSTS));
+        final NoProxyHostMatcher changedMatcher = JenkinsProxyHelper.getNoProxyHostMatcher("localhost");
+        assertNotSame(matcher, changedMatcher);
+        assertTrue(JenkinsProxyHelper.shouldUseProxy("https://10.0.0.12", "localhost"));
+    }
+
+}
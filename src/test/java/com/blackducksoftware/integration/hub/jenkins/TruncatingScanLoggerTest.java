@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.jenkins.remote.TruncatingScanLogger;
+import com.blackducksoftware.integration.hub.jenkins.utils.StoredPrintStream;
+import com.blackducksoftware.integration.hub.jenkins.utils.TestBuildListener;
+
+import hudson.util.IOUtils;
+
+public class TruncatingScanLoggerTest {
+
+    private File directory;
+
+    private File logFile;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("hubScanLog").toFile();
+        logFile = new File(new File(directory, "scanLogs"), "scan.log.gz");
+    }
+
+    @After
+    public void tearDown() {
+        logFile.delete();
+        logFile.getParentFile().delete();
+        directory.delete();
+    }
+
+    @Test
+    public void testKeepsHeadTailAndErrors() throws Exception {
+        final StoredPrintStream storedStream = new StoredPrintStream();
+        final HubJenkinsLogger console = new HubJenkinsLogger(new TestBuildListener(storedStream));
+        final TruncatingScanLogger logger = new TruncatingScanLogger(console, logFile, 2);
+        for (int i = 1; i <= 10; i++) {
+            logger.info("line " + i);
+            if (i == 5) {
+                logger.error("scan error");
+            }
+        }
+        logger.close();
+
+        final List<String> output = storedStream.getOutputList();
+        assertEquals(6, output.size());
+        assertEquals("line 1", output.get(0));
+        assertEquals("line 2", output.get(1));
+        assertEquals("scan error", output.get(2));
+        assertTrue(output.get(3).startsWith("[6 lines of the scan log were left out"));
+        assertEquals("line 9", output.get(4));
+        assertEquals("line 10", output.get(5));
+        assertEquals(6, logger.getOmittedLines());
+
+        try (GZIPInputStream input = new GZIPInputStream(new FileInputStream(logFile))) {
+            final String archived = IOUtils.toString(input, StandardCharsets.UTF_8.name());
+            assertTrue(archived.startsWith("line 1\nline 2\nline 3\nline 4\nline 5\nscan error\nline 6\n"));
+            assertTrue(archived.endsWith("line 10\n"));
+        }
+    }
+
+}
@@ -0,0 +1,817 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.mock;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import hudson.util.IOUtils;
+
+/**
+ * Embedded HTTP server that answers like a Hub for the requests of a scan, its BOM, its policy status and its risk report. Every response can be delayed and every nth request can be failed, so the
+ * behaviour of the plugin against a slow or flaky Hub can be measured without a live Hub.
+ *
+ * The scan itself is not run, the upload of the CLI is replaced by {@link #uploadScan(String, String, String)} or a POST to the scans of the version. Every upload adds a scan summary to the code location of
+ * its name, which stays in processing for a configurable time. The BOM of the version only has its components once a scan of it was processed. Like a real Hub, a processed scan only causes a notification
+ * when it changes the policy violations or the vulnerabilities of the version, there is no notification about the BOM itself.
+ */
+public class StubHubServer implements Closeable {
+
+    public static final String HUB_VERSION = "4.1.0";
+
+    public static final String AUTHORIZATION_COOKIE = "AUTHORIZATION_BEARER=stub-hub-session";
+
+    private static final Pattern PROJECT = Pattern.compile("/api/projects/([^/]+)");
+
+    private static final Pattern VERSIONS = Pattern.compile("/api/projects/([^/]+)/versions");
+
+    private static final Pattern VERSION = Pattern.compile("/api/projects/([^/]+)/versions/([^/]+)");
+
+    private static final Pattern VERSION_CHILD = Pattern.compile("/api/projects/([^/]+)/versions/([^/]+)/(scans|policy-status|components)");
+
+    private static final Pattern SCAN_SUMMARIES = Pattern.compile("/api/codelocations/([^/]+)/scan-summaries");
+
+    private final HttpServer server;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final ScheduledExecutorService processor = Executors.newSingleThreadScheduledExecutor();
+
+    private final AtomicInteger ids = new AtomicInteger();
+
+    private final ConcurrentMap<String, Project> projects = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, CodeLocation> codeLocations = new ConcurrentHashMap<>();
+
+    private final List<Notification> notifications = new ArrayList<>();
+
+    private final ConcurrentMap<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+
+    private final AtomicInteger failedRequests = new AtomicInteger();
+
+    private volatile long latency;
+
+    private final AtomicInteger requestNumber = new AtomicInteger();
+
+    private volatile int failureInterval;
+
+    private volatile int failureStatus = 503;
+
+    private volatile String failureEndpoint;
+
+    private volatile long processingTime = 200L;
+
+    private volatile int componentCount = 50;
+
+    private volatile int componentsInViolation = -1;
+
+    private volatile int vulnerableComponents;
+
+    private StubHubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                try {
+                    handleRequest(exchange);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+    }
+
+    public static StubHubServer start() throws IOException {
+        final StubHubServer stubHub = new StubHubServer();
+        stubHub.server.start();
+        return stubHub;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        processor.shutdownNow();
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * @param latency
+     *            milliseconds added to every response
+     */
+    public void setLatency(final long latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * @param failureInterval
+     *            one of every this many requests is answered with the status instead of its response, 0 to answer every request
+     */
+    public void setFailureInterval(final int failureInterval, final int failureStatus) {
+        this.failureInterval = failureInterval;
+        this.failureStatus = failureStatus;
+    }
+
+    /**
+     * @param failureEndpoint
+     *            only fail requests to this endpoint, named like in {@link #getRequestCount(String)}, null to fail requests to any endpoint
+     */
+    public void setFailureEndpoint(final String failureEndpoint) {
+        this.failureEndpoint = failureEndpoint;
+    }
+
+    /**
+     * @param processingTime
+     *            milliseconds a code location stays in processing after its scan was uploaded
+     */
+    public void setProcessingTime(final long processingTime) {
+        this.processingTime = processingTime;
+    }
+
+    /**
+     * @param componentCount
+     *            number of components in the BOM of every version
+     */
+    public void setComponentCount(final int componentCount) {
+        this.componentCount = componentCount;
+    }
+
+    /**
+     * @param componentsInViolation
+     *            number of components of the BOM in violation of a policy, -1 for a tenth of the components
+     */
+    public void setComponentsInViolation(final int componentsInViolation) {
+        this.componentsInViolation = componentsInViolation;
+    }
+
+    /**
+     * @param vulnerableComponents
+     *            number of components of the BOM with a vulnerability
+     */
+    public void setVulnerableComponents(final int vulnerableComponents) {
+        this.vulnerableComponents = vulnerableComponents;
+    }
+
+    public int getComponentsInViolation() {
+        return componentsInViolation < 0 ? componentCount / 10 : Math.min(componentsInViolation, componentCount);
+    }
+
+    /**
+     * @return the number of notifications published so far
+     */
+    public synchronized int getNotificationCount() {
+        return notifications.size();
+    }
+
+    /**
+     * Does what the scan CLI does once it has scanned : creates the project and the version if they do not exist and uploads a scan to the code location.
+     *
+     * @return the url of the project version
+     */
+    public String uploadScan(final String projectName, final String versionName, final String codeLocationName) {
+        final Version version = createProject(projectName).createVersion(versionName);
+        createScan(version, codeLocationName);
+        return version.getHref();
+    }
+
+    /**
+     * @return the number of requests answered for the endpoint, named by its method and path with the ids replaced by {id}
+     */
+    public int getRequestCount(final String endpoint) {
+        final AtomicInteger count = requestCounts.get(endpoint);
+        return count == null ? 0 : count.get();
+    }
+
+    public int getRequestCount() {
+        int total = 0;
+        for (final AtomicInteger count : requestCounts.values()) {
+            total += count.get();
+        }
+        return total;
+    }
+
+    public int getFailedRequests() {
+        return failedRequests.get();
+    }
+
+    private void handleRequest(final HttpExchange exchange) throws IOException {
+        final String method = exchange.getRequestMethod();
+        final String path = StringUtils.removeEnd(exchange.getRequestURI().getPath(), "/");
+        final Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        final String endpoint = method + " " + path.replaceAll("/api/(projects|versions|codelocations)/[^/]+", "/api/$1/{id}").replaceAll("/versions/[^/]+", "/versions/{id}");
+        countRequest(endpoint);
+
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        final int interval = failureInterval;
+        if (interval > 0 && (failureEndpoint == null || failureEndpoint.equals(endpoint)) && requestNumber.incrementAndGet() % interval == 0) {
+            failedRequests.incrementAndGet();
+            send(exchange, failureStatus, "{\"errorMessage\":\"Injected failure\"}");
+            return;
+        }
+
+        if ("POST".equals(method) && "/j_spring_security_check".equals(path)) {
+            exchange.getResponseHeaders().add("Set-Cookie", AUTHORIZATION_COOKIE + "; Path=/");
+            send(exchange, 204, null);
+            return;
+        }
+        if (!isAuthenticated(exchange)) {
+            send(exchange, 401, "{\"errorMessage\":\"Unauthorized\"}");
+            return;
+        }
+        if ("GET".equals(method) && "/api/current-version".equals(path)) {
+            send(exchange, 200, "\"" + HUB_VERSION + "\"");
+            return;
+        }
+        if ("GET".equals(method) && "/api/notifications".equals(path)) {
+            send(exchange, 200, getNotifications(parseDate(query.get("startDate")), parseDate(query.get("endDate"))));
+            return;
+        }
+        if ("/api/projects".equals(path)) {
+            if ("POST".equals(method)) {
+                final Project project = createProject(readBody(exchange).get("name").getAsString());
+                created(exchange, project.getHref());
+            } else {
+                final JsonArray items = new JsonArray();
+                final String name = StringUtils.removeStart(query.get("q"), "name:");
+                for (final Project project : projects.values()) {
+                    if (name == null || project.name.equals(name)) {
+                        items.add(project.toJson());
+                    }
+                }
+                send(exchange, 200, page(items, items.size()));
+            }
+            return;
+        }
+        if ("GET".equals(method) && "/api/codelocations".equals(path)) {
+            final JsonArray items = new JsonArray();
+            final String name = StringUtils.removeStart(query.get("q"), "name:");
+            for (final CodeLocation codeLocation : codeLocations.values()) {
+                if (name == null || codeLocation.name.equals(name)) {
+                    items.add(codeLocation.toJson());
+                }
+            }
+            send(exchange, 200, page(items, items.size()));
+            return;
+        }
+
+        Matcher matcher = SCAN_SUMMARIES.matcher(path);
+        if ("GET".equals(method) && matcher.matches()) {
+            final CodeLocation codeLocation = codeLocations.get(matcher.group(1));
+            if (codeLocation == null) {
+                send(exchange, 404, null);
+                return;
+            }
+            final JsonArray items = codeLocation.getScanSummaries();
+            send(exchange, 200, page(items, items.size()));
+            return;
+        }
+        matcher = VERSION_CHILD.matcher(path);
+        if (matcher.matches()) {
+            final Version version = getVersion(matcher.group(1), matcher.group(2));
+            if (version == null) {
+                send(exchange, 404, null);
+            } else if ("scans".equals(matcher.group(3)) && "POST".equals(method)) {
+                final CodeLocation codeLocation = createScan(version, readBody(exchange).get("codeLocationName").getAsString());
+                created(exchange, codeLocation.getHref());
+            } else if ("policy-status".equals(matcher.group(3))) {
+                send(exchange, 200, version.getPolicyStatus().toString());
+            } else if ("components".equals(matcher.group(3))) {
+                final int offset = NumberUtils.toInt(query.get("offset"), 0);
+                final int limit = NumberUtils.toInt(query.get("limit"), 10);
+                send(exchange, 200, page(version.getComponents(offset, limit), version.getComponentCount()));
+            } else {
+                send(exchange, 405, null);
+            }
+            return;
+        }
+        matcher = VERSION.matcher(path);
+        if ("GET".equals(method) && matcher.matches()) {
+            final Version version = getVersion(matcher.group(1), matcher.group(2));
+            send(exchange, version == null ? 404 : 200, version == null ? null : version.toJson().toString());
+            return;
+        }
+        matcher = VERSIONS.matcher(path);
+        if (matcher.matches()) {
+            final Project project = projects.get(matcher.group(1));
+            if (project == null) {
+                send(exchange, 404, null);
+            } else if ("POST".equals(method)) {
+                final Version version = project.createVersion(readBody(exchange).get("versionName").getAsString());
+                created(exchange, version.getHref());
+            } else {
+                final JsonArray items = new JsonArray();
+                final String versionName = StringUtils.removeStart(query.get("q"), "versionName:");
+                for (final Version version : project.versions.values()) {
+                    if (versionName == null || version.name.equals(versionName)) {
+                        items.add(version.toJson());
+                    }
+                }
+                send(exchange, 200, page(items, items.size()));
+            }
+            return;
+        }
+        matcher = PROJECT.matcher(path);
+        if ("GET".equals(method) && matcher.matches()) {
+            final Project project = projects.get(matcher.group(1));
+            send(exchange, project == null ? 404 : 200, project == null ? null : project.toJson().toString());
+            return;
+        }
+        send(exchange, 404, null);
+    }
+
+    private void countRequest(final String endpoint) {
+        AtomicInteger count = requestCounts.get(endpoint);
+        if (count == null) {
+            count = new AtomicInteger();
+            final AtomicInteger existing = requestCounts.putIfAbsent(endpoint, count);
+            if (existing != null) {
+                count = existing;
+            }
+        }
+        count.incrementAndGet();
+    }
+
+    private boolean isAuthenticated(final HttpExchange exchange) {
+        final List<String> cookies = exchange.getRequestHeaders().get("Cookie");
+        if (cookies == null) {
+            return false;
+        }
+        for (final String cookie : cookies) {
+            if (cookie.contains(AUTHORIZATION_COOKIE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized Project createProject(final String name) {
+        for (final Project project : projects.values()) {
+            if (project.name.equals(name)) {
+                return project;
+            }
+        }
+        final Project project = new Project(nextId(), name);
+        projects.put(project.id, project);
+        return project;
+    }
+
+    private synchronized CodeLocation createScan(final Version version, final String name) {
+        CodeLocation codeLocation = null;
+        for (final CodeLocation existing : codeLocations.values()) {
+            if (existing.name.equals(name)) {
+                codeLocation = existing;
+            }
+        }
+        if (codeLocation == null) {
+            codeLocation = new CodeLocation(nextId(), name, version);
+            codeLocations.put(codeLocation.id, codeLocation);
+        }
+        final ScanSummary scanSummary = new ScanSummary(nextId());
+        codeLocation.scanSummaries.add(scanSummary);
+        processor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                version.processScan();
+                scanSummary.complete = true;
+            }
+        }, processingTime, TimeUnit.MILLISECONDS);
+        return codeLocation;
+    }
+
+    private Version getVersion(final String projectId, final String versionId) {
+        final Project project = projects.get(projectId);
+        if (project == null) {
+            return null;
+        }
+        for (final Version version : project.versions.values()) {
+            if (version.id.equals(versionId)) {
+                return version;
+            }
+        }
+        return null;
+    }
+
+    private synchronized void addNotification(final String type, final JsonObject content) {
+        final long now = System.currentTimeMillis();
+        final JsonObject notification = new JsonObject();
+        notification.addProperty("type", type);
+        notification.addProperty("createdAt", formatDate(now));
+        notification.add("content", content);
+        notification.add("_meta", meta(getUrl() + "/api/notifications/" + nextId()));
+        notifications.add(new Notification(now, notification));
+    }
+
+    private synchronized String getNotifications(final long startDate, final long endDate) {
+        final JsonArray items = new JsonArray();
+        for (final Notification notification : notifications) {
+            if (notification.createdAt >= startDate && (endDate <= 0 || notification.createdAt <= endDate)) {
+                items.add(notification.json);
+            }
+        }
+        return page(items, items.size());
+    }
+
+    private static String formatDate(final long time) {
+        return createDateFormat().format(new Date(time));
+    }
+
+    private static long parseDate(final String date) {
+        if (StringUtils.isBlank(date)) {
+            return 0;
+        }
+        if (NumberUtils.isDigits(date)) {
+            return Long.parseLong(date);
+        }
+        try {
+            return createDateFormat().parse(date).getTime();
+        } catch (final ParseException e) {
+            return 0;
+        }
+    }
+
+    private static SimpleDateFormat createDateFormat() {
+        final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format;
+    }
+
+    private String nextId() {
+        return String.valueOf(ids.incrementAndGet());
+    }
+
+    private String page(final JsonArray items, final int totalCount) {
+        final JsonObject page = new JsonObject();
+        page.addProperty("totalCount", totalCount);
+        page.add("items", items);
+        return page.toString();
+    }
+
+    private JsonObject readBody(final HttpExchange exchange) throws IOException {
+        try (InputStream input = exchange.getRequestBody()) {
+            final String body = IOUtils.toString(input, StandardCharsets.UTF_8.name());
+            return new JsonParser().parse(StringUtils.defaultIfBlank(body, "{}")).getAsJsonObject();
+        }
+    }
+
+    private Map<String, String> parseQuery(final String rawQuery) throws IOException {
+        final Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (final String parameter : StringUtils.split(rawQuery, '&')) {
+            final int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                query.put(URLDecoder.decode(parameter.substring(0, separator), "UTF-8"), URLDecoder.decode(parameter.substring(separator + 1), "UTF-8"));
+            }
+        }
+        return query;
+    }
+
+    private void created(final HttpExchange exchange, final String href) throws IOException {
+        exchange.getResponseHeaders().add("Location", href);
+        send(exchange, 201, null);
+    }
+
+    private void send(final HttpExchange exchange, final int status, final String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private JsonObject meta(final String href, final String... links) {
+        final JsonArray linkArray = new JsonArray();
+        for (int i = 0; i + 1 < links.length; i += 2) {
+            final JsonObject link = new JsonObject();
+            link.addProperty("rel", links[i]);
+            link.addProperty("href", links[i + 1]);
+            linkArray.add(link);
+        }
+        final JsonObject meta = new JsonObject();
+        meta.addProperty("href", href);
+        meta.add("links", linkArray);
+        return meta;
+    }
+
+    private class Project {
+        private final String id;
+
+        private final String name;
+
+        private final ConcurrentMap<String, Version> versions = new ConcurrentHashMap<>();
+
+        private Project(final String id, final String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        private String getHref() {
+            return getUrl() + "/api/projects/" + id;
+        }
+
+        private synchronized Version createVersion(final String versionName) {
+            Version version = versions.get(versionName);
+            if (version == null) {
+                version = new Version(nextId(), versionName, this);
+                versions.put(versionName, version);
+            }
+            return version;
+        }
+
+        private JsonObject toJson() {
+            final JsonObject json = new JsonObject();
+            json.addProperty("name", name);
+            json.add("_meta", meta(getHref(), "versions", getHref() + "/versions"));
+            return json;
+        }
+    }
+
+    private class Version {
+        private final String id;
+
+        private final String name;
+
+        private final Project project;
+
+        // what the BOM looked like after the last processed scan, empty until the first one
+        private int bomComponents;
+
+        private int bomViolations;
+
+        private int bomVulnerabilities;
+
+        private Version(final String id, final String name, final Project project) {
+            this.id = id;
+            this.name = name;
+            this.project = project;
+        }
+
+        private String getHref() {
+            return project.getHref() + "/versions/" + id;
+        }
+
+        private JsonObject toJson() {
+            final JsonObject json = new JsonObject();
+            json.addProperty("versionName", name);
+            json.addProperty("phase", "DEVELOPMENT");
+            json.addProperty("distribution", "EXTERNAL");
+            json.add("_meta", meta(getHref(), "project", project.getHref(), "policy-status", getHref() + "/policy-status", "components", getHref() + "/components"));
+            return json;
+        }
+
+        /**
+         * Updates the BOM with the processed scan and notifies about what changed in it.
+         */
+        private void processScan() {
+            final int violations = getComponentsInViolation();
+            final int vulnerabilities = Math.min(vulnerableComponents, componentCount);
+            final int previousViolations;
+            final int previousVulnerabilities;
+            synchronized (this) {
+                previousViolations = bomViolations;
+                previousVulnerabilities = bomVulnerabilities;
+                bomComponents = componentCount;
+                bomViolations = violations;
+                bomVulnerabilities = vulnerabilities;
+            }
+            if (violations > previousViolations) {
+                final JsonObject content = versionContent();
+                content.addProperty("componentVersionsInViolation", violations - previousViolations);
+                addNotification("RULE_VIOLATION", content);
+            } else if (violations < previousViolations) {
+                final JsonObject content = versionContent();
+                content.addProperty("componentVersionsCleared", previousViolations - violations);
+                addNotification("RULE_VIOLATION_CLEARED", content);
+            }
+            if (vulnerabilities != previousVulnerabilities) {
+                final JsonObject affectedVersion = new JsonObject();
+                affectedVersion.addProperty("projectName", project.name);
+                affectedVersion.addProperty("projectVersionName", name);
+                affectedVersion.addProperty("projectVersion", getHref());
+                final JsonArray affectedVersions = new JsonArray();
+                affectedVersions.add(affectedVersion);
+                final JsonObject content = new JsonObject();
+                content.addProperty("newVulnerabilityCount", Math.max(0, vulnerabilities - previousVulnerabilities));
+                content.add("affectedProjectVersions", affectedVersions);
+                addNotification("VULNERABILITY", content);
+            }
+        }
+
+        private JsonObject versionContent() {
+            final JsonObject content = new JsonObject();
+            content.addProperty("projectName", project.name);
+            content.addProperty("projectVersionName", name);
+            content.addProperty("projectVersionLink", getHref());
+            return content;
+        }
+
+        private synchronized int getComponentCount() {
+            return bomComponents;
+        }
+
+        private JsonObject getPolicyStatus() {
+            final int inViolation;
+            final int components;
+            synchronized (this) {
+                inViolation = bomViolations;
+                components = bomComponents;
+            }
+            final JsonArray counts = new JsonArray();
+            counts.add(statusCount("IN_VIOLATION", inViolation));
+            counts.add(statusCount("IN_VIOLATION_OVERRIDDEN", 0));
+            counts.add(statusCount("NOT_IN_VIOLATION", components - inViolation));
+            final JsonObject json = new JsonObject();
+            json.addProperty("overallStatus", inViolation > 0 ? "IN_VIOLATION" : "NOT_IN_VIOLATION");
+            json.add("componentVersionStatusCounts", counts);
+            json.add("_meta", meta(getHref() + "/policy-status"));
+            return json;
+        }
+
+        private JsonObject statusCount(final String name, final int value) {
+            final JsonObject count = new JsonObject();
+            count.addProperty("name", name);
+            count.addProperty("value", value);
+            return count;
+        }
+
+        private JsonArray getComponents(final int offset, final int limit) {
+            final int count;
+            final int inViolation;
+            final int vulnerable;
+            synchronized (this) {
+                count = bomComponents;
+                inViolation = bomViolations;
+                vulnerable = bomVulnerabilities;
+            }
+            final JsonArray components = new JsonArray();
+            for (int i = offset; i < Math.min(count, offset + limit); i++) {
+                final String componentUrl = getUrl() + "/api/components/" + i;
+                final JsonObject component = new JsonObject();
+                component.addProperty("componentName", "component-" + i);
+                component.addProperty("componentVersionName", "1." + i);
+                component.addProperty("component", componentUrl);
+                component.addProperty("componentVersion", componentUrl + "/versions/" + i);
+                component.addProperty("policyStatus", i < inViolation ? "IN_VIOLATION" : "NOT_IN_VIOLATION");
+                component.add("licenses", new JsonArray());
+                component.add("usages", new JsonArray());
+                component.add("origins", new JsonArray());
+                component.add("matchTypes", new JsonArray());
+                component.add("securityRiskProfile", riskProfile(i < vulnerable ? 1 : 0));
+                component.add("licenseRiskProfile", riskProfile(0));
+                component.add("operationalRiskProfile", riskProfile(0));
+                component.add("activityRiskProfile", riskProfile(0));
+                component.add("versionRiskProfile", riskProfile(0));
+                component.add("_meta", meta(getHref() + "/components/" + i));
+                components.add(component);
+            }
+            return components;
+        }
+
+        private JsonObject riskProfile(final int high) {
+            final JsonArray counts = new JsonArray();
+            for (final String countType : new String[] { "HIGH", "MEDIUM", "LOW", "OK", "UNKNOWN" }) {
+                final JsonObject count = new JsonObject();
+                count.addProperty("countType", countType);
+                count.addProperty("count", "HIGH".equals(countType) ? high : ("OK".equals(countType) ? 1 - high : 0));
+                counts.add(count);
+            }
+            final JsonObject riskProfile = new JsonObject();
+            riskProfile.add("counts", counts);
+            return riskProfile;
+        }
+    }
+
+    private class CodeLocation {
+        private final String id;
+
+        private final String name;
+
+        private final Version version;
+
+        private final List<ScanSummary> scanSummaries = new CopyOnWriteArrayList<>();
+
+        private CodeLocation(final String id, final String name, final Version version) {
+            this.id = id;
+            this.name = name;
+            this.version = version;
+        }
+
+        private String getHref() {
+            return getUrl() + "/api/codelocations/" + id;
+        }
+
+        private JsonObject toJson() {
+            final JsonObject json = new JsonObject();
+            json.addProperty("name", name);
+            json.addProperty("mappedProjectVersion", version.getHref());
+            json.add("_meta", meta(getHref(), "scans", getHref() + "/scan-summaries"));
+            return json;
+        }
+
+        private JsonArray getScanSummaries() {
+            final JsonArray items = new JsonArray();
+            for (final ScanSummary scanSummary : scanSummaries) {
+                final JsonObject json = new JsonObject();
+                json.addProperty("status", scanSummary.complete ? "COMPLETE" : "BUILDING_BOM");
+                json.addProperty("createdAt", formatDate(scanSummary.createdAt));
+                json.addProperty("updatedAt", formatDate(System.currentTimeMillis()));
+                json.add("_meta", meta(getHref() + "/scan-summaries/" + scanSummary.id));
+                items.add(json);
+            }
+            return items;
+        }
+    }
+
+    private static class ScanSummary {
+        private final String id;
+
+        private final long createdAt = System.currentTimeMillis();
+
+        private volatile boolean complete;
+
+        private ScanSummary(final String id) {
+            this.id = id;
+        }
+    }
+
+    private static class Notification {
+        private final long createdAt;
+
+        private final JsonObject json;
+
+        private Notification(final long createdAt, final JsonObject json) {
+            this.createdAt = createdAt;
+            this.json = json;
+        }
+    }
+
+}
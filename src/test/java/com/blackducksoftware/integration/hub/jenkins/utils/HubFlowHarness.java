@@ -0,0 +1,364 @@
+/*******************************************************************************
+ * Copyright (C) 2016 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *******************************************************************************/
+package com.blackducksoftware.integration.hub.jenkins.utils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestBuilder;
+
+import com.blackducksoftware.integration.exception.EncryptionException;
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.jenkins.HubJenkinsLogger;
+import com.blackducksoftware.integration.hub.jenkins.HubServerInfo;
+import com.blackducksoftware.integration.hub.jenkins.HubServerInfoSingleton;
+import com.blackducksoftware.integration.hub.jenkins.failure.FailureConditionBuildStateEnum;
+import com.blackducksoftware.integration.hub.jenkins.failure.HubCommonFailureStep;
+import com.blackducksoftware.integration.hub.jenkins.helper.BuildHelper;
+import com.blackducksoftware.integration.hub.jenkins.mock.StubHubServer;
+import com.blackducksoftware.integration.hub.jenkins.notification.HubScanStatusSource;
+import com.blackducksoftware.integration.hub.jenkins.notification.HubServicesScanStatusSource;
+import com.blackducksoftware.integration.hub.jenkins.remote.RemoteScan;
+import com.blackducksoftware.integration.hub.jenkins.remote.RemoteScanResult;
+import com.blackducksoftware.integration.hub.jenkins.report.HubScanEvent;
+import com.blackducksoftware.integration.hub.jenkins.report.HubScanEventLog;
+import com.blackducksoftware.integration.hub.jenkins.scan.BDCommonScanStep;
+import com.blackducksoftware.integration.hub.model.view.ProjectVersionView;
+import com.blackducksoftware.integration.hub.service.HubServicesFactory;
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl;
+
+import hudson.EnvVars;
+import hudson.Launcher;
+import hudson.model.AbstractBuild;
+import hudson.model.BuildListener;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Node;
+import hudson.model.Result;
+import hudson.model.queue.QueueTaskFuture;
+
+/**
+ * Runs many builds at once against a {@link StubHubServer} and records how long the steps of each build took. Every build runs the real scan step, with only the scan CLI replaced by an upload to the
+ * stub Hub, and then the real failure conditions. The Hub is reached through the connections of the plugin, the step durations are read from the event log of each build.
+ */
+public class HubFlowHarness {
+
+    public static final String CREDENTIALS_ID = "stub-hub-credentials";
+
+    public static final String[] STEPS = new String[] { "remoteScan", "bomNotification", "riskReport", "scan", "failureConditions" };
+
+    private final JenkinsRule j;
+
+    private final StubHubServer stubHub;
+
+    private int builds = 10;
+
+    private int concurrency = 4;
+
+    private int projects = 2;
+
+    private int retryCount = HubServerInfo.getDefaultRetryCount();
+
+    private long pollInterval = 100L;
+
+    private String bomWaitTime = "5";
+
+    private boolean notifications;
+
+    private boolean report = true;
+
+    private boolean failureConditions = true;
+
+    public HubFlowHarness(final JenkinsRule j, final StubHubServer stubHub) {
+        this.j = j;
+        this.stubHub = stubHub;
+    }
+
+    public void setBuilds(final int builds) {
+        this.builds = builds;
+    }
+
+    public void setConcurrency(final int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public void setProjects(final int projects) {
+        this.projects = projects;
+    }
+
+    public void setRetryCount(final int retryCount) {
+        this.retryCount = retryCount;
+    }
+
+    /**
+     * @param pollInterval
+     *            milliseconds between two requests for the scan status while the stubbed scan CLI waits for its scan
+     */
+    public void setPollInterval(final long pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * @param bomWaitTime
+     *            minutes the builds wait for the BOM, like in the configuration of the scan step
+     */
+    public void setBomWaitTime(final String bomWaitTime) {
+        this.bomWaitTime = bomWaitTime;
+    }
+
+    /**
+     * @param notifications
+     *            wait for the BOM with the Hub notifications instead of letting the scan CLI poll the scan status
+     */
+    public void setNotifications(final boolean notifications) {
+        this.notifications = notifications;
+    }
+
+    public void setReport(final boolean report) {
+        this.report = report;
+    }
+
+    public void setFailureConditions(final boolean failureConditions) {
+        this.failureConditions = failureConditions;
+    }
+
+    public HubFlowResult run() throws Exception {
+        configure();
+        final List<QueueTaskFuture<FreeStyleBuild>> futures = new ArrayList<>();
+        final long start = System.nanoTime();
+        for (int i = 0; i < builds; i++) {
+            final int buildNumber = i + 1;
+            final String projectName = "project-" + (buildNumber % projects);
+            final FreeStyleProject project = j.createFreeStyleProject("flow-" + buildNumber);
+            project.getBuildersList().add(new HubFlowBuilder(projectName, "build-" + buildNumber, projectName + " build-" + buildNumber + " scan"));
+            futures.add(project.scheduleBuild2(0));
+        }
+        final HubFlowResult result = new HubFlowResult();
+        for (final QueueTaskFuture<FreeStyleBuild> future : futures) {
+            result.record(future.get(1, TimeUnit.HOURS));
+        }
+        result.wallTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return result;
+    }
+
+    private void configure() throws IOException {
+        SystemCredentialsProvider.getInstance().getCredentials().add(new UsernamePasswordCredentialsImpl(CredentialsScope.GLOBAL, CREDENTIALS_ID, "Stub Hub", "sysadmin", "blackduck"));
+        SystemCredentialsProvider.getInstance().save();
+        final HubServerInfo serverInfo = new HubServerInfo(stubHub.getUrl(), CREDENTIALS_ID, HubServerInfo.getDefaultTimeout(), false, false);
+        serverInfo.setRetryCount(retryCount);
+        serverInfo.setBomNotifications(notifications);
+        serverInfo.setCliFromController(false);
+        serverInfo.setScanLogLines(0);
+        HubServerInfoSingleton.getInstance().setServerInfo(serverInfo);
+        j.jenkins.setNumExecutors(concurrency);
+    }
+
+    /**
+     * Runs the scan step and the failure conditions of one build.
+     */
+    private class HubFlowBuilder extends TestBuilder {
+        private final String projectName;
+
+        private final String versionName;
+
+        private final String codeLocationName;
+
+        private HubFlowBuilder(final String projectName, final String versionName, final String codeLocationName) {
+            this.projectName = projectName;
+            this.versionName = versionName;
+            this.codeLocationName = codeLocationName;
+        }
+
+        @Override
+        public boolean perform(final AbstractBuild<?, ?> build, final Launcher launcher, final BuildListener listener) throws InterruptedException, IOException {
+            final HubJenkinsLogger logger = new HubJenkinsLogger(listener);
+            final EnvVars envVars = build.getEnvironment(listener);
+            final StubScanStep scanStep = new StubScanStep(logger, projectName, versionName, codeLocationName);
+            scanStep.runScan(build, build.getBuiltOn(), envVars, build.getWorkspace(), logger, launcher, listener, build.getFullDisplayName(), String.valueOf(build.getNumber()));
+            if (failureConditions && build.getResult() == Result.SUCCESS) {
+                // the violations of the stub Hub should not fail the builds, only errors of the step do
+                final HubCommonFailureStep failureStep = new HubCommonFailureStep(true, FailureConditionBuildStateEnum.SUCCESS);
+                try {
+                    failureStep.checkFailureConditions(build, build.getBuiltOn(), envVars, logger, listener, scanStep.getBomUpToDateAction());
+                } catch (final EncryptionException e) {
+                    throw new IOException(e);
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The scan step with the scan CLI replaced by an upload to the stub Hub. Like the CLI, the upload waits for the Hub to process the scan if the step asks it to.
+     */
+    private class StubScanStep extends BDCommonScanStep {
+        private final HubJenkinsLogger logger;
+
+        private StubScanStep(final HubJenkinsLogger logger, final String projectName, final String versionName, final String codeLocationName) {
+            super(null, projectName, versionName, "DEVELOPMENT", "EXTERNAL", "4096", false, report, bomWaitTime, false, false, false, new String[0], codeLocationName, false, false, failureConditions);
+            this.logger = logger;
+        }
+
+        @Override
+        protected RemoteScanResult runRemoteScan(final Node builtOn, final RemoteScan scan) throws IOException, InterruptedException, IntegrationException {
+            final String projectVersionUrl = stubHub.uploadScan(scan.getHubProjectName(), scan.getHubProjectVersion(), scan.getCodeLocationName());
+            final HubServicesFactory services = BuildHelper.getHubServicesFactory(logger, scan.getHubServerConfig());
+            if (scan.isShouldWaitForScansFinished()) {
+                waitForScan(new HubServicesScanStatusSource(services, scan.getCodeLocationName(), 1), TimeUnit.MINUTES.toMillis(Long.parseLong(bomWaitTime)));
+            }
+            final ProjectVersionView projectVersionView = services.createHubResponseService().getItem(projectVersionUrl, ProjectVersionView.class);
+            return RemoteScanResult.create(logger, services.createMetaService(), projectVersionView, scan.getCodeLocationName());
+        }
+
+        private void waitForScan(final HubScanStatusSource scanStatus, final long timeout) throws IntegrationException, InterruptedException {
+            final long deadline = System.currentTimeMillis() + timeout;
+            while (!scanStatus.isScanFinished()) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new HubIntegrationException("The scan was not processed within " + timeout + "ms");
+                }
+                Thread.sleep(pollInterval);
+            }
+        }
+    }
+
+    /**
+     * What a run of the harness measured, the latencies are in milliseconds.
+     */
+    public static class HubFlowResult {
+        private final ConcurrentMap<String, List<Long>> stepLatencies = new ConcurrentHashMap<>();
+
+        private final List<Long> flowLatencies = new ArrayList<>();
+
+        private final List<String> failures = new ArrayList<>();
+
+        private int retries;
+
+        private long wallTime;
+
+        private void record(final FreeStyleBuild build) throws IOException {
+            String failure = null;
+            for (final HubScanEvent event : HubScanEventLog.read(build.getRootDir())) {
+                if (HubScanEvent.PHASE_END.equals(event.getType()) && event.getDuration() != null) {
+                    getLatencies(event.getName()).add(event.getDuration());
+                } else if (HubScanEvent.HUB_REQUEST.equals(event.getType()) && event.getAttempts() != null) {
+                    retries += event.getAttempts() - 1;
+                } else if (HubScanEvent.RESULT.equals(event.getType()) && event.getMessage() != null) {
+                    failure = event.getMessage();
+                }
+            }
+            if (build.getResult() == Result.SUCCESS) {
+                flowLatencies.add(build.getDuration());
+            } else {
+                failures.add(build.getFullDisplayName() + " : " + build.getResult() + (failure == null ? "" : ", " + failure));
+            }
+        }
+
+        private List<Long> getLatencies(final String step) {
+            List<Long> latencies = stepLatencies.get(step);
+            if (latencies == null) {
+                latencies = new ArrayList<>();
+                stepLatencies.put(step, latencies);
+            }
+            return latencies;
+        }
+
+        public int getSucceededFlows() {
+            return flowLatencies.size();
+        }
+
+        public List<String> getFailures() {
+            return Collections.unmodifiableList(failures);
+        }
+
+        /**
+         * @return the Hub requests of the builds that were retried
+         */
+        public int getRetries() {
+            return retries;
+        }
+
+        public long getWallTime() {
+            return wallTime;
+        }
+
+        /**
+         * @return the builds completed per second
+         */
+        public double getThroughput() {
+            return wallTime == 0 ? 0 : getSucceededFlows() * 1000.0 / wallTime;
+        }
+
+        /**
+         * @return the number of times the step completed
+         */
+        public int getStepCount(final String step) {
+            final List<Long> latencies = stepLatencies.get(step);
+            return latencies == null ? 0 : latencies.size();
+        }
+
+        /**
+         * @return the latency under which the percentage of the steps completed, -1 if the step never completed
+         */
+        public long getPercentile(final String step, final int percentage) {
+            return percentile(stepLatencies.get(step), percentage);
+        }
+
+        public long getFlowPercentile(final int percentage) {
+            return percentile(flowLatencies, percentage);
+        }
+
+        private long percentile(final List<Long> latencies, final int percentage) {
+            if (latencies == null || latencies.isEmpty()) {
+                return -1;
+            }
+            final List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            final int index = (int) Math.ceil(percentage / 100.0 * sorted.size()) - 1;
+            return sorted.get(Math.max(0, Math.min(sorted.size() - 1, index)));
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder();
+            builder.append(String.format("%d builds succeeded, %d failed, %d retries in %dms : %.2f builds/s%n", getSucceededFlows(), failures.size(), getRetries(), wallTime, getThroughput()));
+            builder.append(String.format("%-18s %6s %8s %8s %8s%n", "step", "count", "p50 ms", "p95 ms", "max ms"));
+            for (final String step : STEPS) {
+                builder.append(String.format("%-18s %6d %8d %8d %8d%n", step, getStepCount(step), getPercentile(step, 50), getPercentile(step, 95), getPercentile(step, 100)));
+            }
+            builder.append(String.format("%-18s %6d %8d %8d %8d%n", "build", getSucceededFlows(), getFlowPercentile(50), getFlowPercentile(95), getFlowPercentile(100)));
+            for (final String failure : failures) {
+                builder.append(failure).append(String.format("%n"));
+            }
+            return builder.toString();
+        }
+    }
+
+}